@@ -0,0 +1,148 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.TestDatabase;
+import org.wso2.intcloud.core.dao.ApplicationDAO;
+import org.wso2.intcloud.core.dto.Application;
+import org.wso2.intcloud.core.dto.ApplicationProjection;
+import org.wso2.intcloud.core.dto.Version;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the application lookups of {@link ApplicationDAO} against tenants of different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApplicationDAOBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Tenant {
+
+        @Param({"10", "1000", "100000"})
+        public int applicationCount;
+
+        TestDatabase database;
+        ApplicationDAO applicationDAO;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            database = TestDatabase.create(applicationCount);
+            DBUtil.setDataSource(database.getDataSource());
+            applicationDAO = new ApplicationDAO();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            database.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Tenant tenant) throws SQLException {
+            connection = tenant.database.getDataSource().getConnection();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        int nextApplication(Tenant tenant) {
+            if (++next == tenant.database.getApplicationCount()) {
+                next = 0;
+            }
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Application getApplicationByHashId(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.applicationDAO.getApplicationByHashId(session.connection,
+                tenant.database.getApplicationHashId(session.nextApplication(tenant)));
+    }
+
+    @Benchmark
+    public int getApplicationId(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.applicationDAO.getApplicationId(session.connection,
+                tenant.database.getApplicationHashId(session.nextApplication(tenant)));
+    }
+
+    @Benchmark
+    public List<Version> getAllVersionsOfApplication(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.applicationDAO.getAllVersionsOfApplication(session.connection,
+                tenant.database.getApplicationHashId(session.nextApplication(tenant)));
+    }
+
+    @Benchmark
+    public List<Application> getApplicationsByHashIds(Tenant tenant, Session session) throws IntCloudException {
+        List<String> applicationHashIds = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            applicationHashIds.add(tenant.database.getApplicationHashId(session.nextApplication(tenant)));
+        }
+        return tenant.applicationDAO.getApplicationsByHashIds(session.connection, applicationHashIds);
+    }
+
+    @Benchmark
+    public LinkedHashMap<Integer, Application> getApplicationsPage(Tenant tenant, Session session)
+            throws IntCloudException {
+        Set<ApplicationProjection> projection = EnumSet.of(ApplicationProjection.VERSIONS, ApplicationProjection.APIS);
+        int afterApplicationId = Math.max(0, tenant.database.getApplicationId(session.nextApplication(tenant))
+                - PAGE_SIZE);
+        return tenant.applicationDAO.getApplicationsPage(session.connection, TestDatabase.TENANT_ID,
+                afterApplicationId, PAGE_SIZE, projection);
+    }
+
+    @Benchmark
+    public List<Application> getAllApplicationsList(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.applicationDAO.getAllApplicationsList(session.connection, TestDatabase.TENANT_ID);
+    }
+}
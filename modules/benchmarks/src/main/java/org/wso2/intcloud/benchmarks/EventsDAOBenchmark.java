@@ -0,0 +1,98 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.TestDatabase;
+import org.wso2.intcloud.core.dao.EventsDAO;
+import org.wso2.intcloud.core.dto.Event;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the event reads of {@link EventsDAO}, which borrow a connection per call.
+ *
+ * Event writes are not covered, the latest event upsert relies on MySQL functions which H2 does not provide.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventsDAOBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tenant {
+
+        @Param({"10", "1000", "100000"})
+        public int applicationCount;
+
+        TestDatabase database;
+        EventsDAO eventsDAO;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            database = TestDatabase.create(applicationCount);
+            DBUtil.setDataSource(database.getDataSource());
+            eventsDAO = new EventsDAO();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            database.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        int next;
+
+        String nextVersion(Tenant tenant) {
+            if (++next == tenant.database.getVersionCount()) {
+                next = 0;
+            }
+            return tenant.database.getVersionHashId(next);
+        }
+    }
+
+    @Benchmark
+    public List<Event> getEventsOfApplication(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.eventsDAO.getEventsOfApplication(session.nextVersion(tenant));
+    }
+
+    @Benchmark
+    public List<Event> getEventsOfApplicationAfter(Tenant tenant, Session session) throws IntCloudException {
+        return tenant.eventsDAO.getEventsOfApplicationAfter(session.nextVersion(tenant), 0);
+    }
+}
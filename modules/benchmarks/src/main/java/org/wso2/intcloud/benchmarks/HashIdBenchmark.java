@@ -0,0 +1,73 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.intcloud.core.HashIdGenerator;
+import org.wso2.intcloud.core.Util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the version hash id generation, from hashing the concatenated names to the allocation free schemes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class HashIdBenchmark {
+
+    private static final int TENANT_ID = 1;
+
+    @Param({"app", "integration-flow-with-a-rather-long-application-name"})
+    public String applicationName;
+
+    public String versionName = "1.0.0";
+
+    @Benchmark
+    public long concatenated() {
+        return Util.hash(TENANT_ID + applicationName + versionName);
+    }
+
+    @Benchmark
+    public String hashIdString() {
+        return Util.getVersionHashId(applicationName, versionName, TENANT_ID);
+    }
+
+    @Benchmark
+    public long legacy() {
+        return HashIdGenerator.getVersionHashId(HashIdGenerator.Scheme.LEGACY, TENANT_ID, applicationName,
+                versionName);
+    }
+
+    @Benchmark
+    public long murmur3() {
+        return HashIdGenerator.getVersionHashId(HashIdGenerator.Scheme.MURMUR3_128, TENANT_ID, applicationName,
+                versionName);
+    }
+}
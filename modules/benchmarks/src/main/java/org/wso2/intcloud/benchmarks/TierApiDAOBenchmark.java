@@ -0,0 +1,104 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.intcloud.core.TestDatabase;
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+import org.wso2.intcloud.tierapi.dao.impl.ContainerSpecDaoImpl;
+import org.wso2.intcloud.tierapi.dao.impl.PlanDaoImpl;
+import org.wso2.intcloud.tierapi.util.DataSourceJDBC;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the plan and container specification reads of the tier API, which borrow a connection per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TierApiDAOBenchmark {
+
+    private static final int PLAN_ID = 1;
+    private static final int RUNTIME_ID = 1;
+    private static final int CONTAINER_SPEC_ID = 1;
+
+    private TestDatabase database;
+    private PlanDaoImpl planDao;
+    private ContainerSpecDaoImpl containerSpecDao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = TestDatabase.create(0);
+        DataSourceJDBC.setDataSource(database.getDataSource());
+        planDao = new PlanDaoImpl();
+        containerSpecDao = new ContainerSpecDaoImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        DataSourceJDBC.setDataSource(null);
+        database.close();
+    }
+
+    @Benchmark
+    public List<Plan> getAllPlans() throws SQLException {
+        return planDao.getAllPlans();
+    }
+
+    @Benchmark
+    public Plan getPlanByPlanId() throws SQLException {
+        return planDao.getPlanByPlanId(PLAN_ID);
+    }
+
+    @Benchmark
+    public List<ContainerSpecifications> getAllowedConSpecs() throws SQLException {
+        return planDao.getAllowedConSpecs(PLAN_ID);
+    }
+
+    @Benchmark
+    public List<ContainerSpecifications> getAllContainerSpecs() throws SQLException {
+        return containerSpecDao.getAllContainerSpecs();
+    }
+
+    @Benchmark
+    public ContainerSpecifications getContainerSpecById() throws SQLException {
+        return containerSpecDao.getContainerSpecById(CONTAINER_SPEC_ID);
+    }
+
+    @Benchmark
+    public List<ContainerSpecifications> getContainerSpecByRuntimeID() throws SQLException {
+        return containerSpecDao.getContainerSpecByRuntimeID(RUNTIME_ID);
+    }
+}
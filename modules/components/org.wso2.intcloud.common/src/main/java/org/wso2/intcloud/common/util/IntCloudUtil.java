@@ -98,4 +98,41 @@ public class IntCloudUtil {
         return value;
     }
 
+    /**
+     * Get a value from given property, falling back to the given default when the property is not configured.
+     *
+     * @param property     property name
+     * @param defaultValue value to use when the property is not found
+     * @return
+     */
+    public static String getPropertyValue(String property, String defaultValue) {
+        String value = properties.getProperty(property);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    /**
+     * Get an integer value from given property, falling back to the given default when the property is not
+     * configured or is not a valid integer.
+     *
+     * @param property     property name
+     * @param defaultValue value to use when the property is not found
+     * @return
+     */
+    public static int getIntPropertyValue(String property, int defaultValue) {
+        String value = getPropertyValue(property, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("The given property: " + property + " has an invalid integer value: " + value +
+                     ", hence using the default value: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
 }
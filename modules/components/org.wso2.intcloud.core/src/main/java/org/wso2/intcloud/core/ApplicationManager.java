@@ -20,19 +20,39 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.cache.ApplicationMetadataCache;
+import org.wso2.intcloud.core.cache.ApplicationMetadataCache.Region;
+import org.wso2.intcloud.core.cache.IconCache;
 import org.wso2.intcloud.core.dao.ApplicationDAO;
 import org.wso2.intcloud.core.dto.Api;
 import org.wso2.intcloud.core.dto.Application;
+import org.wso2.intcloud.core.dto.ApplicationPage;
+import org.wso2.intcloud.core.dto.ApplicationProjection;
 import org.wso2.intcloud.core.dto.ApplicationRuntime;
 import org.wso2.intcloud.core.dto.ApplicationType;
 import org.wso2.intcloud.core.dto.Transport;
 import org.wso2.intcloud.core.dto.Version;
+import org.wso2.intcloud.core.dto.VersionOwner;
+import org.wso2.intcloud.core.dto.VersionStatus;
+import org.wso2.intcloud.core.dto.VersionStatusUpdate;
+import org.wso2.intcloud.core.quota.TenantQuotaManager;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.rowset.serial.SerialBlob;
 
 /**
  * This class provide the interface for accessing the dao layer.
@@ -40,6 +60,9 @@ import java.util.List;
 public class ApplicationManager {
 
     private static Log log = LogFactory.getLog(ApplicationManager.class);
+    private static ApplicationMetadataCache metadataCache = ApplicationMetadataCache.getInstance();
+    private static TenantQuotaManager quotaManager = TenantQuotaManager.getInstance();
+    private static final int MAX_PAGE_SIZE = DBUtil.MAX_IN_LIST_SIZE;
 
     /**
      * Method for adding application.
@@ -52,14 +75,27 @@ public class ApplicationManager {
 
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
-        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        final int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
 
         try {
 
             applicationDAO.addApplication(dbConnection, application, tenantId);
             dbConnection.commit();
+            metadataCache.invalidateApplication(application.getHashId());
+            List<Version> versions = application.getVersions();
+            final int versionCount = versions != null ? versions.size() : 0;
+            UnitOfWork.runAfterCommit(new Runnable() {
+                @Override
+                public void run() {
+                    quotaManager.applicationAdded(tenantId, versionCount);
+                }
+            });
 
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing the application adding transaction for application : " +
                          application.getApplicationName() + " in tenant : " + tenantId;
             log.error(msg, e);
@@ -79,13 +115,24 @@ public class ApplicationManager {
     public static void addApplicationVersion(Version version, String applicationHashId) throws IntCloudException {
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
-        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        final int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
 
         try {
             int applicationId = applicationDAO.getApplicationId(dbConnection, applicationHashId);
             applicationDAO.addVersion(dbConnection, version, applicationId, tenantId);
             dbConnection.commit();
+            metadataCache.invalidateApplication(applicationHashId);
+            UnitOfWork.runAfterCommit(new Runnable() {
+                @Override
+                public void run() {
+                    quotaManager.versionAdded(tenantId);
+                }
+            });
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing the application version adding transaction for application id : " +
                          applicationHashId + ", version:" + version.getVersionName() + " in tenant : " + tenantId;
             log.error(msg, e);
@@ -111,7 +158,12 @@ public class ApplicationManager {
             int applicationId = applicationDAO.getApplicationId(dbConnection, applicationHashId);
             applicationDAO.addAPI(dbConnection, applicationId, api, tenantId);
             dbConnection.commit();
+            metadataCache.invalidateApplication(applicationHashId);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing the api adding transaction for application id : " +
                          applicationHashId + ", version:" + api.getName() + " in tenant : " + tenantId;
             log.error(msg, e);
@@ -122,6 +174,44 @@ public class ApplicationManager {
 
     }
 
+    /**
+     * Method for adding several APIs of an application in one transaction. The APIs are inserted in batches and the
+     * generated ids are set on the given API objects.
+     *
+     * @param applicationHashId application hash id
+     * @param apis api objects
+     * @throws IntCloudException
+     */
+    public static void addApis(String applicationHashId, List<Api> apis) throws IntCloudException {
+
+        if (apis == null || apis.isEmpty()) {
+            return;
+        }
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+
+        try {
+            int applicationId = applicationDAO.getApplicationId(dbConnection, applicationHashId);
+            applicationDAO.addAPIs(dbConnection, applicationId, apis, tenantId);
+            dbConnection.commit();
+            metadataCache.invalidateApplication(applicationHashId);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the api adding transaction for application id : " +
+                         applicationHashId + ", number of apis : " + apis.size() + " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+    }
+
     /**
      * Method for getting the list of application of a tenant.
      *
@@ -145,28 +235,94 @@ public class ApplicationManager {
         return applications.toArray(new Application[applications.size()]);
     }
 
+    /**
+     * Method for getting a page of the applications of a tenant. Only the application summary is loaded unless other
+     * parts are requested through the projection.
+     *
+     * @param cursor     cursor returned with the previous page, 0 for the first page
+     * @param pageSize   maximum number of applications in the page
+     * @param projection optional parts of the applications to load
+     * @return
+     * @throws IntCloudException
+     */
+    public static ApplicationPage getApplicationPage(int cursor, int pageSize, ApplicationProjection... projection)
+            throws IntCloudException {
+
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            String msg = "Invalid page size : " + pageSize + ", page size should be between 1 and " + MAX_PAGE_SIZE;
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+
+        Set<ApplicationProjection> projectionSet = EnumSet.noneOf(ApplicationProjection.class);
+        Collections.addAll(projectionSet, projection);
+
+        LinkedHashMap<Integer, Application> applicationsById;
+        try {
+            // Fetch one extra row to find out whether there are more pages
+            applicationsById = applicationDAO.getApplicationsPage(dbConnection, tenantId, cursor, pageSize + 1,
+                                                                  projectionSet);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        ApplicationPage page = new ApplicationPage();
+        List<Application> applications = new ArrayList<>(pageSize);
+        int nextCursor = cursor;
+        for (Map.Entry<Integer, Application> entry : applicationsById.entrySet()) {
+            if (applications.size() == pageSize) {
+                break;
+            }
+            applications.add(entry.getValue());
+            nextCursor = entry.getKey();
+        }
+        page.setApplications(applications);
+        page.setNextCursor(nextCursor);
+        page.setLastPage(applicationsById.size() <= pageSize);
+
+        return page;
+    }
+
     public static List<String> getVersionListOfApplication(String applicationHashId) throws IntCloudException {
 
+        List<String> versionList = metadataCache.get(Region.VERSION_NAMES, applicationHashId);
+        if (versionList != null) {
+            return new ArrayList<>(versionList);
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getAllVersionListOfApplication(dbConnection, applicationHashId);
+            versionList = applicationDAO.getAllVersionListOfApplication(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.VERSION_NAMES, applicationHashId, new ArrayList<>(versionList));
+        return versionList;
     }
 
     public static List<String> getVersionHashIdsOfApplication(String applicationHashId) throws IntCloudException {
 
+        List<String> hashIdList = metadataCache.get(Region.VERSION_HASH_IDS, applicationHashId);
+        if (hashIdList != null) {
+            return new ArrayList<>(hashIdList);
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getAllVersionHashIdsOfApplication(dbConnection, applicationHashId);
+            hashIdList = applicationDAO.getAllVersionHashIdsOfApplication(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.VERSION_HASH_IDS, applicationHashId, new ArrayList<>(hashIdList));
+        return hashIdList;
     }
 
     public static List<String> getAllApplicationsUsingCarbonApplication(String carbonApplicationName)
@@ -198,25 +354,40 @@ public class ApplicationManager {
 
     public static String getCarbonApplicationNameOfApplication(String applicationHashId) throws IntCloudException {
 
+        String cAppName = metadataCache.get(Region.CARBON_APPLICATION_NAME, applicationHashId);
+        if (cAppName != null) {
+            return cAppName;
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getCarbonApplicationNameOfApplication(dbConnection, applicationHashId);
+            cAppName = applicationDAO.getCarbonApplicationNameOfApplication(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.CARBON_APPLICATION_NAME, applicationHashId, cAppName);
+        return cAppName;
     }
 
     public static String getTaskConfigurationOfApplication(String applicationHashId) throws IntCloudException {
+
+        String taskConfiguration = metadataCache.get(Region.TASK_CONFIGURATION, applicationHashId);
+        if (taskConfiguration != null) {
+            return taskConfiguration;
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getTaskConfigurationOfApplication(dbConnection, applicationHashId);
+            taskConfiguration = applicationDAO.getTaskConfigurationOfApplication(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.TASK_CONFIGURATION, applicationHashId, taskConfiguration);
+        return taskConfiguration;
     }
 
     public static boolean isSingleVersion(String versionHashId) throws IntCloudException {
@@ -231,41 +402,84 @@ public class ApplicationManager {
     }
 
     public static String getApplicationHashIdByVersionHashId(String versionHashId) throws IntCloudException {
+
+        String applicationHashId = metadataCache.get(Region.APPLICATION_HASH_ID_BY_VERSION, versionHashId);
+        if (applicationHashId != null) {
+            return applicationHashId;
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getApplicationHashIdByVersionHashId(dbConnection, versionHashId);
+            applicationHashId = applicationDAO.getApplicationHashIdByVersionHashId(dbConnection, versionHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.APPLICATION_HASH_ID_BY_VERSION, versionHashId, applicationHashId);
+        return applicationHashId;
     }
 
     public static String getApplicationNameByHashId(String applicationHashId) throws IntCloudException {
 
+        String applicationName = metadataCache.get(Region.APPLICATION_NAME, applicationHashId);
+        if (applicationName != null) {
+            return applicationName;
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-
-            return applicationDAO.getApplicationNameByHashId(dbConnection, applicationHashId);
+            applicationName = applicationDAO.getApplicationNameByHashId(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.APPLICATION_NAME, applicationHashId, applicationName);
+        return applicationName;
     }
 
     public static String getApplicationHashIdByName(String applicationName) throws IntCloudException {
 
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+
+        String applicationHashId = metadataCache.get(Region.APPLICATION_HASH_ID_BY_NAME, tenantId, applicationName);
+        if (applicationHashId != null) {
+            return applicationHashId;
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
-        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-
         try {
-            return applicationDAO.getApplicationHashIdByName(dbConnection, applicationName, tenantId);
+            applicationHashId = applicationDAO.getApplicationHashIdByName(dbConnection, applicationName, tenantId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.APPLICATION_HASH_ID_BY_NAME, tenantId, applicationName, applicationHashId);
+        return applicationHashId;
+    }
+
+    /**
+     * Method for getting the numeric hash id of an application of the current tenant by name.
+     *
+     * @param applicationName application name
+     * @return hash id or {@link Util#NO_HASH_ID} if there is no such application
+     * @throws IntCloudException
+     */
+    public static long getApplicationHashIdValueByName(String applicationName) throws IntCloudException {
+        return Util.parseHashId(getApplicationHashIdByName(applicationName));
+    }
+
+    /**
+     * Method for getting application by numeric hash id.
+     *
+     * @param applicationHashId application hash id
+     * @return
+     * @throws IntCloudException
+     */
+    public static Application getApplicationByHashId(long applicationHashId) throws IntCloudException {
+        return getApplicationByHashId(Util.toHashIdString(applicationHashId));
     }
 
     /**
@@ -277,14 +491,123 @@ public class ApplicationManager {
      */
     public static Application getApplicationByHashId(String applicationHashId) throws IntCloudException {
 
+        Application application = metadataCache.get(Region.APPLICATION, applicationHashId);
+        if (application != null) {
+            return copyCachedApplications(Collections.singletonList(application)).get(0);
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getApplicationByHashId(dbConnection, applicationHashId);
+            application = applicationDAO.getApplicationByHashId(dbConnection, applicationHashId);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        // Lookups of unknown hash ids return an empty application, which is not worth caching
+        if (application.getApplicationName() != null) {
+            metadataCache.put(Region.APPLICATION, applicationHashId, toCacheableApplication(application));
+        }
+        return application;
+    }
+
+    /**
+     * Method for getting fully populated applications for a set of hash ids with a fixed number of queries.
+     *
+     * @param applicationHashIds application hash ids
+     * @return applications in the order of the given hash ids, unknown hash ids are skipped
+     * @throws IntCloudException
+     */
+    public static List<Application> getApplicationsByHashIds(List<String> applicationHashIds)
+            throws IntCloudException {
+
+        Map<String, Application> applicationsByHashId = new HashMap<>();
+        List<Application> cachedApplications = new ArrayList<>();
+        List<String> uncachedHashIds = new ArrayList<>();
+        for (String applicationHashId : applicationHashIds) {
+            Application application = metadataCache.get(Region.APPLICATION, applicationHashId);
+            if (application != null) {
+                cachedApplications.add(application);
+            } else {
+                uncachedHashIds.add(applicationHashId);
+            }
+        }
+        for (Application application : copyCachedApplications(cachedApplications)) {
+            applicationsByHashId.put(application.getHashId(), application);
+        }
+
+        if (!uncachedHashIds.isEmpty()) {
+            ApplicationDAO applicationDAO = new ApplicationDAO();
+            Connection dbConnection = DBUtil.getDBConnection();
+
+            try {
+                for (Application application : applicationDAO.getApplicationsByHashIds(dbConnection, uncachedHashIds)) {
+                    applicationsByHashId.put(application.getHashId(), application);
+                    metadataCache.put(Region.APPLICATION, application.getHashId(), toCacheableApplication(application));
+                }
+            } finally {
+                DBUtil.closeConnection(dbConnection);
+            }
+        }
+
+        List<Application> applications = new ArrayList<>(applicationsByHashId.size());
+        for (String applicationHashId : applicationHashIds) {
+            Application application = applicationsByHashId.get(applicationHashId);
+            if (application != null) {
+                applications.add(application);
+            }
+        }
+        return applications;
+    }
+
+    /**
+     * Copy of an application to be held in the APPLICATION cache region. The icon content is left out since it is
+     * cached by content hash in {@link IconCache}, and a copy is taken so that the caller keeps a private instance.
+     */
+    private static Application toCacheableApplication(Application application) {
+
+        Application cacheable = new Application(application);
+        cacheable.setIcon(null);
+        return cacheable;
+    }
+
+    /**
+     * Copies of cached applications with their icon content set, so that callers never share the cached instances.
+     * Icons are taken from {@link IconCache} and the database is only used for icons which are not cached.
+     */
+    private static List<Application> copyCachedApplications(List<Application> cachedApplications)
+            throws IntCloudException {
+
+        IconCache iconCache = IconCache.getInstance();
+        List<Application> applications = new ArrayList<>(cachedApplications.size());
+        List<Application> uncachedIcons = new ArrayList<>();
+
+        try {
+            for (Application cachedApplication : cachedApplications) {
+                Application application = new Application(cachedApplication);
+                byte[] content = iconCache.get(application.getIconHash());
+                if (content != null) {
+                    application.setIcon(new SerialBlob(content));
+                } else if (application.getIconHash() != null) {
+                    uncachedIcons.add(application);
+                }
+                applications.add(application);
+            }
+        } catch (SQLException e) {
+            String msg = "Error while creating the icon of a cached application";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+
+        if (!uncachedIcons.isEmpty()) {
+            Connection dbConnection = DBUtil.getDBConnection();
+            try {
+                new ApplicationDAO().populateIcons(dbConnection, uncachedIcons);
+            } finally {
+                DBUtil.closeConnection(dbConnection);
+            }
+        }
+        return applications;
     }
 
     public static void deleteRuntimeProperty(String versionHashId, String key) throws IntCloudException {
@@ -295,7 +618,11 @@ public class ApplicationManager {
         try {
             applicationDAO.deleteRuntimeProperty(dbConnection, versionHashId, key);
             dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while deleting runtime property with key : " + key + " for version with hash id : " +
                          versionHashId;
             log.error(msg, e);
@@ -313,7 +640,11 @@ public class ApplicationManager {
         try {
             applicationDAO.deleteTag(dbConnection, versionHashId, key);
             dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing transaction when deleting tag with key : " + key +
                          " for version with hash id : " + versionHashId;
             log.error(msg, e);
@@ -334,7 +665,12 @@ public class ApplicationManager {
                 int applicationId = applicationDAO.getApplicationId(dbConnection, applicationHashId);
                 applicationDAO.updateApplicationIcon(dbConnection, iconInputStream, applicationId);
                 dbConnection.commit();
+                metadataCache.invalidateApplication(applicationHashId);
+            } catch (IntCloudException e) {
+                DBUtil.rollbackTransaction(dbConnection);
+                throw e;
             } catch (SQLException e) {
+                DBUtil.rollbackTransaction(dbConnection);
                 String msg =
                         "Error while committing the transaction when updating the application icon for application " +
                         "with hash id : " + applicationHashId;
@@ -357,6 +693,53 @@ public class ApplicationManager {
         }
     }
 
+    /**
+     * Method for getting the content hash of the icon of an application, which can be used as an entity tag by
+     * callers that want to skip unchanged icons.
+     *
+     * @param applicationHashId application hash id
+     * @return content hash or null if the application has no icon
+     * @throws IntCloudException
+     */
+    public static String getApplicationIconHash(String applicationHashId) throws IntCloudException {
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+
+        try {
+            return applicationDAO.getApplicationIconHash(dbConnection, applicationHashId);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Method for streaming the icon of an application to the given output stream without loading it into memory.
+     * The icon is not written if its content hash matches the given hash.
+     *
+     * @param applicationHashId application hash id
+     * @param knownIconHash content hash of the icon already held by the caller, can be null
+     * @param outputStream stream to write the icon to
+     * @return true if the icon was written, false if the application has no icon or the icon is unchanged
+     * @throws IntCloudException
+     */
+    public static boolean writeApplicationIcon(String applicationHashId, String knownIconHash,
+                                               OutputStream outputStream) throws IntCloudException {
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+
+        try {
+            String iconHash = applicationDAO.getApplicationIconHash(dbConnection, applicationHashId);
+            if (iconHash == null || iconHash.equals(knownIconHash)) {
+                return false;
+            }
+            return applicationDAO.writeIcon(dbConnection, iconHash, outputStream);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
     /**
      * Method for getting all apptypes.
      *
@@ -397,9 +780,15 @@ public class ApplicationManager {
         boolean isUpdateSuccess = false;
 
         try {
+            String applicationHashId = resolveApplicationHashId(applicationDAO, dbConnection, versionHashId);
             isUpdateSuccess = applicationDAO.updateVersionStatus(dbConnection, status, versionHashId);
             dbConnection.commit();
+            metadataCache.invalidateApplication(applicationHashId);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing the transaction when updating version status with status : " + status +
                          " for version with hash id : " + versionHashId;
             log.error(msg, e);
@@ -411,6 +800,287 @@ public class ApplicationManager {
         return isUpdateSuccess;
     }
 
+    /**
+     * Method for moving a version from the expected status to a new status. The update is applied only if the version
+     * still has the expected status, so concurrent callers moving the same version do not need to be serialized.
+     *
+     * @param versionHashId version hash id
+     * @param expectedStatus current status of the version
+     * @param newStatus status to move the version to
+     * @return outcome of the update, with the current status and row version if it was not applied
+     * @throws IntCloudException if the transition is not allowed
+     */
+    public static VersionStatusUpdate compareAndSetVersionStatus(String versionHashId, VersionStatus expectedStatus,
+                                                                 VersionStatus newStatus) throws IntCloudException {
+
+        if (!expectedStatus.canTransitionTo(newStatus)) {
+            String msg = "Version status cannot change from : " + expectedStatus + " to : " + newStatus +
+                         " for version with hash id : " + versionHashId;
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+
+        try {
+            VersionStatusUpdate update =
+                    applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId, expectedStatus, newStatus);
+            return commitStatusUpdate(applicationDAO, dbConnection, versionHashId, update);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the transaction when updating version status from : " +
+                         expectedStatus + " to : " + newStatus + " for version with hash id : " + versionHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Method for moving a version to a new status if it has not changed since it was read. The update is applied only
+     * if the row version of the version is still the expected one and its current status may move to the new status.
+     *
+     * @param versionHashId version hash id
+     * @param expectedRowVersion row version of the version when it was read
+     * @param newStatus status to move the version to
+     * @return outcome of the update, with the current status and row version if it was not applied
+     * @throws IntCloudException
+     */
+    public static VersionStatusUpdate compareAndSetVersionStatus(String versionHashId, long expectedRowVersion,
+                                                                 VersionStatus newStatus) throws IntCloudException {
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+
+        try {
+            VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId,
+                                                                                   expectedRowVersion, newStatus);
+            return commitStatusUpdate(applicationDAO, dbConnection, versionHashId, update);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the transaction when updating version status to : " + newStatus +
+                         " at row version : " + expectedRowVersion + " for version with hash id : " + versionHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Method for updating the status of several versions in a single transaction. Versions that get the same status
+     * are updated with one statement per chunk of {@link DBUtil#MAX_IN_LIST_SIZE} hash ids.
+     *
+     * @param versionStatuses new status by version hash id
+     * @return number of updated versions
+     * @throws IntCloudException
+     */
+    public static int updateVersionStatuses(Map<String, String> versionStatuses) throws IntCloudException {
+
+        Map<String, List<String>> versionHashIdsByStatus = new HashMap<>();
+        for (Map.Entry<String, String> entry : versionStatuses.entrySet()) {
+            List<String> versionHashIds = versionHashIdsByStatus.get(entry.getValue());
+            if (versionHashIds == null) {
+                versionHashIds = new ArrayList<>();
+                versionHashIdsByStatus.put(entry.getValue(), versionHashIds);
+            }
+            versionHashIds.add(entry.getKey());
+        }
+
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+        Set<String> applicationHashIds = new LinkedHashSet<>();
+        int updated = 0;
+
+        try {
+            for (Map.Entry<String, List<String>> entry : versionHashIdsByStatus.entrySet()) {
+                List<String> versionHashIds = entry.getValue();
+                for (int from = 0; from < versionHashIds.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+                    List<String> chunk = versionHashIds.subList(from, Math.min(versionHashIds.size(),
+                                                                               from + DBUtil.MAX_IN_LIST_SIZE));
+                    for (VersionOwner owner : applicationDAO.getVersionOwners(dbConnection, chunk)) {
+                        applicationHashIds.add(owner.getApplicationHashId());
+                    }
+                    updated += applicationDAO.updateVersionStatuses(dbConnection, entry.getKey(), chunk);
+                }
+            }
+            dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the transaction when updating the status of " +
+                         versionStatuses.size() + " versions";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        for (String applicationHashId : applicationHashIds) {
+            metadataCache.invalidateApplication(applicationHashId);
+        }
+        return updated;
+    }
+
+    /**
+     * Method for deleting several versions in a single transaction, along with their events. The
+     * versions are deleted with one statement per table and chunk of {@link DBUtil#MAX_IN_LIST_SIZE} hash ids.
+     *
+     * @param versionHashIds version hash ids, unknown hash ids are skipped
+     * @return number of deleted versions
+     * @throws IntCloudException
+     */
+    public static int deleteVersions(Collection<String> versionHashIds) throws IntCloudException {
+
+        List<String> uniqueHashIds = new ArrayList<>(new LinkedHashSet<>(versionHashIds));
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+        List<VersionOwner> deleted = new ArrayList<>();
+
+        try {
+            for (int from = 0; from < uniqueHashIds.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+                List<String> chunk = uniqueHashIds.subList(from, Math.min(uniqueHashIds.size(),
+                                                                          from + DBUtil.MAX_IN_LIST_SIZE));
+                List<VersionOwner> owners = applicationDAO.getVersionOwners(dbConnection, chunk);
+                applicationDAO.deleteVersionsById(dbConnection, getVersionIds(owners), true);
+                deleted.addAll(owners);
+            }
+            dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the transaction when deleting " + uniqueHashIds.size() + " versions";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        for (VersionOwner owner : deleted) {
+            metadataCache.removeVersion(owner.getVersionHashId());
+            metadataCache.invalidateApplication(owner.getApplicationHashId());
+            versionDeletedAfterCommit(owner.getTenantId());
+        }
+        return deleted.size();
+    }
+
+    /**
+     * Method for deleting several applications in a single transaction, along with the events of
+     * their versions. The applications are deleted with one statement per table and chunk of
+     * {@link DBUtil#MAX_IN_LIST_SIZE} hash ids.
+     *
+     * @param applicationHashIds application hash ids, unknown hash ids are skipped
+     * @return number of deleted applications
+     * @throws IntCloudException
+     */
+    public static int deleteApplications(Collection<String> applicationHashIds) throws IntCloudException {
+
+        List<String> uniqueHashIds = new ArrayList<>(new LinkedHashSet<>(applicationHashIds));
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+        Connection dbConnection = DBUtil.getDBConnection();
+        Map<String, Integer> tenantByApplication = new LinkedHashMap<>();
+        Map<String, Integer> versionCountByApplication = new HashMap<>();
+
+        try {
+            for (int from = 0; from < uniqueHashIds.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+                List<String> chunk = uniqueHashIds.subList(from, Math.min(uniqueHashIds.size(),
+                                                                          from + DBUtil.MAX_IN_LIST_SIZE));
+                List<VersionOwner> owners = applicationDAO.getVersionOwnersOfApplications(dbConnection, chunk);
+                List<Integer> versionIds = getVersionIds(owners);
+                for (int versionFrom = 0; versionFrom < versionIds.size(); versionFrom += DBUtil.MAX_IN_LIST_SIZE) {
+                    applicationDAO.deleteVersionsById(dbConnection, versionIds.subList(
+                            versionFrom, Math.min(versionIds.size(), versionFrom + DBUtil.MAX_IN_LIST_SIZE)), false);
+                }
+                applicationDAO.deleteApplications(dbConnection, chunk);
+
+                for (VersionOwner owner : owners) {
+                    String applicationHashId = owner.getApplicationHashId();
+                    tenantByApplication.put(applicationHashId, owner.getTenantId());
+                    Integer versionCount = versionCountByApplication.get(applicationHashId);
+                    int ownerVersions = owner.getVersionId() != 0 ? 1 : 0;
+                    versionCountByApplication.put(applicationHashId,
+                                                  versionCount != null ? versionCount + ownerVersions : ownerVersions);
+                }
+            }
+            dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing the transaction when deleting " + uniqueHashIds.size() +
+                         " applications";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        for (Map.Entry<String, Integer> entry : tenantByApplication.entrySet()) {
+            metadataCache.removeApplication(entry.getKey());
+            applicationDeletedAfterCommit(entry.getValue(), versionCountByApplication.get(entry.getKey()));
+        }
+        return tenantByApplication.size();
+    }
+
+    /**
+     * Adjust the quota counters of the owning tenant for a deleted application once the deletion is committed, so
+     * that a unit of work which rolls back leaves the counters untouched.
+     */
+    private static void applicationDeletedAfterCommit(final int tenantId, final int versionCount) {
+
+        UnitOfWork.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                quotaManager.applicationDeleted(tenantId, versionCount);
+            }
+        });
+    }
+
+    private static void versionDeletedAfterCommit(final int tenantId) {
+
+        UnitOfWork.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                quotaManager.versionDeleted(tenantId);
+            }
+        });
+    }
+
+    private static List<Integer> getVersionIds(List<VersionOwner> owners) {
+
+        List<Integer> versionIds = new ArrayList<>(owners.size());
+        for (VersionOwner owner : owners) {
+            if (owner.getVersionId() != 0) {
+                versionIds.add(owner.getVersionId());
+            }
+        }
+        return versionIds;
+    }
+
+    private static VersionStatusUpdate commitStatusUpdate(ApplicationDAO applicationDAO, Connection dbConnection,
+                                                          String versionHashId, VersionStatusUpdate update)
+            throws SQLException, IntCloudException {
+
+        dbConnection.commit();
+        if (update.isApplied()) {
+            metadataCache.invalidateApplication(resolveApplicationHashId(applicationDAO, dbConnection, versionHashId));
+        }
+        return update;
+    }
+
     /**
      * Method for delete an application completely.
      *
@@ -422,10 +1092,21 @@ public class ApplicationManager {
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
+            // The counters are kept per owning tenant, which is not necessarily the tenant of the caller
+            List<VersionOwner> owners = applicationDAO.getVersionOwnersOfApplications(
+                    dbConnection, Collections.singletonList(applicationHashId));
             applicationDAO.deleteAllDeploymentOfApplication(dbConnection, applicationHashId);
-            applicationDAO.deleteApplication(dbConnection, applicationHashId);
+            boolean deleted = applicationDAO.deleteApplication(dbConnection, applicationHashId);
             dbConnection.commit();
+            metadataCache.removeApplication(applicationHashId);
+            if (deleted && !owners.isEmpty()) {
+                applicationDeletedAfterCommit(owners.get(0).getTenantId(), getVersionIds(owners).size());
+            }
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while deleting application with hash id : " + applicationHashId;
         } finally {
             DBUtil.closeConnection(dbConnection);
@@ -437,10 +1118,22 @@ public class ApplicationManager {
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
+            String applicationHashId = resolveApplicationHashId(applicationDAO, dbConnection, versionHashId);
+            List<VersionOwner> owners = applicationDAO.getVersionOwners(dbConnection,
+                                                                        Collections.singletonList(versionHashId));
             applicationDAO.deleteDeployment(dbConnection, versionHashId);
-            applicationDAO.deleteVersion(dbConnection, versionHashId);
+            boolean deleted = applicationDAO.deleteVersion(dbConnection, versionHashId);
             dbConnection.commit();
+            metadataCache.removeVersion(versionHashId);
+            metadataCache.invalidateApplication(applicationHashId);
+            if (deleted && !owners.isEmpty()) {
+                versionDeletedAfterCommit(owners.get(0).getTenantId());
+            }
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg =
                     "Error while committing the transaction when deleting the version with hash id : " + versionHashId;
             log.error(msg, e);
@@ -462,12 +1155,32 @@ public class ApplicationManager {
     }
 
     public static int getApplicationCount() throws IntCloudException {
-        ApplicationDAO applicationDAO = new ApplicationDAO();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        return quotaManager.getApplicationCount(tenantId);
+    }
 
+    /**
+     * Resolve the application limit of the current tenant from its whitelisted limit and subscription plan.
+     *
+     * @param planName subscription plan of the tenant
+     * @return application limit or TenantQuotaManager.NO_LIMIT
+     * @throws IntCloudException
+     */
+    public static int getApplicationLimit(String planName) throws IntCloudException {
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-        int applicationCount = applicationDAO.getApplicationCount(tenantId);
+        return quotaManager.getApplicationLimit(tenantId, planName);
+    }
 
-        return applicationCount;
+    /**
+     * Check whether the current tenant is below its application limit.
+     *
+     * @param planName subscription plan of the tenant
+     * @return true if another application may be created
+     * @throws IntCloudException
+     */
+    public static boolean canAddApplication(String planName) throws IntCloudException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        return quotaManager.canAddApplication(tenantId, planName);
     }
 
     /**
@@ -487,7 +1200,12 @@ public class ApplicationManager {
         try {
             isUpdatedSuccess = applicationDAO.updateDefaultVersion(dbConnection, applicationHashId, defaultVersionName);
             dbConnection.commit();
+            metadataCache.invalidateApplication(applicationHashId);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String message = "Error while updating default version with application hash id : " + applicationHashId;
             throw new IntCloudException(message, e);
         } finally {
@@ -504,32 +1222,42 @@ public class ApplicationManager {
     }
 
     public static int getMaxAppCountForWhiteListedTenants(int tenantID) throws IntCloudException {
-        ApplicationDAO applicationDAO = new ApplicationDAO();
-        Connection dbConnection = DBUtil.getDBConnection();
-
-        int maxAppCount = 0;
-        try {
-            maxAppCount = applicationDAO.getWhiteListedTenantMaxAppCount(dbConnection, tenantID);
-        } finally {
-            DBUtil.closeConnection(dbConnection);
-        }
-        return maxAppCount;
+        return quotaManager.getWhiteListedApplicationLimit(tenantID);
     }
 
     public static List<Version> getAllVersionsOfApplication(String applicationHashId) throws IntCloudException {
 
+        List<Version> versions = metadataCache.get(Region.VERSIONS, applicationHashId);
+        if (versions != null) {
+            return copyVersions(versions);
+        }
+
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
 
         try {
-            return applicationDAO.getAllVersionsOfApplication(dbConnection, applicationHashId);
+            versions = applicationDAO.getAllVersionsOfApplication(dbConnection, applicationHashId);
         } catch (IntCloudException e) {
             String msg = "Error while getting versions list for application with hash id : " + applicationHashId;
             throw new IntCloudException(msg, e);
         } finally {
             DBUtil.closeConnection(dbConnection);
         }
+        metadataCache.put(Region.VERSIONS, applicationHashId, copyVersions(versions));
+        return versions;
+    }
 
+    /**
+     * Copies of versions going into or out of the VERSIONS cache region, so that callers never share the cached
+     * instances.
+     */
+    private static List<Version> copyVersions(List<Version> versions) {
+
+        List<Version> copies = new ArrayList<>(versions.size());
+        for (Version version : versions) {
+            copies.add(new Version(version));
+        }
+        return copies;
     }
 
     public static void whiteListApplicationVersion(String versionHashId) throws IntCloudException {
@@ -539,9 +1267,11 @@ public class ApplicationManager {
             applicationDAO.whiteListApplicationVersion(dbConnection, versionHashId);
             dbConnection.commit();
         } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error whitelisting application version hash id : " + versionHashId;
             throw new IntCloudException(msg, e);
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error whitelisting application version hash id : " + versionHashId;
             throw new IntCloudException(msg, e);
         } finally {
@@ -549,16 +1279,24 @@ public class ApplicationManager {
         }
     }
 
-    public static void whiteListTenant(int tenantId, int maxAppCount) throws IntCloudException {
+    public static void whiteListTenant(final int tenantId, final int maxAppCount) throws IntCloudException {
         ApplicationDAO applicationDAO = new ApplicationDAO();
         Connection dbConnection = DBUtil.getDBConnection();
         try {
             applicationDAO.whiteListTenant(dbConnection, tenantId, maxAppCount);
             dbConnection.commit();
+            UnitOfWork.runAfterCommit(new Runnable() {
+                @Override
+                public void run() {
+                    quotaManager.tenantWhiteListed(tenantId, maxAppCount);
+                }
+            });
         } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error whitelisting tenant for tenant id : " + tenantId;
             throw new IntCloudException(msg, e);
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error whitelisting tenant for tenant id : " + tenantId;
             throw new IntCloudException(msg, e);
         } finally {
@@ -574,7 +1312,11 @@ public class ApplicationManager {
         try {
             applicationDAO.updateParamConfiguration(dbConnection, versionHashId, paramConfiguration);
             dbConnection.commit();
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing transaction when adding runtime parameter configuration : " +
                          paramConfiguration + " for version with hash id : " + versionHashId;
             log.error(msg, e);
@@ -592,7 +1334,12 @@ public class ApplicationManager {
         try {
             applicationDAO.updateTaskConfiguration(dbConnection, versionHashId, taskConfiguration);
             dbConnection.commit();
+            metadataCache.invalidateApplication(versionHashId);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error while committing transaction when adding task configuration : " +
                          taskConfiguration + " for version with hash id : " + versionHashId;
             log.error(msg, e);
@@ -601,4 +1348,24 @@ public class ApplicationManager {
             DBUtil.closeConnection(dbConnection);
         }
     }
+
+    /**
+     * Resolve the hash id of the application that owns the given version, so that the cached metadata of the
+     * application can be invalidated once the version is modified.
+     *
+     * @param applicationDAO application dao
+     * @param dbConnection   database connection
+     * @param versionHashId  version hash id
+     * @return
+     * @throws IntCloudException
+     */
+    private static String resolveApplicationHashId(ApplicationDAO applicationDAO, Connection dbConnection,
+                                                   String versionHashId) throws IntCloudException {
+
+        String applicationHashId = metadataCache.get(Region.APPLICATION_HASH_ID_BY_VERSION, versionHashId);
+        if (applicationHashId == null) {
+            applicationHashId = applicationDAO.getApplicationHashIdByVersionHashId(dbConnection, versionHashId);
+        }
+        return applicationHashId;
+    }
 }
@@ -31,6 +31,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 
 public class DBUtil {
 
@@ -38,6 +39,24 @@ public class DBUtil {
 
     private static DataSource dataSource;
     private static final String DATASOURCE_NAME = "DataSourceName";
+    private static final String NUMERIC_HASH_IDS = "HashId.Numeric";
+
+    /**
+     * Whether the hash_id columns are BIGINT columns, as set up by dbscripts/upgrade/intcloud-numeric-hash-id.sql,
+     * instead of VARCHAR columns holding the decimal hash ids.
+     */
+    private static final boolean numericHashIds =
+            Boolean.parseBoolean(IntCloudUtil.getPropertyValue(NUMERIC_HASH_IDS, "false"));
+
+    /**
+     * Maximum number of bind parameters used in a single IN list, larger key sets are queried in chunks.
+     */
+    public static final int MAX_IN_LIST_SIZE = 500;
+
+    /**
+     * Maximum number of rows sent in a single JDBC batch, larger row sets are sent in several batches.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
 
     public static void initDatasource() {
 
@@ -62,8 +81,20 @@ public class DBUtil {
 
     }
 
+    /**
+     * Get a database connection with auto commit disabled. While a {@link UnitOfWork} is active on the current
+     * thread, its connection is returned instead of borrowing a new one.
+     *
+     * @return
+     * @throws IntCloudException
+     */
     public static Connection getDBConnection() throws IntCloudException {
 
+        UnitOfWork unitOfWork = UnitOfWork.getCurrent();
+        if (unitOfWork != null) {
+            return unitOfWork.getConnection();
+        }
+
         Connection connection;
         try {
 
@@ -78,6 +109,16 @@ public class DBUtil {
         return connection;
     }
 
+    /**
+     * Use the given data source instead of the one looked up through JNDI, for running the DAOs outside of the
+     * server such as in benchmarks.
+     *
+     * @param dataSource data source to borrow connections from
+     */
+    public static void setDataSource(DataSource dataSource) {
+        DBUtil.dataSource = dataSource;
+    }
+
     private static DataSource getDataSource() {
         if(dataSource == null){
             initDatasource();
@@ -128,6 +169,98 @@ public class DBUtil {
         }
     }
 
+    /**
+     * Build the comma separated bind parameter list for a query with an IN clause.
+     *
+     * @param queryTemplate query with a %s marker in place of the IN list content
+     * @param size          number of bind parameters
+     * @return query with the bind parameters
+     */
+    public static String buildInListQuery(String queryTemplate, int size) {
+
+        StringBuilder placeholders = new StringBuilder(size * 3);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                placeholders.append(", ");
+            }
+            placeholders.append('?');
+        }
+        return String.format(queryTemplate, placeholders);
+    }
+
+    public static boolean isNumericHashIds() {
+        return numericHashIds;
+    }
+
+    /**
+     * Bind a hash id parameter matching the type of the hash_id columns, so that the hash_id indexes are used.
+     *
+     * @param preparedStatement statement to bind the parameter to
+     * @param index             parameter index
+     * @param hashId            hash id, {@link Util#NO_HASH_ID} is bound as null
+     * @throws SQLException
+     */
+    public static void setHashId(PreparedStatement preparedStatement, int index, long hashId) throws SQLException {
+
+        if (hashId == Util.NO_HASH_ID) {
+            preparedStatement.setNull(index, numericHashIds ? Types.BIGINT : Types.VARCHAR);
+        } else if (numericHashIds) {
+            preparedStatement.setLong(index, hashId);
+        } else {
+            preparedStatement.setString(index, Long.toString(hashId));
+        }
+    }
+
+    /**
+     * Bind a hash id parameter given in its decimal string form matching the type of the hash_id columns.
+     *
+     * @param preparedStatement statement to bind the parameter to
+     * @param index             parameter index
+     * @param hashId            decimal hash id
+     * @throws SQLException
+     */
+    public static void setHashId(PreparedStatement preparedStatement, int index, String hashId) throws SQLException {
+
+        if (numericHashIds) {
+            setHashId(preparedStatement, index, Util.parseHashId(hashId));
+        } else {
+            preparedStatement.setString(index, hashId);
+        }
+    }
+
+    /**
+     * Read a hash id column.
+     *
+     * @param resultSet result set positioned on a row
+     * @param column    column label
+     * @return hash id or {@link Util#NO_HASH_ID} if the column is null
+     * @throws SQLException
+     */
+    public static long getHashIdValue(ResultSet resultSet, String column) throws SQLException {
+
+        if (numericHashIds) {
+            long hashId = resultSet.getLong(column);
+            return resultSet.wasNull() ? Util.NO_HASH_ID : hashId;
+        }
+        return Util.parseHashId(resultSet.getString(column));
+    }
+
+    /**
+     * Read a hash id column in its decimal string form.
+     *
+     * @param resultSet result set positioned on a row
+     * @param column    column label
+     * @return decimal hash id or null if the column is null
+     * @throws SQLException
+     */
+    public static String getHashId(ResultSet resultSet, String column) throws SQLException {
+
+        if (numericHashIds) {
+            return Util.toHashIdString(getHashIdValue(resultSet, column));
+        }
+        return resultSet.getString(column);
+    }
+
     public static void rollbackTransaction(Connection dbConnection){
 
         if(dbConnection != null){
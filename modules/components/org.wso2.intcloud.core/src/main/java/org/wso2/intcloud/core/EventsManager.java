@@ -19,6 +19,9 @@ package org.wso2.intcloud.core;
 import org.wso2.intcloud.common.IntCloudException;
 import org.wso2.intcloud.core.dao.EventsDAO;
 import org.wso2.intcloud.core.dto.Event;
+import org.wso2.intcloud.core.event.AsyncEventWriter;
+import org.wso2.intcloud.core.event.EventStreamHub;
+import org.wso2.intcloud.core.event.EventSubscription;
 import org.wso2.carbon.context.CarbonContext;
 
 import java.util.List;
@@ -26,7 +29,8 @@ import java.util.List;
 public class EventsManager {
 
     /**
-     * Method for updating app creation events.
+     * Method for updating app creation events. When asynchronous event storing is enabled, an event added outside a
+     * {@link UnitOfWork} is queued and stored in a batch by the background writer.
      *
      * @param versionHashId version Hash id
      * @param event
@@ -35,8 +39,23 @@ public class EventsManager {
     public void addAppCreationEvent(String versionHashId, Event event) throws IntCloudException {
 
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-        EventsDAO eventsDAO = new EventsDAO();
-        eventsDAO.addAppCreationEvent(versionHashId, event, tenantId);
+        AsyncEventWriter asyncEventWriter = AsyncEventWriter.getInstance();
+        if (asyncEventWriter.isRunning()) {
+            asyncEventWriter.addAppCreationEvent(versionHashId, event, tenantId);
+        } else {
+            EventsDAO eventsDAO = new EventsDAO();
+            eventsDAO.addAppCreationEvent(versionHashId, event, tenantId);
+            publishAfterCommit(versionHashId, event);
+        }
+    }
+
+    private void publishAfterCommit(final String versionHashId, final Event event) {
+        UnitOfWork.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                EventStreamHub.getInstance().publish(versionHashId, event);
+            }
+        });
     }
 
     /**
@@ -54,6 +73,20 @@ public class EventsManager {
         return events.toArray(new Event[events.size()]);
     }
 
+    /**
+     * Method for subscribing to the events of an application version as they are stored, instead of polling
+     * {@link #getEventsOfApplication(String)}.
+     *
+     * @param versionHashId version hash id
+     * @param lastEventId id of the last event received before a reconnect, the events stored after it are delivered
+     *                    first; a negative id subscribes to new events only
+     * @return subscription, which must be closed once done
+     * @throws IntCloudException
+     */
+    public EventSubscription subscribeToEvents(String versionHashId, int lastEventId) throws IntCloudException {
+        return EventStreamHub.getInstance().subscribe(versionHashId, lastEventId);
+    }
+
     /**
      * Delete all events related to a particluar version.
      * @param versionHashId version hash id
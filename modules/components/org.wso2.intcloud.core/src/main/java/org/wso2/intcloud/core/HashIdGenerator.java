@@ -0,0 +1,249 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.wso2.intcloud.common.util.IntCloudUtil;
+
+/**
+ * Generates the hash ids of applications and versions from the tenant id and the names, without building
+ * intermediate strings.
+ *
+ * Two schemes are supported. The legacy scheme produces the same ids as hashing the concatenated tenant id and names
+ * with {@link Util#hash(CharSequence)}. The MurmurHash3 scheme hashes the tenant id and the length prefixed names with
+ * the 128 bit x64 variant of MurmurHash3 and folds the result to a non negative 63 bit id, which makes collisions far
+ * less likely than with the legacy scheme. Both schemes are deterministic. Existing ids are moved to the MurmurHash3
+ * scheme with {@link org.wso2.intcloud.core.migration.HashIdMigrator}, after which HashId.Scheme is switched. The scheme
+ * is read once at startup, so the migration requires all nodes to be stopped and restarted together.
+ */
+public final class HashIdGenerator {
+
+    private static final String HASH_ID_SCHEME = "HashId.Scheme";
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Hash id generation schemes.
+     */
+    public enum Scheme {
+        LEGACY,
+        MURMUR3_128
+    }
+
+    private static final Scheme scheme = parseScheme(IntCloudUtil.getPropertyValue(HASH_ID_SCHEME, null));
+
+    private static final ThreadLocal<Murmur3Hasher> hashers = new ThreadLocal<Murmur3Hasher>() {
+        @Override
+        protected Murmur3Hasher initialValue() {
+            return new Murmur3Hasher();
+        }
+    };
+
+    private HashIdGenerator() {
+    }
+
+    /**
+     * Get the configured hash id generation scheme.
+     *
+     * @return
+     */
+    public static Scheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * Get the hash id of an application with the configured scheme.
+     *
+     * @param tenantId        tenant id
+     * @param applicationName application name
+     * @return
+     */
+    public static long getApplicationHashId(int tenantId, CharSequence applicationName) {
+        return getApplicationHashId(scheme, tenantId, applicationName);
+    }
+
+    /**
+     * Get the hash id of an application with the given scheme.
+     *
+     * @param scheme          hash id generation scheme
+     * @param tenantId        tenant id
+     * @param applicationName application name
+     * @return
+     */
+    public static long getApplicationHashId(Scheme scheme, int tenantId, CharSequence applicationName) {
+        if (scheme == Scheme.LEGACY) {
+            return Util.hash(tenantId, applicationName, null);
+        }
+        return hashers.get().reset().putInt(tenantId).putString(applicationName).finish();
+    }
+
+    /**
+     * Get the hash id of a version with the configured scheme.
+     *
+     * @param tenantId        tenant id
+     * @param applicationName application name
+     * @param versionName     version name
+     * @return
+     */
+    public static long getVersionHashId(int tenantId, CharSequence applicationName, CharSequence versionName) {
+        return getVersionHashId(scheme, tenantId, applicationName, versionName);
+    }
+
+    /**
+     * Get the hash id of a version with the given scheme.
+     *
+     * @param scheme          hash id generation scheme
+     * @param tenantId        tenant id
+     * @param applicationName application name
+     * @param versionName     version name
+     * @return
+     */
+    public static long getVersionHashId(Scheme scheme, int tenantId, CharSequence applicationName,
+                                        CharSequence versionName) {
+        if (scheme == Scheme.LEGACY) {
+            return Util.hash(tenantId, applicationName, versionName);
+        }
+        return hashers.get().reset().putInt(tenantId).putString(applicationName).putString(versionName).finish();
+    }
+
+    static Scheme parseScheme(String value) {
+        if (value == null) {
+            return Scheme.LEGACY;
+        }
+        try {
+            return Scheme.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown hash id scheme : " + value + " configured for " +
+                                            HASH_ID_SCHEME);
+        }
+    }
+
+    /**
+     * Streaming MurmurHash3 x64 128 bit hasher with a zero seed, reused per thread so that hashing does not allocate.
+     */
+    private static final class Murmur3Hasher {
+
+        private long h1;
+        private long h2;
+        private long k1;
+        private long k2;
+        private int position;
+        private long length;
+
+        private Murmur3Hasher reset() {
+            h1 = 0;
+            h2 = 0;
+            k1 = 0;
+            k2 = 0;
+            position = 0;
+            length = 0;
+            return this;
+        }
+
+        private Murmur3Hasher putInt(int value) {
+            putByte(value);
+            putByte(value >>> 8);
+            putByte(value >>> 16);
+            putByte(value >>> 24);
+            return this;
+        }
+
+        private Murmur3Hasher putString(CharSequence value) {
+            // The length prefix keeps the boundary between the names part of the hashed content
+            int valueLength = value.length();
+            putInt(valueLength);
+            for (int i = 0; i < valueLength; i++) {
+                char ch = value.charAt(i);
+                putByte(ch);
+                putByte(ch >>> 8);
+            }
+            return this;
+        }
+
+        private void putByte(int value) {
+            long b = value & 0xffL;
+            if (position < 8) {
+                k1 |= b << (position * 8);
+            } else {
+                k2 |= b << ((position - 8) * 8);
+            }
+            length++;
+            if (++position == 16) {
+                mixBlock();
+                k1 = 0;
+                k2 = 0;
+                position = 0;
+            }
+        }
+
+        private void mixBlock() {
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        private long finish() {
+            if (position > 8) {
+                h2 ^= mixK2(k2);
+            }
+            if (position > 0) {
+                h1 ^= mixK1(k1);
+            }
+
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            h1 += h2;
+            h2 += h1;
+
+            // Fold the 128 bit hash to 63 bits, hash ids are non negative
+            return (h1 ^ h2) & Long.MAX_VALUE;
+        }
+
+        private static long mixK1(long k1) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            return k1;
+        }
+
+        private static long mixK2(long k2) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            return k2;
+        }
+
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
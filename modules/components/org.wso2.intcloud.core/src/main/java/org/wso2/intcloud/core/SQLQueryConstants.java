@@ -46,6 +46,9 @@ public class SQLQueryConstants {
     public static final String BUILDABLE = "buildable" ;
     public static final String RUNTIME_NAME = "runtime_name";
     public static final String ICON = "icon";
+    public static final String ICON_HASH = "icon_hash";
+    public static final String CONTENT_HASH = "content_hash";
+    public static final String SIZE = "size";
     public static final String RUNTIME_REPO_URL = "repo_url";
     public static final String RUNTIME_IMAGE_NAME = "image_name";
     public static final String RUNTIME_TAG = "tag";
@@ -58,6 +61,21 @@ public class SQLQueryConstants {
     public static final String CONTEXT = "context";
     public static final String HTTP_METHODS = "http_methods";
     public static final String URL = "url";
+    public static final String APPLICATION_ID = "application_id";
+    public static final String VERSION_NAME = "version_name";
+    public static final String IS_WHITE_LISTED = "is_white_listed";
+    public static final String VERSION_ID = "version_id";
+    public static final String PARTITION_NAME = "PARTITION_NAME";
+    public static final String PARTITION_DESCRIPTION = "PARTITION_DESCRIPTION";
+    public static final String PLAN_NAME = "PLAN_NAME";
+    public static final String MAX_APPLICATIONS = "MAX_APPLICATIONS";
+    public static final String CUTOFF = "cutoff";
+    public static final String LAST_TIMESTAMP = "last_timestamp";
+    public static final String LAST_VERSION_ID = "last_version_id";
+    public static final String PROCESSED = "processed";
+    public static final String COMPLETED = "completed";
+    public static final String ROW_VERSION = "row_version";
+    public static final String APPLICATION_HASH_ID = "application_hash_id";
 
 
 
@@ -82,15 +100,40 @@ public class SQLQueryConstants {
             "INSERT INTO AC_EVENT (name, status, version_id, timestamp, description, tenant_id) values (?, ?, (SELECT id" +
             " FROM AC_VERSION WHERE hash_id=?), ?, ?, ?)";
 
+    /* Conditional updates keep the latest event, the event_id is assigned last as MySQL applies the assignments in
+       order and the conditions compare against the current event_id. AC_EVENT_LATEST has no foreign key to
+       AC_VERSION, so the join keeps events of versions that do not exist out of the projection */
+    public static final String UPSERT_LATEST_APP_CREATION_EVENT =
+            "INSERT INTO AC_EVENT_LATEST (version_id, name, event_id, status, timestamp, description, tenant_id) " +
+            "SELECT event.version_id, event.name, event.id, event.status, event.timestamp, event.description, " +
+            "event.tenant_id FROM AC_EVENT event JOIN AC_VERSION ver ON ver.id = event.version_id WHERE event.id=? " +
+            "ON DUPLICATE KEY UPDATE status=IF(VALUES(event_id) > event_id, VALUES(status), status), " +
+            "timestamp=IF(VALUES(event_id) > event_id, VALUES(timestamp), timestamp), " +
+            "description=IF(VALUES(event_id) > event_id, VALUES(description), description), " +
+            "event_id=GREATEST(event_id, VALUES(event_id))";
+
+    public static final String REFRESH_LATEST_APP_CREATION_EVENTS_OF_TENANT =
+            "INSERT INTO AC_EVENT_LATEST (version_id, name, event_id, status, timestamp, description, tenant_id) " +
+            "SELECT event.version_id, event.name, event.id, event.status, event.timestamp, event.description, " +
+            "event.tenant_id FROM AC_EVENT event JOIN (SELECT MAX(id) as id FROM AC_EVENT WHERE tenant_id=? GROUP BY " +
+            "version_id, name) latest ON event.id = latest.id JOIN AC_VERSION ver ON ver.id = event.version_id " +
+            "ON DUPLICATE KEY UPDATE status=IF(VALUES(event_id) > event_id, VALUES(status), status), " +
+            "timestamp=IF(VALUES(event_id) > event_id, VALUES(timestamp), timestamp), " +
+            "description=IF(VALUES(event_id) > event_id, VALUES(description), description), " +
+            "event_id=GREATEST(event_id, VALUES(event_id))";
+
+	/* A tenant has one whitelist entry, whitelisting it again keeps the limit of its first entry */
 	public static final String ADD_WHITE_LISTED_TENANT =
-			"INSERT INTO AC_WHITE_LISTED_TENANTS (tenant_id, max_app_count) values (?, ?)";
+			"INSERT INTO AC_WHITE_LISTED_TENANTS (tenant_id, max_app_count) values (?, ?) " +
+			"ON DUPLICATE KEY UPDATE max_app_count = max_app_count";
 
 
 
     /*Select Queries*/
 
     public static final String GET_ALL_APPLICATIONS_LIST =
-            "SELECT app.name as application_name, app.hash_id as hash_id, type.name as app_type_name, icon.icon as icon " +
+            "SELECT app.name as application_name, app.hash_id as hash_id, type.name as app_type_name, " +
+            "icon.icon_hash as icon_hash " +
             "FROM AC_APPLICATION app JOIN AC_APP_TYPE type ON app.app_type_id = type.id LEFT OUTER JOIN AC_APP_ICON icon" +
             " ON app.id = icon.application_id WHERE app.tenant_id=?";
 
@@ -118,13 +161,32 @@ public class SQLQueryConstants {
     public static final String GET_APPLICATION_HASH_ID_BY_VERSION_HASH_ID =
             "SELECT hash_id FROM AC_APPLICATION WHERE id = (SELECT application_id FROM AC_VERSION WHERE hash_id=?)";
 
-    public static final String GET_APPLICATION_BY_HASH_ID =
-            "SELECT app.*, type.name as app_type_name, icon.icon as icon FROM AC_APPLICATION app JOIN AC_APP_TYPE type " +
-            "ON app.app_type_id = type.id JOIN AC_APP_ICON icon ON app.id = icon.application_id WHERE app.hash_id=?";
-
     public static final String GET_APIS_OF_APPLICATION =
             "SELECT * FROM AC_API WHERE application_id=?";
 
+    public static final String GET_APPLICATIONS_PAGE =
+            "SELECT app.id, app.name as application_name, app.hash_id, app.description, app.default_version, " +
+            "app.capp_name, type.name as app_type_name, icon.icon_hash as icon_hash FROM AC_APPLICATION app JOIN " +
+            "AC_APP_TYPE type ON app.app_type_id = type.id LEFT OUTER JOIN AC_APP_ICON icon ON app.id = " +
+            "icon.application_id WHERE app.tenant_id=? AND app.id > ? ORDER BY app.id LIMIT ?";
+
+    /* Bulk Select Queries, the %s marker is replaced with the IN list bind parameters */
+
+    public static final String GET_APPLICATIONS_BY_HASH_IDS =
+            "SELECT app.*, type.name as app_type_name, icon.icon_hash as icon_hash FROM " +
+            "AC_APPLICATION app JOIN AC_APP_TYPE type ON app.app_type_id = type.id LEFT OUTER JOIN AC_APP_ICON icon ON " +
+            "app.id = icon.application_id WHERE app.hash_id IN (%s)";
+
+    public static final String GET_VERSIONS_OF_APPLICATIONS =
+            "SELECT version.*, runtime.name as runtime_name, runtime.id as runtime_id FROM AC_VERSION version JOIN " +
+            "AC_RUNTIME runtime ON version.runtime_id = runtime.id WHERE version.application_id IN (%s)";
+
+    public static final String GET_APIS_OF_APPLICATIONS =
+            "SELECT * FROM AC_API WHERE application_id IN (%s)";
+
+    public static final String GET_ICON_CONTENTS_BY_HASHES =
+            "SELECT content_hash, icon FROM AC_ICON_CONTENT WHERE content_hash IN (%s)";
+
     public static final String GET_ALL_VERSIONS_OF_APPLICATION =
             "SELECT version.*, runtime.name as runtime_name, runtime.id as runtime_id FROM AC_VERSION version JOIN " +
             "AC_RUNTIME runtime ON version.runtime_id = runtime.id WHERE version.application_id = (SELECT id FROM " +
@@ -156,8 +218,15 @@ public class SQLQueryConstants {
             "SELECT * FROM AC_RUNTIME WHERE id = ?";
 
     public static final String GET_ALL_EVENTS_OF_APPLICATION =
-            "select * from AC_EVENT A where A.version_id = (SELECT id FROM AC_VERSION WHERE hash_id=?) and A.id >= " +
-            "(select MAX(B.id) from AC_EVENT B where B.version_id = A.version_id and B.name = A.name)";
+            "SELECT event_id as id, name, status, timestamp, description FROM AC_EVENT_LATEST WHERE version_id = " +
+            "(SELECT id FROM AC_VERSION WHERE hash_id=?) ORDER BY event_id";
+
+    public static final String GET_LATEST_EVENT_ID_OF_VERSION =
+            "SELECT MAX(event_id) FROM AC_EVENT_LATEST WHERE version_id = (SELECT id FROM AC_VERSION WHERE hash_id=?)";
+
+    public static final String GET_EVENTS_OF_APPLICATION_AFTER_ID =
+            "SELECT * FROM AC_EVENT WHERE version_id = (SELECT id FROM AC_VERSION WHERE hash_id=?) AND id > ? ORDER " +
+            "BY id";
 
     public static final String GET_ALL_APP_VERSIONS_CREATED_BEFORE_X_DAYS_AND_NOT_WHITE_LISTED =
             "SELECT * FROM AC_VERSION WHERE is_white_listed=0 AND status='running' AND timestamp <  timestampadd(HOUR, -?, now());";
@@ -166,13 +235,36 @@ public class SQLQueryConstants {
 
     /* Update Queries */
 
-    public static final String INSERT_APPLICATION_ICON = "INSERT INTO AC_APP_ICON (icon, application_id) VALUES (?, ?)";
+    public static final String INSERT_APPLICATION_ICON =
+            "INSERT INTO AC_APP_ICON (icon_hash, application_id) VALUES (?, ?)";
 
-    public static final String UPDATE_APPLICATION_ICON = "INSERT INTO AC_APP_ICON (icon, application_id) VALUES (?, ?) ON" +
-            " DUPLICATE KEY UPDATE icon= VALUES(icon)";
+    public static final String UPDATE_APPLICATION_ICON = "INSERT INTO AC_APP_ICON (icon_hash, application_id) VALUES " +
+            "(?, ?) ON DUPLICATE KEY UPDATE icon_hash= VALUES(icon_hash)";
 
     public static final String GET_APPLICATION_ICON = "SELECT id FROM AC_APP_ICON WHERE application_id=?";
 
+    public static final String GET_ICON_HASH_OF_APPLICATION_ID =
+            "SELECT icon_hash FROM AC_APP_ICON WHERE application_id=?";
+
+    public static final String GET_APPLICATION_ICON_HASH =
+            "SELECT icon.icon_hash FROM AC_APP_ICON icon JOIN AC_APPLICATION app ON icon.application_id = app.id " +
+            "WHERE app.hash_id=?";
+
+    public static final String ADD_ICON_CONTENT = "INSERT INTO AC_ICON_CONTENT (content_hash, icon) VALUES (?, ?)";
+
+    /* Locks the content until the end of the transaction, so that taking a new reference to the content and deleting
+       the content when it is no longer referenced are serialized */
+    public static final String LOCK_ICON_CONTENT =
+            "SELECT id FROM AC_ICON_CONTENT WHERE content_hash=? FOR UPDATE";
+
+    /* A locking read, so that references committed after the snapshot of the transaction was taken are seen */
+    public static final String LOCK_ICON_REFERENCE = "SELECT id FROM AC_APP_ICON WHERE icon_hash=? LIMIT 1 FOR UPDATE";
+
+    public static final String GET_ICON_CONTENT = "SELECT icon, size FROM AC_ICON_CONTENT WHERE content_hash=?";
+
+    public static final String UPDATE_ICON_CONTENT_HASH =
+            "UPDATE AC_ICON_CONTENT SET content_hash=?, size=OCTET_LENGTH(icon) WHERE id=?";
+
     public static final String UPDATE_RUNTIME_PROPERTIES =
             "UPDATE AC_RUNTIME_PROPERTY SET name=?, value=? WHERE version_id=(SELECT id FROM AC_VERSION WHERE hash_id=?)" +
             " AND name=?";
@@ -184,7 +276,18 @@ public class SQLQueryConstants {
             "UPDATE AC_TAG SET name=?, value=? WHERE version_id=(SELECT id FROM AC_VERSION WHERE hash_id=?) AND name=? ";
 
     public static final String UPDATE_APPLICATION_STATUS =
-            "UPDATE AC_VERSION SET status=? WHERE hash_id=?";
+            "UPDATE AC_VERSION SET status=?, row_version=row_version + 1 WHERE hash_id=?";
+
+    /* LAST_INSERT_ID(expr) hands the new row version back as the generated key of the update */
+
+    public static final String COMPARE_AND_SET_VERSION_STATUS =
+            "UPDATE AC_VERSION SET status=?, row_version=LAST_INSERT_ID(row_version + 1) WHERE hash_id=? AND status=?";
+
+    public static final String COMPARE_AND_SET_VERSION_STATUS_BY_ROW_VERSION =
+            "UPDATE AC_VERSION SET status=?, row_version=LAST_INSERT_ID(row_version + 1) WHERE hash_id=? AND " +
+            "row_version=? AND status IN (%s)";
+
+    public static final String GET_VERSION_STATUS = "SELECT status, row_version FROM AC_VERSION WHERE hash_id=?";
 
     public static final String UPDATE_CONTAINER_SERVICE_PROXY = "UPDATE AC_CONTAINER_SERVICE_PROXY " +
             "INNER JOIN AC_CONTAINER ON AC_CONTAINER_SERVICE_PROXY.container_id = AC_CONTAINER.id " +
@@ -215,6 +318,10 @@ public class SQLQueryConstants {
 
     public static final String DELETE_APPLICATION = "DELETE FROM AC_APPLICATION WHERE hash_id=?";
 
+    public static final String DELETE_APPLICATION_ICON = "DELETE FROM AC_APP_ICON WHERE application_id=?";
+
+    public static final String DELETE_ICON_CONTENT = "DELETE FROM AC_ICON_CONTENT WHERE id=?";
+
     public static final String DELETE_VERSION = "DELETE FROM AC_VERSION WHERE hash_id=?";
 
     public static final String DELETE_VERSIONS_OF_APPLICATION =
@@ -230,5 +337,159 @@ public class SQLQueryConstants {
     public static final String DELETE_ALL_APP_VERSION_EVENTS =
             "Delete from AC_EVENT where version_id = (SELECT id FROM AC_VERSION WHERE hash_id=?)";
 
+    public static final String DELETE_LATEST_APP_VERSION_EVENTS =
+            "DELETE FROM AC_EVENT_LATEST WHERE version_id = (SELECT id FROM AC_VERSION WHERE hash_id=?)";
+
 	public static final String GET_TENANT_APPLICATION_COUNT = "SELECT COUNT(*) FROM AC_APPLICATION WHERE tenant_id = ?";
+
+    /* Tenant Quota Queries */
+
+    public static final String GET_TENANT_VERSION_COUNT = "SELECT COUNT(*) FROM AC_VERSION WHERE tenant_id = ?";
+
+    public static final String GET_WHITE_LISTED_TENANT_LIMIT =
+            "SELECT max_app_count FROM AC_WHITE_LISTED_TENANTS WHERE tenant_id = ?";
+
+    public static final String GET_APPLICATION_COUNT_BY_TENANT =
+            "SELECT tenant_id, COUNT(*) FROM AC_APPLICATION GROUP BY tenant_id";
+
+    public static final String GET_VERSION_COUNT_BY_TENANT =
+            "SELECT tenant_id, COUNT(*) FROM AC_VERSION GROUP BY tenant_id";
+
+    public static final String GET_WHITE_LISTED_TENANT_LIMITS =
+            "SELECT tenant_id, max_app_count FROM AC_WHITE_LISTED_TENANTS";
+
+    public static final String GET_SUBSCRIPTION_PLAN_LIMITS =
+            "SELECT PLAN_NAME, MAX_APPLICATIONS FROM AC_SUBSCRIPTION_PLANS";
+
+    /* Bulk Version Queries, the %s markers are replaced with IN list parameters */
+
+    public static final String GET_VERSION_OWNERS =
+            "SELECT version.id, version.hash_id, app.hash_id as application_hash_id, app.tenant_id FROM AC_VERSION " +
+            "version JOIN AC_APPLICATION app ON version.application_id = app.id WHERE version.hash_id IN (%s)";
+
+    public static final String GET_VERSION_OWNERS_OF_APPLICATIONS =
+            "SELECT version.id, version.hash_id, app.hash_id as application_hash_id, app.tenant_id FROM AC_APPLICATION " +
+            "app LEFT OUTER JOIN AC_VERSION version ON version.application_id = app.id WHERE app.hash_id IN (%s)";
+
+    public static final String UPDATE_VERSION_STATUSES =
+            "UPDATE AC_VERSION SET status=?, row_version=row_version + 1 WHERE hash_id IN (%s)";
+
+    public static final String DELETE_LATEST_EVENTS_OF_VERSIONS = "DELETE FROM AC_EVENT_LATEST WHERE version_id IN (%s)";
+
+    public static final String DELETE_EVENTS_OF_VERSIONS = "DELETE FROM AC_EVENT WHERE version_id IN (%s)";
+
+    public static final String DELETE_VERSIONS_BY_IDS = "DELETE FROM AC_VERSION WHERE id IN (%s)";
+
+    public static final String GET_ICON_HASHES_OF_APPLICATIONS =
+            "SELECT DISTINCT icon.icon_hash FROM AC_APP_ICON icon JOIN AC_APPLICATION app ON icon.application_id = " +
+            "app.id WHERE app.hash_id IN (%s)";
+
+    public static final String DELETE_APPLICATIONS = "DELETE FROM AC_APPLICATION WHERE hash_id IN (%s)";
+
+    /* Idle Version Reaper Queries */
+
+    public static final String GET_IDLE_VERSIONS_AFTER =
+            "SELECT id, name, hash_id, runtime_id, status, tenant_id, timestamp FROM AC_VERSION WHERE status='running' " +
+            "AND is_white_listed=0 AND timestamp < ? AND (timestamp > ? OR (timestamp = ? AND id > ?)) ORDER BY " +
+            "timestamp, id LIMIT ?";
+
+    public static final String GET_IDLE_VERSION_CUTOFF = "SELECT timestampadd(HOUR, -?, now())";
+
+    public static final String GET_WHITE_LISTED_TENANT_IDS = "SELECT DISTINCT tenant_id FROM AC_WHITE_LISTED_TENANTS";
+
+    public static final String GET_REAPER_CHECKPOINT =
+            "SELECT cutoff, last_timestamp, last_version_id, processed, completed FROM AC_REAPER_CHECKPOINT WHERE " +
+            "name=?";
+
+    public static final String SAVE_REAPER_CHECKPOINT =
+            "INSERT INTO AC_REAPER_CHECKPOINT (name, cutoff, last_timestamp, last_version_id, processed, completed) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE cutoff=VALUES(cutoff), last_timestamp=" +
+            "VALUES(last_timestamp), last_version_id=VALUES(last_version_id), processed=VALUES(processed), " +
+            "completed=VALUES(completed)";
+
+    /* Event Retention Queries */
+
+    public static final String DELETE_EVENTS_BEFORE = "DELETE FROM AC_EVENT WHERE timestamp < ? LIMIT ?";
+
+    public static final String GET_EVENT_GROUPS_TO_COMPACT =
+            "SELECT version_id, name FROM AC_EVENT WHERE version_id > ? OR (version_id = ? AND name > ?) GROUP BY " +
+            "version_id, name HAVING COUNT(*) > ? ORDER BY version_id, name LIMIT ?";
+
+    public static final String GET_EVENT_COMPACTION_BOUNDARY =
+            "SELECT id FROM AC_EVENT WHERE version_id = ? AND name = ? ORDER BY id DESC LIMIT 1 OFFSET ?";
+
+    public static final String DELETE_EVENTS_UP_TO =
+            "DELETE FROM AC_EVENT WHERE version_id = ? AND name = ? AND id <= ? LIMIT ?";
+
+    public static final String GET_EVENT_PARTITIONS =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM INFORMATION_SCHEMA.PARTITIONS WHERE TABLE_SCHEMA = " +
+            "DATABASE() AND TABLE_NAME = 'AC_EVENT' AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+
+    /* Partition DDL cannot take bind parameters, the %s markers are replaced with generated partition definitions */
+
+    public static final String DROP_EVENT_PARTITION = "ALTER TABLE AC_EVENT DROP PARTITION %s";
+
+    public static final String ADD_EVENT_PARTITIONS =
+            "ALTER TABLE AC_EVENT REORGANIZE PARTITION %s INTO (%s, PARTITION %s VALUES LESS THAN MAXVALUE)";
+
+    public static final String EVENT_PARTITION_DEFINITION = "PARTITION %s VALUES LESS THAN (%d)";
+
+    /* Tenant Migration Queries */
+
+    public static final String EXPORT_TENANT_APPLICATIONS =
+            "SELECT app.name, app.description, app.default_version, app.capp_name, app.param_configuration, " +
+            "app.task_configuration, type.name as app_type_name FROM AC_APPLICATION app LEFT OUTER JOIN AC_APP_TYPE " +
+            "type ON app.app_type_id = type.id WHERE app.tenant_id=? ORDER BY app.id";
+
+    public static final String EXPORT_TENANT_APPLICATION_ICONS =
+            "SELECT app.name as application_name, content.icon FROM AC_APP_ICON icon JOIN AC_APPLICATION app ON " +
+            "icon.application_id = app.id JOIN AC_ICON_CONTENT content ON icon.icon_hash = content.content_hash " +
+            "WHERE app.tenant_id=? ORDER BY app.id";
+
+    public static final String EXPORT_TENANT_VERSIONS =
+            "SELECT version.name, version.runtime_id, version.status, version.timestamp, version.is_white_listed, " +
+            "app.name as application_name FROM AC_VERSION version JOIN AC_APPLICATION app ON version.application_id = " +
+            "app.id WHERE app.tenant_id=? ORDER BY version.id";
+
+    public static final String EXPORT_TENANT_APIS =
+            "SELECT api.name, api.context, api.http_methods, api.url, app.name as application_name FROM AC_API api " +
+            "JOIN AC_APPLICATION app ON api.application_id = app.id WHERE app.tenant_id=? ORDER BY api.id";
+
+    public static final String EXPORT_TENANT_EVENTS =
+            "SELECT event.name, event.status, event.timestamp, event.description, version.name as version_name, " +
+            "app.name as application_name FROM AC_EVENT event JOIN AC_VERSION version ON event.version_id = " +
+            "version.id JOIN AC_APPLICATION app ON version.application_id = app.id WHERE app.tenant_id=? ORDER BY " +
+            "event.id";
+
+    public static final String IMPORT_APPLICATION =
+            "INSERT INTO AC_APPLICATION (name, hash_id, description, tenant_id, default_version, capp_name, " +
+            "param_configuration, task_configuration, app_type_id) values (?, ?, ?, ?, ?, ?, ?, ?, (SELECT id FROM " +
+            "AC_APP_TYPE WHERE name=?))";
+
+    public static final String IMPORT_VERSION =
+            "INSERT INTO AC_VERSION (name, hash_id, application_id, runtime_id, status, tenant_id, timestamp, " +
+            "is_white_listed) VALUES (?, ?, (SELECT id FROM AC_APPLICATION WHERE hash_id=?), ?, ?, ?, ?, ?)";
+
+    public static final String IMPORT_API =
+            "INSERT INTO AC_API (name, application_id, context, http_methods, url, tenant_id) VALUES (?, (SELECT id " +
+            "FROM AC_APPLICATION WHERE hash_id=?), ?, ?, ?, ?)";
+
+    /* Hash Id Queries */
+
+    public static final String GET_APPLICATION_OWNER_OF_HASH_ID =
+            "SELECT name, tenant_id FROM AC_APPLICATION WHERE hash_id=?";
+
+    public static final String GET_VERSION_OWNERS_OF_HASH_IDS =
+            "SELECT hash_id, name, application_id FROM AC_VERSION WHERE hash_id IN (%s)";
+
+    public static final String GET_APPLICATION_HASH_ID_SOURCES =
+            "SELECT id, name, tenant_id FROM AC_APPLICATION WHERE id > ? ORDER BY id LIMIT ?";
+
+    public static final String GET_VERSION_HASH_ID_SOURCES =
+            "SELECT version.id, version.name, app.name as application_name, app.tenant_id FROM AC_VERSION version " +
+            "JOIN AC_APPLICATION app ON version.application_id = app.id WHERE version.id > ? ORDER BY version.id LIMIT ?";
+
+    public static final String UPDATE_APPLICATION_HASH_ID = "UPDATE AC_APPLICATION SET hash_id=? WHERE id=?";
+
+    public static final String UPDATE_VERSION_HASH_ID = "UPDATE AC_VERSION SET hash_id=? WHERE id=?";
 }
@@ -0,0 +1,262 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit of work runs several {@link ApplicationManager} operations on one database connection and one transaction.
+ *
+ * While a unit of work is active on a thread, {@link DBUtil#getDBConnection()} hands out its connection, and the
+ * commits and closes issued by the individual operations are deferred to the unit of work. A unit of work which is
+ * closed without being committed, or in which an operation rolled back, is rolled back as a whole. Operations which
+ * modify data roll back when they fail, so a unit of work in which an operation failed refuses to commit even if the
+ * caller handles the failure.
+ *
+ * <pre>
+ * UnitOfWork unitOfWork = UnitOfWork.begin();
+ * try {
+ *     String applicationHashId = ApplicationManager.getApplicationHashIdByName(applicationName);
+ *     Application application = ApplicationManager.getApplicationByHashId(applicationHashId);
+ *     List&lt;Version&gt; versions = ApplicationManager.getAllVersionsOfApplication(applicationHashId);
+ *     unitOfWork.commit();
+ * } finally {
+ *     unitOfWork.close();
+ * }
+ * </pre>
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Connection sharedConnection;
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private final List<Runnable> commitActions = new ArrayList<>();
+    private boolean modified;
+    private boolean rollbackOnly;
+    private boolean completed;
+    private boolean committed;
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+        this.sharedConnection = (Connection) Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(),
+                                                                    new Class<?>[]{Connection.class},
+                                                                    new SharedConnectionHandler());
+    }
+
+    /**
+     * Begin a unit of work on the current thread, borrowing a connection for its whole duration.
+     *
+     * @return the unit of work, which must be closed by the caller
+     * @throws IntCloudException if a unit of work is already active on the current thread or a connection cannot be
+     *                           borrowed
+     */
+    public static UnitOfWork begin() throws IntCloudException {
+
+        if (current.get() != null) {
+            String msg = "A unit of work is already active on the current thread";
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+
+        UnitOfWork unitOfWork = new UnitOfWork(DBUtil.getDBConnection());
+        current.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Get the unit of work active on the current thread.
+     *
+     * @return active unit of work or null if there is none
+     */
+    public static UnitOfWork getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Check whether the unit of work active on the current thread holds uncommitted modifications. Values read while
+     * this is the case may not survive a rollback and should not be cached.
+     *
+     * @return
+     */
+    public static boolean hasUncommittedModifications() {
+        UnitOfWork unitOfWork = current.get();
+        return unitOfWork != null && (unitOfWork.modified || unitOfWork.rollbackOnly);
+    }
+
+    /**
+     * Run the given action now and once more after the unit of work active on the current thread completes, if any.
+     * Used for cache invalidations, which must not be undone by values cached before the unit of work commits.
+     *
+     * @param action action to run
+     */
+    public static void runNowAndOnCompletion(Runnable action) {
+        action.run();
+        UnitOfWork unitOfWork = current.get();
+        if (unitOfWork != null) {
+            unitOfWork.completionActions.add(action);
+        }
+    }
+
+    /**
+     * Run the given action once the work done so far is committed. Without an active unit of work the operations
+     * commit on their own, so the action runs now; otherwise it runs after the unit of work commits and is dropped if
+     * it rolls back. Used for effects which must not be seen for uncommitted work, such as publishing events.
+     *
+     * @param action action to run
+     */
+    public static void runAfterCommit(Runnable action) {
+        UnitOfWork unitOfWork = current.get();
+        if (unitOfWork == null) {
+            action.run();
+        } else {
+            unitOfWork.commitActions.add(action);
+        }
+    }
+
+    /**
+     * Connection shared by the operations of this unit of work.
+     *
+     * @return
+     */
+    Connection getConnection() {
+        return sharedConnection;
+    }
+
+    /**
+     * Commit the work done in this unit of work.
+     *
+     * @throws IntCloudException if an operation of this unit of work has rolled back or the commit fails, in which
+     *                           case the work is rolled back
+     */
+    public void commit() throws IntCloudException {
+
+        if (completed) {
+            String msg = "The unit of work is already completed";
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+        if (rollbackOnly) {
+            String msg = "The unit of work is rolled back since one of its operations failed";
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+
+        try {
+            connection.commit();
+            completed = true;
+            committed = true;
+        } catch (SQLException e) {
+            String msg = "Error while committing the unit of work";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+    }
+
+    /**
+     * Roll back the work done in this unit of work.
+     */
+    public void rollback() {
+        if (!completed) {
+            DBUtil.rollbackTransaction(connection);
+            completed = true;
+        }
+    }
+
+    /**
+     * End this unit of work and release its connection. Work which is not committed is rolled back.
+     */
+    @Override
+    public void close() {
+
+        if (current.get() != this) {
+            return;
+        }
+
+        try {
+            rollback();
+        } finally {
+            current.remove();
+            DBUtil.closeConnection(connection);
+            for (Runnable action : completionActions) {
+                action.run();
+            }
+            if (committed) {
+                for (Runnable action : commitActions) {
+                    action.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles the calls made on the connection handed out to the operations of the unit of work. Transaction
+     * boundaries and closing the connection are left to the unit of work, while a rollback requested by an
+     * operation rolls back the unit of work as a whole.
+     */
+    private class SharedConnectionHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String methodName = method.getName();
+            int argumentCount = args == null ? 0 : args.length;
+
+            if ("close".equals(methodName) || "setAutoCommit".equals(methodName)) {
+                return null;
+            }
+            if ("isClosed".equals(methodName)) {
+                return completed || connection.isClosed();
+            }
+            if ("commit".equals(methodName)) {
+                modified = true;
+                return null;
+            }
+            if ("rollback".equals(methodName) && argumentCount == 0) {
+                rollbackOnly = true;
+                connection.rollback();
+                return null;
+            }
+            if ("equals".equals(methodName)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(methodName)) {
+                return System.identityHashCode(proxy);
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
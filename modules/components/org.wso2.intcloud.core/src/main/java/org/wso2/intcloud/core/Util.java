@@ -18,12 +18,23 @@
  */
 package org.wso2.intcloud.core;
 
+import org.apache.commons.codec.binary.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class Util {
 
     private static final long[] byteTable = createLookupTable();
     private static final long HSTART = 0xBB40E64DA205B064L;
     private static final long HMULT = 7664345821815920749L;
+    private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Numeric hash id value standing for a hash id which is not set. Computed hash ids are never negative apart from
+     * {@link Long#MIN_VALUE}.
+     */
+    public static final long NO_HASH_ID = -1L;
 
     public static long hash(byte[] data) {
         long h = HSTART;
@@ -62,20 +73,136 @@ public class Util {
         return h < 0 ? h*-1 : h;
     }
 
-    public static String getVersionHashId (String applicationName, String versionName, int tenantId){
-        if(applicationName == null || versionName == null || applicationName.isEmpty() || versionName.isEmpty()){
-            return null;
+    /**
+     * Compute {@link #hash(CharSequence)} of the decimal tenant id followed by the given names without concatenating
+     * them.
+     *
+     * @param tenantId tenant id
+     * @param first    first name
+     * @param second   second name, may be null
+     * @return
+     */
+    static long hash(int tenantId, CharSequence first, CharSequence second) {
+        long h = HSTART;
+        long value = tenantId;
+        if (value < 0) {
+            h = hashChar(h, '-');
+            value = -value;
         }
-        String idString = tenantId + applicationName + versionName;
-        return Long.toString(Util.hash(idString));
+        long divisor = 1;
+        while (divisor * 10 <= value) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            h = hashChar(h, (char) ('0' + (value / divisor) % 10));
+        }
+        h = hashChars(h, first);
+        if (second != null) {
+            h = hashChars(h, second);
+        }
+        return h < 0 ? h*-1 : h;
+    }
+
+    private static long hashChars(long h, CharSequence cs) {
+        final int len = cs.length();
+        for (int i = 0; i < len; i++) {
+            h = hashChar(h, cs.charAt(i));
+        }
+        return h;
+    }
+
+    private static long hashChar(long h, char ch) {
+        h = (h * HMULT) ^ byteTable[ch & 0xff];
+        return (h * HMULT) ^ byteTable[(ch >>> 8) & 0xff];
+    }
+
+    public static String getVersionHashId (String applicationName, String versionName, int tenantId){
+        return toHashIdString(getVersionHashIdValue(applicationName, versionName, tenantId));
     }
 
     public static String getApplicationHashId (String applicationName, int tenantId){
-        if(applicationName == null || applicationName.isEmpty()){
-            return null;
+        return toHashIdString(getApplicationHashIdValue(applicationName, tenantId));
+    }
+
+    /**
+     * Get the numeric hash id of a version with the configured {@link HashIdGenerator} scheme.
+     *
+     * @param applicationName application name
+     * @param versionName     version name
+     * @param tenantId        tenant id
+     * @return hash id or {@link #NO_HASH_ID} if a name is not given
+     */
+    public static long getVersionHashIdValue(String applicationName, String versionName, int tenantId) {
+        if (applicationName == null || versionName == null || applicationName.isEmpty() || versionName.isEmpty()) {
+            return NO_HASH_ID;
         }
-        String idString = tenantId + applicationName;
-        return Long.toString(Util.hash(idString));
+        return HashIdGenerator.getVersionHashId(tenantId, applicationName, versionName);
+    }
+
+    /**
+     * Get the numeric hash id of an application with the configured {@link HashIdGenerator} scheme.
+     *
+     * @param applicationName application name
+     * @param tenantId        tenant id
+     * @return hash id or {@link #NO_HASH_ID} if the name is not given
+     */
+    public static long getApplicationHashIdValue(String applicationName, int tenantId) {
+        if (applicationName == null || applicationName.isEmpty()) {
+            return NO_HASH_ID;
+        }
+        return HashIdGenerator.getApplicationHashId(tenantId, applicationName);
+    }
+
+    /**
+     * Parse the decimal string form of a hash id.
+     *
+     * @param hashId decimal hash id
+     * @return hash id or {@link #NO_HASH_ID} if the given hash id is null or not a number, which matches no record
+     */
+    public static long parseHashId(String hashId) {
+        if (hashId == null) {
+            return NO_HASH_ID;
+        }
+        try {
+            return Long.parseLong(hashId);
+        } catch (NumberFormatException e) {
+            return NO_HASH_ID;
+        }
+    }
+
+    /**
+     * Get the decimal string form of a hash id.
+     *
+     * @param hashId hash id
+     * @return decimal hash id or null if the hash id is {@link #NO_HASH_ID}
+     */
+    public static String toHashIdString(long hashId) {
+        return hashId == NO_HASH_ID ? null : Long.toString(hashId);
+    }
+
+    /**
+     * Create a message digest for computing content hashes of stored binary content such as icons.
+     *
+     * @return
+     */
+    public static MessageDigest createContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("Message digest algorithm " + CONTENT_DIGEST_ALGORITHM +
+                                            " is not available", e);
+        }
+    }
+
+    /**
+     * Get the hex encoded content hash computed by the given digest.
+     *
+     * @param digest message digest which has consumed the content
+     * @return
+     */
+    public static String getContentHash(MessageDigest digest) {
+        return Hex.encodeHexString(digest.digest());
     }
 
     public static String getRuntimeValidAppName(String applicationName){
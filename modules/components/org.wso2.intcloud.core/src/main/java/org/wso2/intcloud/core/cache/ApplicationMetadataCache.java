@@ -0,0 +1,285 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.UnitOfWork;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size bounded, read-through cache for the application metadata that is looked up by hash id.
+ *
+ * Entries are evicted on a least recently used basis once the configured number of entries is reached and expire
+ * after the configured time to live. Hash ids already embed the tenant id, so entries keyed by a hash id are shared by
+ * all tenant flows, which lets super tenant flows such as scheduled tasks invalidate them as well. Entries keyed by a
+ * tenant scoped name carry the tenant id in the key.
+ */
+public class ApplicationMetadataCache {
+
+    private static final Log log = LogFactory.getLog(ApplicationMetadataCache.class);
+
+    private static final String CACHE_ENABLED = "ApplicationCache.Enabled";
+    private static final String CACHE_MAX_ENTRIES = "ApplicationCache.MaxEntries";
+    private static final String CACHE_EXPIRY_SECONDS = "ApplicationCache.ExpirySeconds";
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final int DEFAULT_EXPIRY_SECONDS = 300;
+    private static final int ANY_TENANT = Integer.MIN_VALUE;
+
+    private static final ApplicationMetadataCache instance = new ApplicationMetadataCache();
+
+    private final boolean enabled;
+    private final Cache<CacheKey, Object> cache;
+
+    /**
+     * Kinds of metadata held in the cache.
+     */
+    public enum Region {
+        /**
+         * Applications without their icon content, which is cached separately by {@link IconCache}.
+         */
+        APPLICATION,
+        APPLICATION_NAME,
+        APPLICATION_HASH_ID_BY_NAME,
+        APPLICATION_HASH_ID_BY_VERSION,
+        CARBON_APPLICATION_NAME,
+        TASK_CONFIGURATION,
+        VERSIONS,
+        VERSION_NAMES,
+        VERSION_HASH_IDS
+    }
+
+    /**
+     * Regions keyed by the application hash id.
+     */
+    private static final Region[] APPLICATION_REGIONS = {
+            Region.APPLICATION, Region.APPLICATION_NAME, Region.CARBON_APPLICATION_NAME, Region.TASK_CONFIGURATION,
+            Region.VERSIONS, Region.VERSION_NAMES, Region.VERSION_HASH_IDS
+    };
+
+    private ApplicationMetadataCache() {
+
+        enabled = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(CACHE_ENABLED, "true"));
+        int maxEntries = IntCloudUtil.getIntPropertyValue(CACHE_MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+        int expirySeconds = IntCloudUtil.getIntPropertyValue(CACHE_EXPIRY_SECONDS, DEFAULT_EXPIRY_SECONDS);
+
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(maxEntries)
+                            .expireAfterWrite(expirySeconds, TimeUnit.SECONDS)
+                            .recordStats()
+                            .build();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Initialized application metadata cache, enabled : " + enabled + ", max entries : " +
+                      maxEntries + ", expiry seconds : " + expirySeconds);
+        }
+    }
+
+    public static ApplicationMetadataCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get a cached value keyed by a hash id.
+     *
+     * @param region kind of the cached value
+     * @param id     hash id
+     * @return cached value or null if not cached
+     */
+    public <T> T get(Region region, String id) {
+        return get(region, ANY_TENANT, id);
+    }
+
+    /**
+     * Get a cached value keyed by a tenant scoped id.
+     *
+     * @param region   kind of the cached value
+     * @param tenantId tenant id
+     * @param id       tenant scoped id such as the application name
+     * @return cached value or null if not cached
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, int tenantId, String id) {
+        if (!enabled || id == null) {
+            return null;
+        }
+        return (T) cache.getIfPresent(new CacheKey(region, tenantId, id));
+    }
+
+    /**
+     * Cache a value keyed by a hash id. Null values are not cached.
+     *
+     * @param region kind of the cached value
+     * @param id     hash id
+     * @param value  value to cache
+     */
+    public void put(Region region, String id, Object value) {
+        put(region, ANY_TENANT, id, value);
+    }
+
+    /**
+     * Cache a value keyed by a tenant scoped id. Null values are not cached.
+     *
+     * @param region   kind of the cached value
+     * @param tenantId tenant id
+     * @param id       tenant scoped id such as the application name
+     * @param value    value to cache
+     */
+    public void put(Region region, int tenantId, String id, Object value) {
+        // Values read after modifications in an uncommitted unit of work could be rolled back
+        if (!enabled || id == null || value == null || UnitOfWork.hasUncommittedModifications()) {
+            return;
+        }
+        cache.put(new CacheKey(region, tenantId, id), value);
+    }
+
+    /**
+     * Invalidate all the entries keyed by the given application hash id. Used when an application or its versions
+     * are modified. Within a unit of work the invalidation is repeated once the unit of work completes.
+     *
+     * @param applicationHashId application hash id
+     */
+    public void invalidateApplication(final String applicationHashId) {
+        if (!enabled || applicationHashId == null) {
+            return;
+        }
+        UnitOfWork.runNowAndOnCompletion(new Runnable() {
+            @Override
+            public void run() {
+                for (Region region : APPLICATION_REGIONS) {
+                    cache.invalidate(new CacheKey(region, ANY_TENANT, applicationHashId));
+                }
+            }
+        });
+    }
+
+    /**
+     * Invalidate all the entries of a deleted application including the entries that resolve to its hash id.
+     *
+     * @param applicationHashId application hash id
+     */
+    public void removeApplication(final String applicationHashId) {
+        if (!enabled || applicationHashId == null) {
+            return;
+        }
+        invalidateApplication(applicationHashId);
+        UnitOfWork.runNowAndOnCompletion(new Runnable() {
+            @Override
+            public void run() {
+                removeEntriesResolvingTo(applicationHashId);
+            }
+        });
+    }
+
+    private void removeEntriesResolvingTo(String applicationHashId) {
+
+        Iterator<Map.Entry<CacheKey, Object>> iterator = cache.asMap().entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, Object> entry = iterator.next();
+            Region region = entry.getKey().region;
+            if ((region == Region.APPLICATION_HASH_ID_BY_NAME || region == Region.APPLICATION_HASH_ID_BY_VERSION) &&
+                applicationHashId.equals(entry.getValue())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidate the entries keyed by the given version hash id.
+     *
+     * @param versionHashId version hash id
+     */
+    public void removeVersion(String versionHashId) {
+        if (!enabled || versionHashId == null) {
+            return;
+        }
+        final CacheKey key = new CacheKey(Region.APPLICATION_HASH_ID_BY_VERSION, ANY_TENANT, versionHashId);
+        UnitOfWork.runNowAndOnCompletion(new Runnable() {
+            @Override
+            public void run() {
+                cache.invalidate(key);
+            }
+        });
+    }
+
+    /**
+     * Discard all the cached entries.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static final class CacheKey {
+
+        private final Region region;
+        private final int tenantId;
+        private final String id;
+
+        private CacheKey(Region region, int tenantId, String id) {
+            this.region = region;
+            this.tenantId = tenantId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return region == other.region && tenantId == other.tenantId && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = region.hashCode();
+            result = 31 * result + tenantId;
+            result = 31 * result + id.hashCode();
+            return result;
+        }
+    }
+}
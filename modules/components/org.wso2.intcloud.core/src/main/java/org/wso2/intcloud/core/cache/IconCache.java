@@ -0,0 +1,141 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+
+/**
+ * In-process cache for icon content keyed by content hash.
+ *
+ * The cache is bounded by the total number of icon bytes it holds rather than by the number of entries, and evicts
+ * the least recently used icons once the budget is reached. Icon content is addressed by its hash, so an entry never
+ * goes stale and no invalidation is needed when applications change their icons.
+ */
+public class IconCache {
+
+    private static final Log log = LogFactory.getLog(IconCache.class);
+
+    private static final String CACHE_ENABLED = "IconCache.Enabled";
+    private static final String CACHE_MAX_BYTES = "IconCache.MaxBytes";
+    private static final String CACHE_MAX_ICON_BYTES = "IconCache.MaxIconBytes";
+
+    private static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    private static final int DEFAULT_MAX_ICON_BYTES = 1024 * 1024;
+
+    private static final IconCache instance = new IconCache();
+
+    private final boolean enabled;
+    private final int maxIconBytes;
+    private final Cache<String, byte[]> cache;
+
+    private IconCache() {
+
+        enabled = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(CACHE_ENABLED, "true"));
+        int maxBytes = IntCloudUtil.getIntPropertyValue(CACHE_MAX_BYTES, DEFAULT_MAX_BYTES);
+        maxIconBytes = Math.min(maxBytes, IntCloudUtil.getIntPropertyValue(CACHE_MAX_ICON_BYTES,
+                                                                            DEFAULT_MAX_ICON_BYTES));
+
+        cache = CacheBuilder.newBuilder()
+                            .maximumWeight(maxBytes)
+                            .weigher(new Weigher<String, byte[]>() {
+                                @Override
+                                public int weigh(String contentHash, byte[] content) {
+                                    return content.length;
+                                }
+                            })
+                            .recordStats()
+                            .build();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Initialized icon cache, enabled : " + enabled + ", max bytes : " + maxBytes +
+                      ", max icon bytes : " + maxIconBytes);
+        }
+    }
+
+    public static IconCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get the cached content of an icon.
+     *
+     * @param contentHash content hash of the icon
+     * @return icon content or null if not cached
+     */
+    public byte[] get(String contentHash) {
+        if (!enabled || contentHash == null) {
+            return null;
+        }
+        return cache.getIfPresent(contentHash);
+    }
+
+    /**
+     * Cache the content of an icon. Icons larger than the configured per icon limit are not cached, so that a few
+     * large icons cannot displace the many small ones.
+     *
+     * @param contentHash content hash of the icon
+     * @param content     icon content
+     */
+    public void put(String contentHash, byte[] content) {
+        if (contentHash == null || content == null || !isCacheable(content.length)) {
+            return;
+        }
+        cache.put(contentHash, content);
+    }
+
+    /**
+     * Check whether an icon of the given size would be cached.
+     *
+     * @param size icon size in bytes
+     * @return true if the cache is enabled and the icon is within the per icon limit
+     */
+    public boolean isCacheable(long size) {
+        return enabled && size <= maxIconBytes;
+    }
+
+    /**
+     * Discard all the cached icons.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -22,22 +22,39 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.intcloud.common.IntCloudException;
 import org.wso2.intcloud.core.DBUtil;
 import org.wso2.intcloud.core.SQLQueryConstants;
+import org.wso2.intcloud.core.Util;
+import org.wso2.intcloud.core.cache.IconCache;
 import org.wso2.intcloud.core.dto.Api;
 import org.wso2.intcloud.core.dto.Application;
 import org.wso2.intcloud.core.dto.ApplicationRuntime;
+import org.wso2.intcloud.core.dto.ApplicationProjection;
 import org.wso2.intcloud.core.dto.ApplicationType;
 import org.wso2.intcloud.core.dto.Transport;
 import org.wso2.intcloud.core.dto.Version;
+import org.wso2.intcloud.core.dto.VersionOwner;
+import org.wso2.intcloud.core.dto.VersionStatus;
+import org.wso2.intcloud.core.dto.VersionStatusUpdate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.rowset.serial.SerialBlob;
 
 /**
  * DAO class for persisting or retrieving application related data to database.
@@ -46,6 +63,8 @@ public class ApplicationDAO {
 
     private static final Log log = LogFactory.getLog(ApplicationDAO.class);
 
+    private static final String PENDING_CONTENT_HASH_PREFIX = "pending:";
+
     /**
      * Method for adding application details to database.
      *
@@ -63,10 +82,11 @@ public class ApplicationDAO {
 
         try {
 
+            checkApplicationHashId(dbConnection, application, tenantId);
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_APPLICATION,
                                                               Statement.RETURN_GENERATED_KEYS);
             preparedStatement.setString(1, application.getApplicationName());
-            preparedStatement.setString(2, application.getHashId());
+            DBUtil.setHashId(preparedStatement, 2, application.getHashIdValue());
             preparedStatement.setString(3, application.getDescription());
             preparedStatement.setInt(4, tenantId);
             preparedStatement.setString(5, application.getDefaultVersion());
@@ -82,15 +102,13 @@ public class ApplicationDAO {
 
             List<Version> versions = application.getVersions();
 
-            if (versions != null) {
-                for (Version version : versions) {
-                    addVersion(dbConnection, version, applicationId, tenantId);
-                }
+            if (versions != null && !versions.isEmpty()) {
+                addVersions(dbConnection, versions, applicationId, tenantId);
             }
 
             InputStream iconInputStream = null;
             if (application.getIcon() != null) {
-                iconInputStream = IOUtils.toBufferedInputStream(application.getIcon().getBinaryStream());
+                iconInputStream = application.getIcon().getBinaryStream();
             }
             updateApplicationIcon(dbConnection, iconInputStream, applicationId);
 
@@ -102,12 +120,6 @@ public class ApplicationDAO {
             log.error(msg, e);
             throw new IntCloudException(msg, e);
 
-        } catch (IOException e) {
-            String msg =
-                    "Error while generating stream of the icon for application : " + application.getApplicationName() +
-                    " in tenant : " + tenantId;
-            log.error(msg, e);
-            throw new IntCloudException(msg, e);
         } finally {
             DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
@@ -166,115 +178,778 @@ public class ApplicationDAO {
 
 
     /**
-     * Method for adding version details to database.
+     * Method for adding the details of several APIs of an application to database. The APIs are inserted in JDBC
+     * batches of {@link DBUtil#MAX_BATCH_SIZE} and the generated ids are set on the given API objects.
+     *
+     * @param dbConnection database connection
+     * @param applicationId application id
+     * @param apis api objects
+     * @param tenantId tenant id
+     * @throws IntCloudException
+     */
+    public void addAPIs(Connection dbConnection, int applicationId, List<Api> apis, int tenantId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_API, Statement.RETURN_GENERATED_KEYS);
+
+            for (int from = 0; from < apis.size(); from += DBUtil.MAX_BATCH_SIZE) {
+                List<Api> batch = apis.subList(from, Math.min(apis.size(), from + DBUtil.MAX_BATCH_SIZE));
+                for (Api api : batch) {
+                    preparedStatement.setString(1, api.getName());
+                    preparedStatement.setInt(2, applicationId);
+                    preparedStatement.setString(3, api.getContext());
+                    preparedStatement.setString(4, api.getHttpMethods());
+                    preparedStatement.setString(5, api.getUrl());
+                    preparedStatement.setInt(6, tenantId);
+                    preparedStatement.addBatch();
+                }
+
+                preparedStatement.executeBatch();
+
+                // Generated keys are returned in the order the rows were added to the batch
+                resultSet = preparedStatement.getGeneratedKeys();
+                int index = 0;
+                while (resultSet.next() && index < batch.size()) {
+                    batch.get(index++).setId(resultSet.getInt(1));
+                }
+                DBUtil.closeResultSet(resultSet);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error occurred while adding " + apis.size() + " APIs to database for application id : " +
+                         applicationId + " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Method for adding the details of several versions of an application to database. The versions are inserted
+     * in JDBC batches of {@link DBUtil#MAX_BATCH_SIZE}.
+     *
+     * @param dbConnection database connection
+     * @param versions version objects
+     * @param applicationId application id
+     * @param tenantId tenant id
+     * @throws IntCloudException
+     */
+    public void addVersions(Connection dbConnection, List<Version> versions, int applicationId, int tenantId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_VERSION);
+
+            for (int from = 0; from < versions.size(); from += DBUtil.MAX_BATCH_SIZE) {
+                List<Version> batch = versions.subList(from, Math.min(versions.size(), from + DBUtil.MAX_BATCH_SIZE));
+                checkVersionHashIds(dbConnection, batch, applicationId);
+                for (Version version : batch) {
+                    preparedStatement.setString(1, version.getVersionName());
+                    DBUtil.setHashId(preparedStatement, 2, version.getHashIdValue());
+                    preparedStatement.setInt(3, applicationId);
+                    preparedStatement.setInt(4, version.getRuntimeId());
+                    preparedStatement.setInt(5, tenantId);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error occurred while adding " + versions.size() + " application versions to database for " +
+                         "application id : " + applicationId + " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Method for adding version details to database.
+     *
+     * @param dbConnection database connection
+     * @param version version object
+     * @param applicationId application id
+     * @param tenantId tenant id
+     * @return
+     * @throws IntCloudException
+     */
+    public void addVersion(Connection dbConnection, Version version, int applicationId, int tenantId)
+            throws IntCloudException {
+
+
+        PreparedStatement preparedStatement = null;
+        int versionId = 0;
+        ResultSet resultSet = null;
+
+        try {
+
+            checkVersionHashIds(dbConnection, Collections.singletonList(version), applicationId);
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_VERSION, Statement.RETURN_GENERATED_KEYS);
+            preparedStatement.setString(1, version.getVersionName());
+            DBUtil.setHashId(preparedStatement, 2, version.getHashIdValue());
+            preparedStatement.setInt(3, applicationId);
+            preparedStatement.setInt(4, version.getRuntimeId());
+            preparedStatement.setInt(5, tenantId);
+
+            preparedStatement.execute();
+
+            resultSet = preparedStatement.getGeneratedKeys();
+            while (resultSet.next()){
+                versionId = resultSet.getInt(1);
+            }
+
+//            List<Tag> tags = version.getTags();
+//            if (tags != null) {
+//                addTags(dbConnection, tags, version.getHashId(), tenantId);
+//            }
+//
+//            List<RuntimeProperty> runtimeProperties = version.getRuntimeProperties();
+//            if (runtimeProperties != null) {
+//                addRunTimeProperties(dbConnection, runtimeProperties, version.getHashId(), tenantId);
+//            }
+
+        } catch (SQLException e) {
+            String msg = "Error occurred while adding application version to database for application id : " + applicationId +
+                         " version : " + version.getVersionName() + " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+
+    }
+
+    /**
+     * Fail the creation of an application whose hash id is already used by an application with a different name or
+     * tenant. Adding an application which already exists is left to the unique name constraint.
+     *
+     * @param dbConnection database connection
+     * @param application application to be added
+     * @param tenantId tenant id
+     * @throws IntCloudException if the hash id collides with the hash id of another application
+     */
+    private void checkApplicationHashId(Connection dbConnection, Application application, int tenantId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_OWNER_OF_HASH_ID);
+            DBUtil.setHashId(preparedStatement, 1, application.getHashIdValue());
+            resultSet = preparedStatement.executeQuery();
+
+            if (resultSet.next() && (resultSet.getInt(SQLQueryConstants.TENANT_ID) != tenantId ||
+                                     !resultSet.getString(SQLQueryConstants.NAME)
+                                               .equals(application.getApplicationName()))) {
+                String msg = "Hash id : " + application.getHashId() + " of application : " +
+                             application.getApplicationName() + " in tenant : " + tenantId +
+                             " collides with the hash id of an existing application";
+                log.error(msg);
+                throw new IntCloudException(msg);
+            }
+        } catch (SQLException e) {
+            String msg = "Error while checking the hash id of application : " + application.getApplicationName() +
+                         " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Fail the creation of versions whose hash ids are already used by versions of another application or with
+     * different names. The existing versions are looked up with one query per {@link DBUtil#MAX_IN_LIST_SIZE} hash
+     * ids instead of one query per version.
+     *
+     * @param dbConnection database connection
+     * @param versions versions to be added
+     * @param applicationId application id
+     * @throws IntCloudException if a hash id collides with the hash id of another version
+     */
+    private void checkVersionHashIds(Connection dbConnection, List<Version> versions, int applicationId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            for (int from = 0; from < versions.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+                List<Version> chunk = versions.subList(from, Math.min(versions.size(),
+                                                                      from + DBUtil.MAX_IN_LIST_SIZE));
+                preparedStatement = dbConnection.prepareStatement(
+                        DBUtil.buildInListQuery(SQLQueryConstants.GET_VERSION_OWNERS_OF_HASH_IDS, chunk.size()));
+                int index = 1;
+                for (Version version : chunk) {
+                    DBUtil.setHashId(preparedStatement, index++, version.getHashIdValue());
+                }
+                resultSet = preparedStatement.executeQuery();
+
+                Map<Long, String> ownerOfHashId = new HashMap<>();
+                while (resultSet.next()) {
+                    if (resultSet.getInt(SQLQueryConstants.APPLICATION_ID) == applicationId) {
+                        ownerOfHashId.put(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID),
+                                          resultSet.getString(SQLQueryConstants.NAME));
+                    } else {
+                        // A version of another application never matches a version to be added
+                        ownerOfHashId.put(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID), null);
+                    }
+                }
+                DBUtil.closeResultSet(resultSet);
+                DBUtil.closePreparedStatement(preparedStatement);
+
+                for (Version version : chunk) {
+                    if (ownerOfHashId.containsKey(version.getHashIdValue()) &&
+                        !version.getVersionName().equals(ownerOfHashId.get(version.getHashIdValue()))) {
+                        String msg = "Hash id : " + version.getHashId() + " of version : " + version.getVersionName() +
+                                     " of application id : " + applicationId +
+                                     " collides with the hash id of an existing version";
+                        log.error(msg);
+                        throw new IntCloudException(msg);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Error while checking the hash ids of " + versions.size() + " versions of application id : " +
+                         applicationId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Method for storing the icon of an application. Icon content is stored once per content hash and shared by all
+     * the applications using the same icon. The icon is streamed to the database and its content hash is computed
+     * while the stream is consumed, so the icon is never buffered as a whole.
+     *
+     * @param dbConnection database connection
+     * @param inputStream icon content, null to clear the icon
+     * @param applicationId application id
+     * @throws IntCloudException
+     */
+    public void updateApplicationIcon(Connection dbConnection, InputStream inputStream, int applicationId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+
+            String previousIconHash = getIconHashOfApplication(dbConnection, applicationId);
+            String iconHash = null;
+
+            if (inputStream != null) {
+                iconHash = addIconContent(dbConnection, inputStream);
+                preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_ICON);
+                preparedStatement.setString(1, iconHash);
+                preparedStatement.setInt(2, applicationId);
+            } else {
+                preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_APPLICATION_ICON);
+                preparedStatement.setInt(1, applicationId);
+            }
+            preparedStatement.execute();
+
+            if (previousIconHash != null && !previousIconHash.equals(iconHash)) {
+                deleteUnreferencedIconContent(dbConnection, previousIconHash);
+            }
+
+        } catch (SQLException e) {
+            String msg =
+                    "Error occurred while updating application icon for application with id : " + applicationId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Store icon content unless content with the same hash is already stored. As the hash is only known once the
+     * stream is consumed, the content is inserted under a temporary key and the row is dropped again if it turns
+     * out to be a duplicate. Existing content is locked until the transaction ends, so that it cannot be deleted as
+     * unreferenced before the reference to it is committed.
+     *
+     * @param dbConnection database connection
+     * @param inputStream icon content
+     * @return content hash of the icon
+     * @throws SQLException
+     */
+    private String addIconContent(Connection dbConnection, InputStream inputStream) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        int contentId = -1;
+        DigestInputStream digestInputStream = new DigestInputStream(inputStream, Util.createContentDigest());
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_ICON_CONTENT,
+                                                              Statement.RETURN_GENERATED_KEYS);
+            preparedStatement.setString(1, PENDING_CONTENT_HASH_PREFIX + UUID.randomUUID().toString());
+            preparedStatement.setBlob(2, digestInputStream);
+            preparedStatement.execute();
+
+            resultSet = preparedStatement.getGeneratedKeys();
+            while (resultSet.next()) {
+                contentId = resultSet.getInt(1);
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+
+        String contentHash = Util.getContentHash(digestInputStream.getMessageDigest());
+
+        // The hash is claimed first, since locking a hash which is not stored yet would lock the gap in the unique
+        // index and make concurrent uploads of the same new content deadlock
+        if (!setIconContentHash(dbConnection, contentId, contentHash)) {
+            // The same content is already stored, hence refer to that copy unless it was deleted in the meantime
+            if (lockIconContent(dbConnection, contentHash) > 0) {
+                deleteIconContent(dbConnection, contentId);
+            } else if (!setIconContentHash(dbConnection, contentId, contentHash)) {
+                throw new SQLException("Could not store the icon content with hash : " + contentHash);
+            }
+        }
+        return contentHash;
+    }
+
+    private boolean setIconContentHash(Connection dbConnection, int contentId, String contentHash)
+            throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_ICON_CONTENT_HASH);
+            preparedStatement.setString(1, contentHash);
+            preparedStatement.setInt(2, contentId);
+            preparedStatement.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false;
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    private int lockIconContent(Connection dbConnection, String contentHash) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        int contentId = -1;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.LOCK_ICON_CONTENT);
+            preparedStatement.setString(1, contentHash);
+
+            resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                contentId = resultSet.getInt(SQLQueryConstants.ID);
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return contentId;
+    }
+
+    private void deleteIconContent(Connection dbConnection, int contentId) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_ICON_CONTENT);
+            preparedStatement.setInt(1, contentId);
+            preparedStatement.executeUpdate();
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Delete icon content which is no longer used by any application. The content is locked before the references
+     * are checked, so an upload of the same content either commits its reference first and keeps the content, or
+     * waits for the deletion and stores the content again.
+     *
+     * @param dbConnection database connection
+     * @param contentHash content hash of the icon
+     * @throws SQLException
+     */
+    private void deleteUnreferencedIconContent(Connection dbConnection, String contentHash) throws SQLException {
+
+        int contentId = lockIconContent(dbConnection, contentHash);
+        if (contentId <= 0) {
+            return;
+        }
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.LOCK_ICON_REFERENCE);
+            preparedStatement.setString(1, contentHash);
+            resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return;
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        deleteIconContent(dbConnection, contentId);
+    }
+
+    private String getIconHashOfApplication(Connection dbConnection, int applicationId) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        String iconHash = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_ICON_HASH_OF_APPLICATION_ID);
+            preparedStatement.setInt(1, applicationId);
+
+            resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                iconHash = resultSet.getString(SQLQueryConstants.ICON_HASH);
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return iconHash;
+    }
+
+    /**
+     * Method for getting the content hash of the icon of an application without reading the icon.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashId application hash id
+     * @return content hash or null if the application has no icon
+     * @throws IntCloudException
+     */
+    public String getApplicationIconHash(Connection dbConnection, String applicationHashId) throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        String iconHash = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_ICON_HASH);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
+
+            resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                iconHash = resultSet.getString(SQLQueryConstants.ICON_HASH);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving icon hash of application with hash id : " + applicationHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return iconHash;
+    }
+
+    /**
+     * Method for writing the icon with the given content hash to the given output stream. Cached icons are served
+     * from memory, other icons are streamed from the database.
+     *
+     * @param dbConnection database connection
+     * @param iconHash content hash of the icon
+     * @param outputStream stream to write the icon to
+     * @return true if the icon was written, false if there is no icon with the given hash
+     * @throws IntCloudException
+     */
+    public boolean writeIcon(Connection dbConnection, String iconHash, OutputStream outputStream)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        InputStream iconInputStream = null;
+        IconCache iconCache = IconCache.getInstance();
+
+        try {
+            byte[] content = iconCache.get(iconHash);
+            if (content != null) {
+                outputStream.write(content);
+                return true;
+            }
+
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_ICON_CONTENT);
+            preparedStatement.setString(1, iconHash);
+
+            resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next()) {
+                return false;
+            }
+
+            if (iconCache.isCacheable(resultSet.getInt(SQLQueryConstants.SIZE))) {
+                content = resultSet.getBytes(SQLQueryConstants.ICON);
+                iconCache.put(iconHash, content);
+                outputStream.write(content);
+            } else {
+                iconInputStream = resultSet.getBinaryStream(SQLQueryConstants.ICON);
+                IOUtils.copy(iconInputStream, outputStream);
+            }
+            return true;
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving icon with content hash : " + iconHash;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } catch (IOException e) {
+            String msg = "Error while writing icon with content hash : " + iconHash;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            IOUtils.closeQuietly(iconInputStream);
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Set the icons of the given applications from their icon hashes. Icons missing in the icon cache are fetched
+     * with a single query per chunk of {@link DBUtil#MAX_IN_LIST_SIZE} distinct hashes and added to the cache.
+     *
+     * @param dbConnection database connection
+     * @param applications applications with their icon hashes set
+     * @throws IntCloudException
+     */
+    public void populateIcons(Connection dbConnection, Collection<Application> applications)
+            throws IntCloudException {
+
+        IconCache iconCache = IconCache.getInstance();
+        Map<String, byte[]> contentsByHash = new HashMap<>();
+        List<String> uncachedHashes = new ArrayList<>();
+
+        for (Application application : applications) {
+            String iconHash = application.getIconHash();
+            if (iconHash == null || contentsByHash.containsKey(iconHash)) {
+                continue;
+            }
+            byte[] content = iconCache.get(iconHash);
+            contentsByHash.put(iconHash, content);
+            if (content == null) {
+                uncachedHashes.add(iconHash);
+            }
+        }
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            for (int from = 0; from < uncachedHashes.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+                List<String> chunk = uncachedHashes.subList(from, Math.min(uncachedHashes.size(),
+                                                                           from + DBUtil.MAX_IN_LIST_SIZE));
+                preparedStatement = dbConnection.prepareStatement(
+                        DBUtil.buildInListQuery(SQLQueryConstants.GET_ICON_CONTENTS_BY_HASHES, chunk.size()));
+                int index = 1;
+                for (String iconHash : chunk) {
+                    preparedStatement.setString(index++, iconHash);
+                }
+
+                resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    String iconHash = resultSet.getString(SQLQueryConstants.CONTENT_HASH);
+                    byte[] content = resultSet.getBytes(SQLQueryConstants.ICON);
+                    contentsByHash.put(iconHash, content);
+                    iconCache.put(iconHash, content);
+                }
+                DBUtil.closeResultSet(resultSet);
+                DBUtil.closePreparedStatement(preparedStatement);
+            }
+
+            for (Application application : applications) {
+                byte[] content = contentsByHash.get(application.getIconHash());
+                if (content != null) {
+                    application.setIcon(new SerialBlob(content));
+                }
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving icons with content hashes : " + uncachedHashes;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Method for updating the status of the given version.
      *
-     * @param dbConnection database connection
-     * @param version version object
-     * @param applicationId application id
-     * @param tenantId tenant id
+     * @param status status of the version
+     * @param versionHashId version hash id
      * @return
      * @throws IntCloudException
      */
-    public void addVersion(Connection dbConnection, Version version, int applicationId, int tenantId)
+    public boolean updateVersionStatus(Connection dbConnection, String status, String versionHashId)
             throws IntCloudException {
 
-
         PreparedStatement preparedStatement = null;
-        int versionId = 0;
-        ResultSet resultSet = null;
 
         try {
 
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_VERSION, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, version.getVersionName());
-            preparedStatement.setString(2, version.getHashId());
-            preparedStatement.setInt(3, applicationId);
-            preparedStatement.setInt(4, version.getRuntimeId());
-            preparedStatement.setInt(5, tenantId);
-
-            preparedStatement.execute();
-
-            resultSet = preparedStatement.getGeneratedKeys();
-            while (resultSet.next()){
-                versionId = resultSet.getInt(1);
-            }
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_STATUS);
+            preparedStatement.setString(1, status);
+            DBUtil.setHashId(preparedStatement, 2, versionHashId);
 
-//            List<Tag> tags = version.getTags();
-//            if (tags != null) {
-//                addTags(dbConnection, tags, version.getHashId(), tenantId);
-//            }
-//
-//            List<RuntimeProperty> runtimeProperties = version.getRuntimeProperties();
-//            if (runtimeProperties != null) {
-//                addRunTimeProperties(dbConnection, runtimeProperties, version.getHashId(), tenantId);
-//            }
+            preparedStatement.executeUpdate();
 
         } catch (SQLException e) {
-            String msg = "Error occurred while adding application version to database for application id : " + applicationId +
-                         " version : " + version.getVersionName() + " in tenant : " + tenantId;
+            String msg = "Error while updating application status : " + status + " for version with the hash id : " +
+                         versionHashId;
             log.error(msg, e);
             throw new IntCloudException(msg, e);
         } finally {
-            DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
         }
-
+        return true;
     }
 
-    public void updateApplicationIcon(Connection dbConnection, InputStream inputStream, int applicationId)
+    /**
+     * Method for changing the status of a version only if its current status is the expected status.
+     *
+     * @param dbConnection database connection
+     * @param versionHashId version hash id
+     * @param expectedStatus status the version must currently have
+     * @param newStatus status to set
+     * @return outcome of the update with the resulting status and row version
+     * @throws IntCloudException
+     */
+    public VersionStatusUpdate compareAndSetVersionStatus(Connection dbConnection, String versionHashId,
+                                                          VersionStatus expectedStatus, VersionStatus newStatus)
             throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
 
         try {
 
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_ICON);
-            preparedStatement.setBlob(1, inputStream);
-            preparedStatement.setInt(2, applicationId);
-            preparedStatement.execute();
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.COMPARE_AND_SET_VERSION_STATUS,
+                                                              Statement.RETURN_GENERATED_KEYS);
+            preparedStatement.setString(1, newStatus.getValue());
+            DBUtil.setHashId(preparedStatement, 2, versionHashId);
+            preparedStatement.setString(3, expectedStatus.getValue());
+
+            return executeStatusUpdate(dbConnection, preparedStatement, versionHashId, newStatus);
 
         } catch (SQLException e) {
-            String msg =
-                    "Error occurred while updating application icon for application with id : " + applicationId;
+            String msg = "Error while updating the status of version with hash id : " + versionHashId + " from : " +
+                         expectedStatus + " to : " + newStatus;
             log.error(msg, e);
             throw new IntCloudException(msg, e);
-
         } finally {
             DBUtil.closePreparedStatement(preparedStatement);
         }
     }
 
-
     /**
-     * Method for updating the status of the given version.
+     * Method for changing the status of a version only if its row version is the expected row version and its
+     * current status may move to the new status.
      *
-     * @param status status of the version
+     * @param dbConnection database connection
      * @param versionHashId version hash id
-     * @return
+     * @param expectedRowVersion row version the version must currently have
+     * @param newStatus status to set
+     * @return outcome of the update with the resulting status and row version
      * @throws IntCloudException
      */
-    public boolean updateVersionStatus(Connection dbConnection, String status, String versionHashId)
+    public VersionStatusUpdate compareAndSetVersionStatus(Connection dbConnection, String versionHashId,
+                                                          long expectedRowVersion, VersionStatus newStatus)
             throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
+        Set<VersionStatus> predecessors = newStatus.getPredecessors();
 
         try {
 
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_STATUS);
-            preparedStatement.setString(1, status);
-            preparedStatement.setString(2, versionHashId);
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.COMPARE_AND_SET_VERSION_STATUS_BY_ROW_VERSION,
+                                            predecessors.size()), Statement.RETURN_GENERATED_KEYS);
+            preparedStatement.setString(1, newStatus.getValue());
+            DBUtil.setHashId(preparedStatement, 2, versionHashId);
+            preparedStatement.setLong(3, expectedRowVersion);
+            int index = 4;
+            for (VersionStatus predecessor : predecessors) {
+                preparedStatement.setString(index++, predecessor.getValue());
+            }
 
-            preparedStatement.executeUpdate();
+            return executeStatusUpdate(dbConnection, preparedStatement, versionHashId, newStatus);
 
         } catch (SQLException e) {
-            String msg = "Error while updating application status : " + status + " for version with the hash id : " +
-                         versionHashId;
+            String msg = "Error while updating the status of version with hash id : " + versionHashId + " at row " +
+                         "version : " + expectedRowVersion + " to : " + newStatus;
             log.error(msg, e);
             throw new IntCloudException(msg, e);
         } finally {
             DBUtil.closePreparedStatement(preparedStatement);
         }
-        return true;
+    }
+
+    private VersionStatusUpdate executeStatusUpdate(Connection dbConnection, PreparedStatement preparedStatement,
+                                                    String versionHashId, VersionStatus newStatus)
+            throws SQLException {
+
+        if (preparedStatement.executeUpdate() == 0) {
+            return getVersionStatus(dbConnection, versionHashId);
+        }
+
+        ResultSet resultSet = null;
+        try {
+            resultSet = preparedStatement.getGeneratedKeys();
+            if (resultSet.next()) {
+                return new VersionStatusUpdate(true, newStatus.getValue(), resultSet.getLong(1));
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+        }
+        // Drivers that do not report LAST_INSERT_ID as a generated key
+        VersionStatusUpdate current = getVersionStatus(dbConnection, versionHashId);
+        return new VersionStatusUpdate(true, current.getStatus(), current.getRowVersion());
+    }
+
+    /**
+     * Read the current status of a version when a conditional update did not match.
+     */
+    private VersionStatusUpdate getVersionStatus(Connection dbConnection, String versionHashId) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_VERSION_STATUS);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
+            resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return new VersionStatusUpdate(false, resultSet.getString(SQLQueryConstants.STATUS),
+                                               resultSet.getLong(SQLQueryConstants.ROW_VERSION));
+            }
+            return new VersionStatusUpdate(false, null, -1);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
     }
 
     /**
@@ -305,8 +980,8 @@ public class ApplicationDAO {
                 application = new Application();
                 application.setApplicationName(resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
                 application.setApplicationType(resultSet.getString(SQLQueryConstants.APPLICATION_TYPE_NAME));
-                application.setHashId(resultSet.getString(SQLQueryConstants.HASH_ID));
-                application.setIcon(resultSet.getBlob(SQLQueryConstants.ICON));
+                application.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
+                application.setIconHash(resultSet.getString(SQLQueryConstants.ICON_HASH));
 
                 applications.add(application);
             }
@@ -319,6 +994,8 @@ public class ApplicationDAO {
             DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
         }
+
+        populateIcons(dbConnection, applications);
         return applications;
     }
 
@@ -333,7 +1010,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_VERSION_LIST_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             resultSet = preparedStatement.executeQuery();
 
@@ -362,12 +1039,12 @@ public class ApplicationDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_VERSION_HASH_IDS_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()){
-                hashIdList.add(resultSet.getString(SQLQueryConstants.HASH_ID));
+                hashIdList.add(DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID));
             }
 
         } catch (SQLException e) {
@@ -396,7 +1073,7 @@ public class ApplicationDAO {
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()){
-                hashIdList.add(resultSet.getString(SQLQueryConstants.HASH_ID));
+                hashIdList.add(DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID));
             }
 
         } catch (SQLException e) {
@@ -426,7 +1103,7 @@ public class ApplicationDAO {
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()){
-                hashIdList.add(resultSet.getString(SQLQueryConstants.HASH_ID));
+                hashIdList.add(DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID));
             }
 
         } catch (SQLException e) {
@@ -450,7 +1127,7 @@ public class ApplicationDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_CARBON_APPLICATION_NAME_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             resultSet = preparedStatement.executeQuery();
 
@@ -480,7 +1157,7 @@ public class ApplicationDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_TASK_CONFIGURATION_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             resultSet = preparedStatement.executeQuery();
 
@@ -509,7 +1186,7 @@ public class ApplicationDAO {
         try {
             preparedStatement = dbConnection.prepareStatement(
                     SQLQueryConstants.GET_VERSION_HASH_IDS_OF_APPLICATION_BY_VERSION_HASH_ID);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
 
             resultSet = preparedStatement.executeQuery();
             resultSet.last();
@@ -530,144 +1207,366 @@ public class ApplicationDAO {
         }
     }
 
-    public String getApplicationHashIdByVersionHashId(Connection dbConnection, String versionHashId)
+    public String getApplicationHashIdByVersionHashId(Connection dbConnection, String versionHashId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        String applicatinHashId = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_HASH_ID_BY_VERSION_HASH_ID);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
+
+            resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()){
+                applicatinHashId = DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while getting application hash id by version hash id : " + versionHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return applicatinHashId;
+    }
+
+
+    public String getApplicationNameByHashId(Connection dbConnection, String applicationHashId)
+            throws IntCloudException {
+        PreparedStatement preparedStatement;
+        ResultSet resultSet;
+        String applicationName = null;
+
+        try {
+
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_NAME_BY_HASH_ID);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
+
+            resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()){
+                applicationName = resultSet.getString(SQLQueryConstants.NAME);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while getting the application name of application with hash id : " + applicationHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+
+        return applicationName;
+    }
+
+
+    public String getApplicationHashIdByName(Connection dbConnection, String applicationName, int tenantId)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        String applicationHashId = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_HASH_ID_BY_NAME);
+            preparedStatement.setString(1, applicationName);
+            preparedStatement.setInt(2, tenantId);
+
+            resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()){
+                applicationHashId = DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving application hash id using application name : " + applicationName +
+                         " in tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+
+        return applicationHashId;
+    }
+
+    /**
+     * Method for getting application from database using application hash id.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashId application hash id
+     * @return
+     * @throws IntCloudException
+     */
+    public Application getApplicationByHashId(Connection dbConnection, String applicationHashId) throws IntCloudException {
+
+        List<Application> applications =
+                getApplicationsByHashIds(dbConnection, Collections.singletonList(applicationHashId));
+
+        return applications.isEmpty() ? new Application() : applications.get(0);
+    }
+
+    /**
+     * Method for getting a page of the applications of a tenant ordered by application id. Pages are addressed with
+     * the id of the last application of the previous page, so that the database seeks directly to the page instead
+     * of scanning over the skipped rows.
+     *
+     * @param dbConnection database connection
+     * @param tenantId tenant id
+     * @param afterApplicationId id of the last application of the previous page, 0 for the first page
+     * @param limit maximum number of applications to return
+     * @param projection optional parts of the applications to load
+     * @return applications keyed by application id in ascending id order
+     * @throws IntCloudException
+     */
+    public LinkedHashMap<Integer, Application> getApplicationsPage(Connection dbConnection, int tenantId,
+                                                                   int afterApplicationId, int limit,
+                                                                   Set<ApplicationProjection> projection)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        LinkedHashMap<Integer, Application> applicationsById = new LinkedHashMap<>();
+        boolean includeIcon = projection.contains(ApplicationProjection.ICON);
+
+        try {
+
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATIONS_PAGE);
+            preparedStatement.setInt(1, tenantId);
+            preparedStatement.setInt(2, afterApplicationId);
+            preparedStatement.setInt(3, limit);
+
+            resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+
+                Application application = new Application();
+                application.setApplicationName(resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
+                application.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
+                application.setDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                application.setDefaultVersion(resultSet.getString(SQLQueryConstants.DEFAULT_VERSION));
+                application.setCarbonApplicationName(resultSet.getString(SQLQueryConstants.CARBON_APPLICATION_NAME));
+                application.setApplicationType(resultSet.getString(SQLQueryConstants.APPLICATION_TYPE_NAME));
+                application.setIconHash(resultSet.getString(SQLQueryConstants.ICON_HASH));
+
+                applicationsById.put(resultSet.getInt(SQLQueryConstants.ID), application);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving application page after application id : " + afterApplicationId +
+                         " for tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+
+        if (!applicationsById.isEmpty()) {
+            if (includeIcon) {
+                populateIcons(dbConnection, applicationsById.values());
+            }
+            if (projection.contains(ApplicationProjection.VERSIONS)) {
+                populateVersions(dbConnection, applicationsById);
+            }
+            if (projection.contains(ApplicationProjection.APIS)) {
+                populateApis(dbConnection, applicationsById);
+            }
+        }
+
+        return applicationsById;
+    }
+
+    /**
+     * Method for getting fully populated applications, including their versions, APIs and icons, for the given hash
+     * ids. The applications, versions and APIs are each fetched with a single IN list query per chunk of
+     * {@link DBUtil#MAX_IN_LIST_SIZE} hash ids, instead of issuing queries per application.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashIds application hash ids
+     * @return applications in the order of the given hash ids, unknown hash ids are skipped
+     * @throws IntCloudException
+     */
+    public List<Application> getApplicationsByHashIds(Connection dbConnection, List<String> applicationHashIds)
+            throws IntCloudException {
+
+        Map<String, Application> applicationsByHashId = new HashMap<>();
+
+        for (int from = 0; from < applicationHashIds.size(); from += DBUtil.MAX_IN_LIST_SIZE) {
+            List<String> chunk = applicationHashIds.subList(from, Math.min(applicationHashIds.size(),
+                                                                           from + DBUtil.MAX_IN_LIST_SIZE));
+            Map<Integer, Application> applicationsById = getApplicationsOfHashIds(dbConnection, chunk);
+            if (!applicationsById.isEmpty()) {
+                populateIcons(dbConnection, applicationsById.values());
+                populateVersions(dbConnection, applicationsById);
+                populateApis(dbConnection, applicationsById);
+            }
+            for (Application application : applicationsById.values()) {
+                applicationsByHashId.put(application.getHashId(), application);
+            }
+        }
+
+        List<Application> applications = new ArrayList<>(applicationsByHashId.size());
+        for (String applicationHashId : applicationHashIds) {
+            Application application = applicationsByHashId.get(applicationHashId);
+            if (application != null) {
+                applications.add(application);
+            }
+        }
+        return applications;
+    }
+
+    private Map<Integer, Application> getApplicationsOfHashIds(Connection dbConnection, List<String> applicationHashIds)
             throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
-        String applicatinHashId = null;
+        Map<Integer, Application> applicationsById = new LinkedHashMap<>();
 
         try {
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_HASH_ID_BY_VERSION_HASH_ID);
-            preparedStatement.setString(1, versionHashId);
-
-            resultSet = preparedStatement.executeQuery();
 
-            while (resultSet.next()){
-                applicatinHashId = resultSet.getString(SQLQueryConstants.HASH_ID);
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.GET_APPLICATIONS_BY_HASH_IDS, applicationHashIds.size()));
+            int index = 1;
+            for (String applicationHashId : applicationHashIds) {
+                DBUtil.setHashId(preparedStatement, index++, applicationHashId);
             }
 
-        } catch (SQLException e) {
-            String msg = "Error while getting application hash id by version hash id : " + versionHashId;
-            log.error(msg, e);
-            throw new IntCloudException(msg, e);
-        } finally {
-            DBUtil.closeResultSet(resultSet);
-            DBUtil.closePreparedStatement(preparedStatement);
-        }
-        return applicatinHashId;
-    }
-
-
-    public String getApplicationNameByHashId(Connection dbConnection, String applicationHashId)
-            throws IntCloudException {
-        PreparedStatement preparedStatement;
-        ResultSet resultSet;
-        String applicationName = null;
-
-        try {
+            resultSet = preparedStatement.executeQuery();
 
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_NAME_BY_HASH_ID);
-            preparedStatement.setString(1, applicationHashId);
+            while (resultSet.next()) {
 
-            resultSet = preparedStatement.executeQuery();
+                Application application = new Application();
+                application.setApplicationName(resultSet.getString(SQLQueryConstants.NAME));
+                application.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
+                application.setDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                application.setDefaultVersion(resultSet.getString(SQLQueryConstants.DEFAULT_VERSION));
+                application.setApplicationType(resultSet.getString(SQLQueryConstants.APPLICATION_TYPE_NAME));
+                application.setIconHash(resultSet.getString(SQLQueryConstants.ICON_HASH));
+                application.setCarbonApplicationName(resultSet.getString(SQLQueryConstants.CARBON_APPLICATION_NAME));
 
-            while (resultSet.next()){
-                applicationName = resultSet.getString(SQLQueryConstants.NAME);
+                applicationsById.put(resultSet.getInt(SQLQueryConstants.ID), application);
             }
 
         } catch (SQLException e) {
-            String msg = "Error while getting the application name of application with hash id : " + applicationHashId;
+            String msg = "Error while retrieving application details for application hash ids : " + applicationHashIds;
             log.error(msg, e);
             throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
         }
 
-        return applicationName;
+        return applicationsById;
     }
 
-
-    public String getApplicationHashIdByName(Connection dbConnection, String applicationName, int tenantId)
+    /**
+     * Populate the versions of the given applications with a single query.
+     *
+     * @param dbConnection database connection
+     * @param applicationsById applications keyed by application id
+     * @throws IntCloudException
+     */
+    private void populateVersions(Connection dbConnection, Map<Integer, Application> applicationsById)
             throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
-        String applicationHashId = null;
+
+        for (Application application : applicationsById.values()) {
+            if (application.getVersions() == null) {
+                application.setVersions(new ArrayList<Version>());
+            }
+        }
 
         try {
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_HASH_ID_BY_NAME);
-            preparedStatement.setString(1, applicationName);
-            preparedStatement.setInt(2, tenantId);
+
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.GET_VERSIONS_OF_APPLICATIONS, applicationsById.size()));
+            int index = 1;
+            for (Integer applicationId : applicationsById.keySet()) {
+                preparedStatement.setInt(index++, applicationId);
+            }
 
             resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
 
-            while (resultSet.next()){
-                applicationHashId = resultSet.getString(SQLQueryConstants.HASH_ID);
+                Version version = new Version();
+                version.setVersionName(resultSet.getString(SQLQueryConstants.NAME));
+                version.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
+                version.setRuntimeName(resultSet.getString(SQLQueryConstants.RUNTIME_NAME));
+                version.setRuntimeId(resultSet.getInt(SQLQueryConstants.RUNTIME_ID));
+                version.setStatus(resultSet.getString(SQLQueryConstants.STATUS));
+                version.setRowVersion(resultSet.getLong(SQLQueryConstants.ROW_VERSION));
+
+                Application application = applicationsById.get(resultSet.getInt(SQLQueryConstants.APPLICATION_ID));
+                application.getVersions().add(version);
             }
 
         } catch (SQLException e) {
-            String msg = "Error while retrieving application hash id using application name : " + applicationName +
-                         " in tenant : " + tenantId;
+            String msg = "Error while getting versions of applications with ids : " + applicationsById.keySet();
             log.error(msg, e);
             throw new IntCloudException(msg, e);
         } finally {
             DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
         }
-
-        return applicationHashId;
     }
 
     /**
-     * Method for getting application from database using application hash id.
+     * Populate the APIs of the given applications with a single query.
      *
      * @param dbConnection database connection
-     * @param applicationHashId application hash id
-     * @return
+     * @param applicationsById applications keyed by application id
      * @throws IntCloudException
      */
-    public Application getApplicationByHashId(Connection dbConnection, String applicationHashId) throws IntCloudException {
+    private void populateApis(Connection dbConnection, Map<Integer, Application> applicationsById)
+            throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
-        int applicationId = 0;
-        Application application = new Application();
         ResultSet resultSet = null;
 
-        try {
+        for (Application application : applicationsById.values()) {
+            if (application.getApiList() == null) {
+                application.setApiList(new ArrayList<Api>());
+            }
+        }
 
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_BY_HASH_ID);
+        try {
 
-            preparedStatement.setString(1, applicationHashId);
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.GET_APIS_OF_APPLICATIONS, applicationsById.size()));
+            int index = 1;
+            for (Integer applicationId : applicationsById.keySet()) {
+                preparedStatement.setInt(index++, applicationId);
+            }
 
             resultSet = preparedStatement.executeQuery();
-
             while (resultSet.next()) {
 
-                application.setApplicationName(resultSet.getString(SQLQueryConstants.NAME));
-                application.setHashId(applicationHashId);
-                application.setDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
-                application.setDefaultVersion(resultSet.getString(SQLQueryConstants.DEFAULT_VERSION));
-                application.setApplicationType(resultSet.getString(SQLQueryConstants.APPLICATION_TYPE_NAME));
-                application.setIcon(resultSet.getBlob(SQLQueryConstants.ICON));
-                application.setCarbonApplicationName(resultSet.getString(SQLQueryConstants.CARBON_APPLICATION_NAME));
-                application.setVersions(getAllVersionsOfApplication(dbConnection, applicationHashId));
-                applicationId = resultSet.getInt(SQLQueryConstants.ID);
+                Api api = new Api();
+                api.setId(resultSet.getInt(SQLQueryConstants.ID));
+                api.setName(resultSet.getString(SQLQueryConstants.NAME));
+                api.setContext(resultSet.getString(SQLQueryConstants.CONTEXT));
+                api.setUrl(resultSet.getString(SQLQueryConstants.URL));
+                api.setHttpMethods(resultSet.getString(SQLQueryConstants.HTTP_METHODS));
 
+                Application application = applicationsById.get(resultSet.getInt(SQLQueryConstants.APPLICATION_ID));
+                application.getApiList().add(api);
             }
 
         } catch (SQLException e) {
-            String msg =
-                    "Error while retrieving application detail for application with hash id : " + applicationHashId;
+            String msg = "Error while getting apis of applications with ids : " + applicationsById.keySet();
             log.error(msg, e);
             throw new IntCloudException(msg, e);
         } finally {
             DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
         }
-
-        List<Api> apiList = getAllApisOfApplication(dbConnection, applicationId);
-        application.setApiList(apiList);
-
-        return application;
     }
 
     /**
@@ -729,17 +1628,18 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_ALL_VERSIONS_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             resultSet = preparedStatement.executeQuery();
             while (resultSet.next()){
 
                 Version version = new Version();
                 version.setVersionName(resultSet.getString(SQLQueryConstants.NAME));
-                version.setHashId(resultSet.getString(SQLQueryConstants.HASH_ID));
+                version.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
                 version.setRuntimeName(resultSet.getString(SQLQueryConstants.RUNTIME_NAME));
                 version.setRuntimeId(resultSet.getInt(SQLQueryConstants.RUNTIME_ID));
                 version.setStatus(resultSet.getString(SQLQueryConstants.STATUS));
+                version.setRowVersion(resultSet.getLong(SQLQueryConstants.ROW_VERSION));
 //                version.setTags(getAllTagsOfVersion(dbConnection, version.getHashId()));
 //                version.setRuntimeProperties(getAllRuntimePropertiesOfVersion(dbConnection, version.getHashId()));
 
@@ -767,6 +1667,18 @@ public class ApplicationDAO {
      * @throws IntCloudException
      */
     public int getApplicationId(Connection dbConnection, String applicationHashId) throws IntCloudException {
+        return getApplicationId(dbConnection, Util.parseHashId(applicationHashId));
+    }
+
+    /**
+     * Method for getting the id of an application with the given numeric hash id.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashId application hash id
+     * @return
+     * @throws IntCloudException
+     */
+    public int getApplicationId(Connection dbConnection, long applicationHashId) throws IntCloudException {
 
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
@@ -775,7 +1687,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_ID);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
@@ -804,6 +1716,18 @@ public class ApplicationDAO {
      * @throws IntCloudException
      */
     public int getVersionId(Connection dbConnection, String hashId) throws IntCloudException {
+        return getVersionId(dbConnection, Util.parseHashId(hashId));
+    }
+
+    /**
+     * Method for getting the version id with the given numeric hash id.
+     *
+     * @param dbConnection
+     * @param hashId
+     * @return
+     * @throws IntCloudException
+     */
+    public int getVersionId(Connection dbConnection, long hashId) throws IntCloudException {
 
         PreparedStatement preparedStatement;
         int versionId = 0;
@@ -811,7 +1735,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_VERSION_ID);
-            preparedStatement.setString(1, hashId);
+            DBUtil.setHashId(preparedStatement, 1, hashId);
 
             ResultSet resultSet = preparedStatement.executeQuery();
             while (resultSet.next()){
@@ -992,7 +1916,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_RUNTIME_PROPERTY);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
             preparedStatement.setString(2, key);
 
             deleted = preparedStatement.execute();
@@ -1016,7 +1940,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_TAG);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
             preparedStatement.setString(2, key);
 
             deleted = preparedStatement.execute();
@@ -1036,7 +1960,7 @@ public class ApplicationDAO {
      * Delete an application.
      *
      * @param applicationHashId application hash id.
-     * @return
+     * @return true if the application existed and was deleted
      * @throws IntCloudException
      */
     public boolean deleteApplication(Connection dbConnection, String applicationHashId)
@@ -1045,10 +1969,17 @@ public class ApplicationDAO {
         boolean deleted = false;
 
         try {
+            String iconHash = getApplicationIconHash(dbConnection, applicationHashId);
+
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
-            deleted = preparedStatement.execute();
+            deleted = preparedStatement.executeUpdate() > 0;
+
+            // The icon reference is removed along with the application, so drop the content if it is not shared
+            if (iconHash != null) {
+                deleteUnreferencedIconContent(dbConnection, iconHash);
+            }
         } catch (SQLException e) {
             String msg = "Error while executing the application deletion sql query with applicationHashId : " + applicationHashId;
             log.error(msg, e);
@@ -1064,9 +1995,9 @@ public class ApplicationDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_VERSION);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
 
-            return preparedStatement.execute();
+            return preparedStatement.executeUpdate() > 0;
         } catch (SQLException e) {
             String msg = "Error while executing the version deletion sql query with versionHashId : " + versionHashId;
             log.error(msg, e);
@@ -1090,7 +2021,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_VERSIONS_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             deleted = preparedStatement.execute();
 
@@ -1104,6 +2035,211 @@ public class ApplicationDAO {
         return deleted;
     }
 
+    /**
+     * Method for getting the application and tenant of versions.
+     *
+     * @param dbConnection database connection
+     * @param versionHashIds at most {@link DBUtil#MAX_IN_LIST_SIZE} version hash ids
+     * @return owners of the existing versions
+     * @throws IntCloudException
+     */
+    public List<VersionOwner> getVersionOwners(Connection dbConnection, List<String> versionHashIds)
+            throws IntCloudException {
+
+        try {
+            return getVersionOwners(dbConnection, SQLQueryConstants.GET_VERSION_OWNERS, versionHashIds);
+        } catch (SQLException e) {
+            String msg = "Error while getting the owners of versions with hash ids : " + versionHashIds;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+    }
+
+    /**
+     * Method for getting the versions of applications along with their tenant. An application without versions is
+     * returned as a single owner with no version.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashIds at most {@link DBUtil#MAX_IN_LIST_SIZE} application hash ids
+     * @return versions of the existing applications
+     * @throws IntCloudException
+     */
+    public List<VersionOwner> getVersionOwnersOfApplications(Connection dbConnection, List<String> applicationHashIds)
+            throws IntCloudException {
+
+        try {
+            return getVersionOwners(dbConnection, SQLQueryConstants.GET_VERSION_OWNERS_OF_APPLICATIONS,
+                                    applicationHashIds);
+        } catch (SQLException e) {
+            String msg = "Error while getting the versions of applications with hash ids : " + applicationHashIds;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+    }
+
+    private List<VersionOwner> getVersionOwners(Connection dbConnection, String queryTemplate, List<String> hashIds)
+            throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        List<VersionOwner> owners = new ArrayList<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(DBUtil.buildInListQuery(queryTemplate, hashIds.size()));
+            int index = 1;
+            for (String hashId : hashIds) {
+                DBUtil.setHashId(preparedStatement, index++, hashId);
+            }
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                int versionId = resultSet.getInt(SQLQueryConstants.ID);
+                String versionHashId = versionId != 0 ? DBUtil.getHashId(resultSet, SQLQueryConstants.HASH_ID) : null;
+                owners.add(new VersionOwner(versionId, versionHashId,
+                                            DBUtil.getHashId(resultSet, SQLQueryConstants.APPLICATION_HASH_ID),
+                                            resultSet.getInt(SQLQueryConstants.TENANT_ID)));
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return owners;
+    }
+
+    /**
+     * Method for setting the same status on several versions with one statement.
+     *
+     * @param dbConnection database connection
+     * @param status status to set
+     * @param versionHashIds at most {@link DBUtil#MAX_IN_LIST_SIZE} version hash ids
+     * @return number of updated versions
+     * @throws IntCloudException
+     */
+    public int updateVersionStatuses(Connection dbConnection, String status, List<String> versionHashIds)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.UPDATE_VERSION_STATUSES, versionHashIds.size()));
+            preparedStatement.setString(1, status);
+            int index = 2;
+            for (String versionHashId : versionHashIds) {
+                DBUtil.setHashId(preparedStatement, index++, versionHashId);
+            }
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Error while updating application status : " + status + " for versions with hash ids : " +
+                         versionHashIds;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Method for deleting the events of versions, and the versions themselves if requested. The versions of a deleted
+     * application are removed along with it, so only their events are deleted when deleting applications.
+     *
+     * @param dbConnection database connection
+     * @param versionIds at most {@link DBUtil#MAX_IN_LIST_SIZE} version ids
+     * @param deleteVersions whether to delete the version rows
+     * @throws IntCloudException
+     */
+    public void deleteVersionsById(Connection dbConnection, List<Integer> versionIds, boolean deleteVersions)
+            throws IntCloudException {
+
+        if (versionIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            executeInListUpdate(dbConnection, SQLQueryConstants.DELETE_LATEST_EVENTS_OF_VERSIONS, versionIds);
+            executeInListUpdate(dbConnection, SQLQueryConstants.DELETE_EVENTS_OF_VERSIONS, versionIds);
+            if (deleteVersions) {
+                executeInListUpdate(dbConnection, SQLQueryConstants.DELETE_VERSIONS_BY_IDS, versionIds);
+            }
+        } catch (SQLException e) {
+            String msg = "Error while deleting versions with ids : " + versionIds;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+    }
+
+    /**
+     * Method for deleting several applications with one statement. Icon content no longer used by any application
+     * is deleted as well.
+     *
+     * @param dbConnection database connection
+     * @param applicationHashIds at most {@link DBUtil#MAX_IN_LIST_SIZE} application hash ids
+     * @return number of deleted applications
+     * @throws IntCloudException
+     */
+    public int deleteApplications(Connection dbConnection, List<String> applicationHashIds)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        List<String> iconHashes = new ArrayList<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.GET_ICON_HASHES_OF_APPLICATIONS,
+                                            applicationHashIds.size()));
+            int index = 1;
+            for (String applicationHashId : applicationHashIds) {
+                DBUtil.setHashId(preparedStatement, index++, applicationHashId);
+            }
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                iconHashes.add(resultSet.getString(SQLQueryConstants.ICON_HASH));
+            }
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            resultSet = null;
+
+            preparedStatement = dbConnection.prepareStatement(
+                    DBUtil.buildInListQuery(SQLQueryConstants.DELETE_APPLICATIONS, applicationHashIds.size()));
+            index = 1;
+            for (String applicationHashId : applicationHashIds) {
+                DBUtil.setHashId(preparedStatement, index++, applicationHashId);
+            }
+            int deleted = preparedStatement.executeUpdate();
+
+            // The icon references are removed along with the applications, so drop the content if it is not shared
+            for (String iconHash : iconHashes) {
+                deleteUnreferencedIconContent(dbConnection, iconHash);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            String msg = "Error while deleting applications with hash ids : " + applicationHashIds;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    private int executeInListUpdate(Connection dbConnection, String queryTemplate, List<Integer> ids)
+            throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(DBUtil.buildInListQuery(queryTemplate, ids.size()));
+            int index = 1;
+            for (Integer id : ids) {
+                preparedStatement.setInt(index++, id);
+            }
+            return preparedStatement.executeUpdate();
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
     public void deleteAllDeploymentOfApplication(Connection dbConnection, String applicationHashId)
             throws IntCloudException {
 
@@ -1111,7 +2247,7 @@ public class ApplicationDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_ALL_DEPLOYMENT_OF_APPLICATION);
-            preparedStatement.setString(1, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 1, applicationHashId);
 
             preparedStatement.execute();
 
@@ -1133,7 +2269,7 @@ public class ApplicationDAO {
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_DEPLOYMENT);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
 
             preparedStatement.execute();
 
@@ -1186,7 +2322,7 @@ public class ApplicationDAO {
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_CONTAINER_SERVICE_PROXY);
             preparedStatement.setString(1, host_url);
-            preparedStatement.setString(2, versionHashId);
+            DBUtil.setHashId(preparedStatement, 2, versionHashId);
             success = preparedStatement.execute();
         } catch (SQLException e) {
             String msg =
@@ -1215,7 +2351,7 @@ public class ApplicationDAO {
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_DEFAULT_VERSION);
             preparedStatement.setString(1, defaultVersionName);
-            preparedStatement.setString(2, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 2, applicationHashId);
             updated = preparedStatement.execute();
         } catch (SQLException e) {
             String message = "Error while updating default version with application hash id : " + applicationHashId;
@@ -1242,7 +2378,7 @@ public class ApplicationDAO {
             ResultSet resultSet = preparedStatement.executeQuery();
             while(resultSet.next()){
                 Version version = new Version();
-                version.setHashId(resultSet.getString(SQLQueryConstants.HASH_ID));
+                version.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
                 version.setCreatedTimestamp(resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP));
                 version.setTenantId(resultSet.getInt(SQLQueryConstants.TENANT_ID));
 
@@ -1290,7 +2426,7 @@ public class ApplicationDAO {
 		try {
 			preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_WHITE_LIST_APPLICATION_VERSION);
 			preparedStatement.setBoolean(1, true);
-			preparedStatement.setString(2, versionHashId);
+			DBUtil.setHashId(preparedStatement, 2, versionHashId);
 			preparedStatement.execute();
 		} catch (SQLException e) {
 			String msg = "White listing failed for version hash : " + versionHashId;
@@ -1328,7 +2464,7 @@ public class ApplicationDAO {
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_PARAM_CONFIGURATION);
             preparedStatement.setString(1, paramConfiguration);
-            preparedStatement.setString(2, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 2, applicationHashId);
             updated = preparedStatement.execute();
         } catch (SQLException e) {
             String message =
@@ -1350,7 +2486,7 @@ public class ApplicationDAO {
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPDATE_APPLICATION_TASK_CONFIGURATION);
             preparedStatement.setString(1, taskConfiguration);
-            preparedStatement.setString(2, applicationHashId);
+            DBUtil.setHashId(preparedStatement, 2, applicationHashId);
             updated = preparedStatement.execute();
         } catch (SQLException e) {
             String message =
@@ -22,10 +22,14 @@ import org.wso2.intcloud.common.IntCloudException;
 import org.wso2.intcloud.core.DBUtil;
 import org.wso2.intcloud.core.SQLQueryConstants;
 import org.wso2.intcloud.core.dto.Event;
+import org.wso2.intcloud.core.dto.VersionEvent;
 
 import java.sql.*;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO class for persisting or retrieving application creation related events.
@@ -36,7 +40,8 @@ public class EventsDAO {
     private static final Log log = LogFactory.getLog(EventsDAO.class);
 
     /**
-     * Method for adding application creation events to database.
+     * Method for adding application creation events to database. The latest event projection is updated in the
+     * same transaction and the generated id is set on the given event.
      *
      * @param versionHashId version hash id
      * @param event application creation event
@@ -47,31 +52,130 @@ public class EventsDAO {
 
         Connection dbConnection = DBUtil.getDBConnection();
         PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
 
         try {
-            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_APP_CREATION_EVENT);
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_APP_CREATION_EVENT,
+                                                              Statement.RETURN_GENERATED_KEYS);
             preparedStatement.setString(1, event.getEventName());
             preparedStatement.setString(2, event.getEventStatus());
-            preparedStatement.setString(3, versionHashId);
+            DBUtil.setHashId(preparedStatement, 3, versionHashId);
             preparedStatement.setTimestamp(4, event.getTimestamp());
             preparedStatement.setString(5, event.getEventDescription());
             preparedStatement.setInt(6, tenantId);
 
-            boolean result = preparedStatement.execute();
+            preparedStatement.execute();
+
+            resultSet = preparedStatement.getGeneratedKeys();
+            List<Integer> eventIds = getGeneratedIds(resultSet);
+            updateLatestEvents(dbConnection, eventIds);
             dbConnection.commit();
+            if (!eventIds.isEmpty()) {
+                event.setId(eventIds.get(0));
+            }
         } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
             String msg = "Error occurred while adding app creation event: " + event.getEventName() + " status: " + event
                     .getEventStatus() + " timestamp: " + event.getTimestamp();
             log.error(msg, e);
             throw new IntCloudException(msg, e);
 
         } finally {
+            DBUtil.closeResultSet(resultSet);
             DBUtil.closePreparedStatement(preparedStatement);
             DBUtil.closeConnection(dbConnection);
         }
         return true;
     }
 
+    /**
+     * Method for adding several application creation events to database in one JDBC batch and one transaction. The
+     * generated ids are set on the given events.
+     *
+     * @param versionEvents events along with their versions and tenants
+     * @throws IntCloudException
+     */
+    public void addAppCreationEvents(List<VersionEvent> versionEvents) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_APP_CREATION_EVENT,
+                                                              Statement.RETURN_GENERATED_KEYS);
+            for (VersionEvent versionEvent : versionEvents) {
+                Event event = versionEvent.getEvent();
+                preparedStatement.setString(1, event.getEventName());
+                preparedStatement.setString(2, event.getEventStatus());
+                DBUtil.setHashId(preparedStatement, 3, versionEvent.getVersionHashId());
+                preparedStatement.setTimestamp(4, event.getTimestamp());
+                preparedStatement.setString(5, event.getEventDescription());
+                preparedStatement.setInt(6, versionEvent.getTenantId());
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+
+            resultSet = preparedStatement.getGeneratedKeys();
+            List<Integer> eventIds = getGeneratedIds(resultSet);
+            updateLatestEvents(dbConnection, eventIds);
+            dbConnection.commit();
+
+            // Generated keys are returned in the order the rows were added to the batch
+            for (int i = 0; i < eventIds.size() && i < versionEvents.size(); i++) {
+                versionEvents.get(i).getEvent().setId(eventIds.get(i));
+            }
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error occurred while adding a batch of " + versionEvents.size() + " app creation events";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Update the latest event per version and event name with the given events. Events older than the latest event
+     * already recorded for a version and event name are ignored, so events stored out of order cannot replace newer
+     * ones. Events whose version does not exist are not recorded.
+     *
+     * @param dbConnection database connection
+     * @param eventIds ids of the stored events
+     * @throws SQLException
+     */
+    private void updateLatestEvents(Connection dbConnection, List<Integer> eventIds) throws SQLException {
+
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.UPSERT_LATEST_APP_CREATION_EVENT);
+            for (Integer eventId : eventIds) {
+                preparedStatement.setInt(1, eventId);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    private List<Integer> getGeneratedIds(ResultSet resultSet) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        while (resultSet.next()) {
+            ids.add(resultSet.getInt(1));
+        }
+        return ids;
+    }
+
     /**
      * Delete all the events related to a particular app version.
      * @param versionHashId version hash id
@@ -84,8 +188,13 @@ public class EventsDAO {
         PreparedStatement preparedStatement = null;
 
         try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_LATEST_APP_VERSION_EVENTS);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
+            preparedStatement.executeUpdate();
+            preparedStatement.close();
+
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_ALL_APP_VERSION_EVENTS);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
 
             int result = preparedStatement.executeUpdate();
             dbConnection.commit();
@@ -104,7 +213,7 @@ public class EventsDAO {
 
 
     /**
-     *  Method to get event stream of an application.
+     *  Method to get event stream of an application, which holds the latest event of each event name.
      *
      * @param versionHashId application id
      * @return
@@ -119,12 +228,13 @@ public class EventsDAO {
 
         try {
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_ALL_EVENTS_OF_APPLICATION);
-            preparedStatement.setString(1, versionHashId);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
 
             ResultSet resultSet = preparedStatement.executeQuery();
             Event event;
             while (resultSet.next()) {
                 event = new Event();
+                event.setId(resultSet.getInt(SQLQueryConstants.ID));
                 event.setEventName(resultSet.getString(SQLQueryConstants.NAME));
                 event.setEventStatus(resultSet.getString(SQLQueryConstants.STATUS));
                 event.setTimestamp(resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP));
@@ -143,4 +253,279 @@ public class EventsDAO {
         }
         return eventList;
     }
+
+    /**
+     * Method to get the id of the last event stored for an application version.
+     *
+     * @param versionHashId version hash id
+     * @return event id or 0 if no event is stored for the version
+     * @throws IntCloudException
+     */
+    public int getLatestEventId(String versionHashId) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_LATEST_EVENT_ID_OF_VERSION);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
+            resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        } catch (SQLException e) {
+            String msg = "Error while retrieving the latest event id of version with hash id : " + versionHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Method to get the events of an application version stored after the given event, in the order they were
+     * stored.
+     *
+     * @param versionHashId version hash id
+     * @param lastEventId id of the last event already known to the caller
+     * @return
+     * @throws IntCloudException
+     */
+    public List<Event> getEventsOfApplicationAfter(String versionHashId, int lastEventId) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        List<Event> eventList = new ArrayList<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_EVENTS_OF_APPLICATION_AFTER_ID);
+            DBUtil.setHashId(preparedStatement, 1, versionHashId);
+            preparedStatement.setInt(2, lastEventId);
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                Event event = new Event();
+                event.setId(resultSet.getInt(SQLQueryConstants.ID));
+                event.setEventName(resultSet.getString(SQLQueryConstants.NAME));
+                event.setEventStatus(resultSet.getString(SQLQueryConstants.STATUS));
+                event.setTimestamp(resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP));
+                event.setEventDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
+
+                eventList.add(event);
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving events after event id : " + lastEventId + " for application version " +
+                         "with hash id : " + versionHashId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+        return eventList;
+    }
+
+    /**
+     * Delete up to the given number of events stored before the given time.
+     *
+     * @param dbConnection database connection
+     * @param before events stored before this time are deleted
+     * @param limit maximum number of events to delete
+     * @return number of deleted events
+     * @throws IntCloudException
+     */
+    public int deleteEventsBefore(Connection dbConnection, Timestamp before, int limit) throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_EVENTS_BEFORE);
+            preparedStatement.setTimestamp(1, before);
+            preparedStatement.setInt(2, limit);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Error while deleting events stored before : " + before;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Get the version id and event name pairs which have more than the given number of events, in ascending order
+     * after the given pair.
+     *
+     * @param dbConnection database connection
+     * @param maxEvents number of events a pair may have without being returned
+     * @param afterVersionId version id of the last pair of the previous call, 0 for the first call
+     * @param afterName event name of the last pair of the previous call, empty for the first call
+     * @param limit maximum number of pairs to return
+     * @return version id and event name pairs
+     * @throws IntCloudException
+     */
+    public List<Map.Entry<Integer, String>> getEventGroupsToCompact(Connection dbConnection, int maxEvents,
+                                                                   int afterVersionId, String afterName, int limit)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        List<Map.Entry<Integer, String>> eventGroups = new ArrayList<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_EVENT_GROUPS_TO_COMPACT);
+            preparedStatement.setInt(1, afterVersionId);
+            preparedStatement.setInt(2, afterVersionId);
+            preparedStatement.setString(3, afterName);
+            preparedStatement.setInt(4, maxEvents);
+            preparedStatement.setInt(5, limit);
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                eventGroups.add(new AbstractMap.SimpleImmutableEntry<>(resultSet.getInt(SQLQueryConstants.VERSION_ID),
+                                                                       resultSet.getString(SQLQueryConstants.NAME)));
+            }
+        } catch (SQLException e) {
+            String msg = "Error while retrieving events to compact after version id : " + afterVersionId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return eventGroups;
+    }
+
+    /**
+     * Get the id of the newest event of a version and event name beyond the given number of newest events.
+     *
+     * @param dbConnection database connection
+     * @param versionId version id
+     * @param name event name
+     * @param keep number of newest events to skip
+     * @return event id or -1 if there are no more events than the number to skip
+     * @throws IntCloudException
+     */
+    public int getEventCompactionBoundary(Connection dbConnection, int versionId, String name, int keep)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_EVENT_COMPACTION_BOUNDARY);
+            preparedStatement.setInt(1, versionId);
+            preparedStatement.setString(2, name);
+            preparedStatement.setInt(3, keep);
+
+            resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(SQLQueryConstants.ID) : -1;
+        } catch (SQLException e) {
+            String msg = "Error while retrieving the compaction boundary of event : " + name + " of version id : " +
+                         versionId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Delete up to the given number of events of a version and event name with ids up to the given id.
+     *
+     * @param dbConnection database connection
+     * @param versionId version id
+     * @param name event name
+     * @param maxEventId largest id to delete
+     * @param limit maximum number of events to delete
+     * @return number of deleted events
+     * @throws IntCloudException
+     */
+    public int deleteEventsUpTo(Connection dbConnection, int versionId, String name, int maxEventId, int limit)
+            throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.DELETE_EVENTS_UP_TO);
+            preparedStatement.setInt(1, versionId);
+            preparedStatement.setString(2, name);
+            preparedStatement.setInt(3, maxEventId);
+            preparedStatement.setInt(4, limit);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Error while deleting the history of event : " + name + " of version id : " + versionId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Get the partitions of the event table.
+     *
+     * @param dbConnection database connection
+     * @return upper bounds of the partitions keyed by partition name in partition order, empty if the table is not
+     * partitioned
+     * @throws IntCloudException
+     */
+    public LinkedHashMap<String, String> getEventPartitions(Connection dbConnection) throws IntCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        LinkedHashMap<String, String> partitions = new LinkedHashMap<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_EVENT_PARTITIONS);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                partitions.put(resultSet.getString(SQLQueryConstants.PARTITION_NAME),
+                               resultSet.getString(SQLQueryConstants.PARTITION_DESCRIPTION));
+            }
+        } catch (SQLException e) {
+            String msg = "Error while retrieving the partitions of the event table";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return partitions;
+    }
+
+    /**
+     * Run a partition maintenance statement on the event table.
+     *
+     * @param dbConnection database connection
+     * @param statement partition DDL statement
+     * @throws IntCloudException
+     */
+    public void alterEventPartitions(Connection dbConnection, String statement) throws IntCloudException {
+
+        Statement ddlStatement = null;
+
+        try {
+            ddlStatement = dbConnection.createStatement();
+            ddlStatement.execute(statement);
+        } catch (SQLException e) {
+            String msg = "Error while altering the partitions of the event table with statement : " + statement;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            if (ddlStatement != null) {
+                try {
+                    ddlStatement.close();
+                } catch (SQLException e) {
+                    log.error("Error while closing statement", e);
+                }
+            }
+        }
+    }
 }
@@ -24,6 +24,18 @@ public class Api {
     private String context;
     private String url;
 
+    public Api() {
+
+    }
+
+    public Api(Api api) {
+        this.id = api.id;
+        this.name = api.name;
+        this.httpMethods = api.httpMethods;
+        this.context = api.context;
+        this.url = api.url;
+    }
+
     public String getHttpMethods() {
         return httpMethods;
     }
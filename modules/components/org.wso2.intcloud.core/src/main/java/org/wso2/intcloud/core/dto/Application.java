@@ -17,18 +17,21 @@
 
 package org.wso2.intcloud.core.dto;
 
+import org.wso2.intcloud.core.Util;
 import java.sql.Blob;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Application {
 
     private String applicationName;
-    private String hashId;
+    private long hashId = Util.NO_HASH_ID;
     private String description;
     private String defaultVersion;
     private String applicationType;
     private String carbonApplicationName;
     private Blob icon;
+    private String iconHash;
     private List<Version> versions;
     private List<Api> apiList;
     private String paramConfiguration;
@@ -39,6 +42,37 @@ public class Application {
 
     }
 
+    /**
+     * Create a copy of the given application whose versions and apis can be modified without affecting the original.
+     * The icon is shared with the original.
+     *
+     * @param application application to copy
+     */
+    public Application(Application application) {
+        this.applicationName = application.applicationName;
+        this.hashId = application.hashId;
+        this.description = application.description;
+        this.defaultVersion = application.defaultVersion;
+        this.applicationType = application.applicationType;
+        this.carbonApplicationName = application.carbonApplicationName;
+        this.icon = application.icon;
+        this.iconHash = application.iconHash;
+        this.paramConfiguration = application.paramConfiguration;
+        this.taskConfiguration = application.taskConfiguration;
+        if (application.versions != null) {
+            this.versions = new ArrayList<>(application.versions.size());
+            for (Version version : application.versions) {
+                this.versions.add(new Version(version));
+            }
+        }
+        if (application.apiList != null) {
+            this.apiList = new ArrayList<>(application.apiList.size());
+            for (Api api : application.apiList) {
+                this.apiList.add(new Api(api));
+            }
+        }
+    }
+
     public String getApplicationName() {
         return applicationName;
     }
@@ -48,10 +82,18 @@ public class Application {
     }
 
     public String getHashId() {
-        return hashId;
+        return Util.toHashIdString(hashId);
     }
 
     public void setHashId(String hashId) {
+        this.hashId = Util.parseHashId(hashId);
+    }
+
+    public long getHashIdValue() {
+        return hashId;
+    }
+
+    public void setHashIdValue(long hashId) {
         this.hashId = hashId;
     }
 
@@ -95,6 +137,17 @@ public class Application {
         return icon;
     }
 
+    /**
+     * Content hash of the icon which can be used as the entity tag of the icon.
+     */
+    public String getIconHash() {
+        return iconHash;
+    }
+
+    public void setIconHash(String iconHash) {
+        this.iconHash = iconHash;
+    }
+
     public List<Version> getVersions() {
         return versions;
     }
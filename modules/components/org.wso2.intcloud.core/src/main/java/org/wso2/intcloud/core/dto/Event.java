@@ -20,11 +20,20 @@ import java.sql.Timestamp;
 
 public class Event {
 
+    private int id;
     private String eventName;
     private String eventStatus;
     private Timestamp timestamp;
     private String eventDescription;
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getEventName() {
         return eventName;
     }
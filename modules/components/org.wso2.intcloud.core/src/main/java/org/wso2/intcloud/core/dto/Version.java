@@ -16,18 +16,35 @@
 
 package org.wso2.intcloud.core.dto;
 
+import org.wso2.intcloud.core.Util;
 import java.sql.Timestamp;
 import java.util.List;
 
 public class Version {
 
     private String versionName;
-    private String hashId;
+    private long hashId = Util.NO_HASH_ID;
     private int runtimeId;
     private String runtimeName;
     private String status;
     private int tenantId;
     private Timestamp createdTimestamp;
+    private long rowVersion;
+
+    public Version() {
+
+    }
+
+    public Version(Version version) {
+        this.versionName = version.versionName;
+        this.hashId = version.hashId;
+        this.runtimeId = version.runtimeId;
+        this.runtimeName = version.runtimeName;
+        this.status = version.status;
+        this.tenantId = version.tenantId;
+        this.createdTimestamp = version.createdTimestamp != null ? (Timestamp) version.createdTimestamp.clone() : null;
+        this.rowVersion = version.rowVersion;
+    }
 
     public String getVersionName() {
         return versionName;
@@ -38,10 +55,18 @@ public class Version {
     }
 
     public String getHashId() {
-        return hashId;
+        return Util.toHashIdString(hashId);
     }
 
     public void setHashId(String hashId) {
+        this.hashId = Util.parseHashId(hashId);
+    }
+
+    public long getHashIdValue() {
+        return hashId;
+    }
+
+    public void setHashIdValue(long hashId) {
         this.hashId = hashId;
     }
 
@@ -85,4 +110,12 @@ public class Version {
         this.createdTimestamp = createdTimestamp;
     }
 
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
 }
\ No newline at end of file
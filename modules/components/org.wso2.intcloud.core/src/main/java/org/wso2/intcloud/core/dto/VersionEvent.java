@@ -0,0 +1,45 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.dto;
+
+/**
+ * An event of an application version waiting to be stored, along with the version and tenant it belongs to.
+ */
+public class VersionEvent {
+
+    private final String versionHashId;
+    private final int tenantId;
+    private final Event event;
+
+    public VersionEvent(String versionHashId, int tenantId, Event event) {
+        this.versionHashId = versionHashId;
+        this.tenantId = tenantId;
+        this.event = event;
+    }
+
+    public String getVersionHashId() {
+        return versionHashId;
+    }
+
+    public int getTenantId() {
+        return tenantId;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+}
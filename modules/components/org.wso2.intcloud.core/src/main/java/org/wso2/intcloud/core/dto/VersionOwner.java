@@ -0,0 +1,58 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.dto;
+
+/**
+ * Identifies a version together with the application and tenant it belongs to, as used by bulk operations.
+ */
+public class VersionOwner {
+
+    private final int versionId;
+    private final String versionHashId;
+    private final String applicationHashId;
+    private final int tenantId;
+
+    public VersionOwner(int versionId, String versionHashId, String applicationHashId, int tenantId) {
+        this.versionId = versionId;
+        this.versionHashId = versionHashId;
+        this.applicationHashId = applicationHashId;
+        this.tenantId = tenantId;
+    }
+
+    /**
+     * @return version id or 0 for an application without versions
+     */
+    public int getVersionId() {
+        return versionId;
+    }
+
+    /**
+     * @return version hash id or null for an application without versions
+     */
+    public String getVersionHashId() {
+        return versionHashId;
+    }
+
+    public String getApplicationHashId() {
+        return applicationHashId;
+    }
+
+    public int getTenantId() {
+        return tenantId;
+    }
+}
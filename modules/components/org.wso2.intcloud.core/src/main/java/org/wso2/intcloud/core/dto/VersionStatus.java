@@ -0,0 +1,94 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.dto;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Status of an application version and the status transitions allowed between them.
+ */
+public enum VersionStatus {
+
+    PENDING("pending"),
+    RUNNING("running"),
+    STOPPED("stopped"),
+    ERROR("error");
+
+    private static final Map<VersionStatus, Set<VersionStatus>> transitions = new EnumMap<>(VersionStatus.class);
+    private static final Map<VersionStatus, Set<VersionStatus>> predecessors = new EnumMap<>(VersionStatus.class);
+
+    static {
+        transitions.put(PENDING, EnumSet.of(RUNNING, STOPPED, ERROR));
+        transitions.put(RUNNING, EnumSet.of(PENDING, STOPPED, ERROR));
+        transitions.put(STOPPED, EnumSet.of(PENDING, RUNNING));
+        transitions.put(ERROR, EnumSet.of(PENDING, STOPPED));
+
+        for (VersionStatus status : values()) {
+            predecessors.put(status, EnumSet.noneOf(VersionStatus.class));
+        }
+        for (Map.Entry<VersionStatus, Set<VersionStatus>> entry : transitions.entrySet()) {
+            for (VersionStatus target : entry.getValue()) {
+                predecessors.get(target).add(entry.getKey());
+            }
+        }
+    }
+
+    private final String value;
+
+    VersionStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return status as stored in AC_VERSION
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public boolean canTransitionTo(VersionStatus target) {
+        return transitions.get(this).contains(target);
+    }
+
+    /**
+     * @return statuses a version may move to this status from
+     */
+    public Set<VersionStatus> getPredecessors() {
+        return Collections.unmodifiableSet(predecessors.get(this));
+    }
+
+    /**
+     * Get the status of a stored value, ignoring case.
+     *
+     * @param value stored status
+     * @return matching status or null if the value is not a known status
+     */
+    public static VersionStatus fromValue(String value) {
+
+        for (VersionStatus status : values()) {
+            if (status.value.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.dto;
+
+/**
+ * Outcome of a conditional version status update.
+ */
+public class VersionStatusUpdate {
+
+    private final boolean applied;
+    private final String status;
+    private final long rowVersion;
+
+    public VersionStatusUpdate(boolean applied, String status, long rowVersion) {
+        this.applied = applied;
+        this.status = status;
+        this.rowVersion = rowVersion;
+    }
+
+    /**
+     * @return true if the status was changed, false if the version did not match the condition
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    /**
+     * @return status of the version after the update, the current status when the update was not applied or null if
+     * the version does not exist
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return row version of the version after the update, the current row version when the update was not applied
+     * or -1 if the version does not exist
+     */
+    public long getRowVersion() {
+        return rowVersion;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.event;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.UnitOfWork;
+import org.wso2.intcloud.core.dao.EventsDAO;
+import org.wso2.intcloud.core.dto.Event;
+import org.wso2.intcloud.core.dto.VersionEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores application creation events asynchronously.
+ *
+ * Events are placed on a bounded queue which is drained by a background writer thread. The writer inserts the events
+ * in batches of up to the configured flush size, committing each batch in a single transaction, and writes a partial
+ * batch once the configured flush interval has elapsed since its first event. When the queue is full, producers wait
+ * up to the configured enqueue timeout and then store the event themselves, which slows bursts down to the rate the
+ * database can take without dropping events.
+ *
+ * Events added within a {@link UnitOfWork} are stored on the calling thread as part of the unit, since a queued event
+ * would be committed by the writer regardless of the outcome of the unit. Events stored on the calling thread are
+ * published once their transaction commits.
+ */
+public class AsyncEventWriter {
+
+    private static final Log log = LogFactory.getLog(AsyncEventWriter.class);
+
+    private static final String ASYNC_ENABLED = "Events.Async.Enabled";
+    private static final String QUEUE_CAPACITY = "Events.Async.QueueCapacity";
+    private static final String FLUSH_SIZE = "Events.Async.FlushSize";
+    private static final String FLUSH_INTERVAL_MILLIS = "Events.Async.FlushIntervalMillis";
+    private static final String ENQUEUE_TIMEOUT_MILLIS = "Events.Async.EnqueueTimeoutMillis";
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final int DEFAULT_FLUSH_SIZE = 200;
+    private static final int DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    private static final int DEFAULT_ENQUEUE_TIMEOUT_MILLIS = 1000;
+
+    private static final String WRITER_THREAD_NAME = "IntCloudEventWriter";
+
+    private static final AsyncEventWriter instance = new AsyncEventWriter();
+
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final long enqueueTimeoutMillis;
+    private final BlockingQueue<VersionEvent> queue;
+    private final EventsDAO eventsDAO = new EventsDAO();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private AsyncEventWriter() {
+
+        enabled = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(ASYNC_ENABLED, "false"));
+        flushSize = Math.max(1, IntCloudUtil.getIntPropertyValue(FLUSH_SIZE, DEFAULT_FLUSH_SIZE));
+        flushIntervalMillis = Math.max(1, IntCloudUtil.getIntPropertyValue(FLUSH_INTERVAL_MILLIS,
+                                                                            DEFAULT_FLUSH_INTERVAL_MILLIS));
+        enqueueTimeoutMillis = Math.max(0, IntCloudUtil.getIntPropertyValue(ENQUEUE_TIMEOUT_MILLIS,
+                                                                             DEFAULT_ENQUEUE_TIMEOUT_MILLIS));
+        queue = new ArrayBlockingQueue<>(Math.max(1, IntCloudUtil.getIntPropertyValue(QUEUE_CAPACITY,
+                                                                                      DEFAULT_QUEUE_CAPACITY)));
+    }
+
+    public static AsyncEventWriter getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start the background writer if asynchronous event storing is enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || running) {
+            return;
+        }
+
+        running = true;
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeEvents();
+            }
+        }, WRITER_THREAD_NAME);
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Started asynchronous event writer, queue capacity : " + queue.remainingCapacity() +
+                      ", flush size : " + flushSize + ", flush interval millis : " + flushIntervalMillis);
+        }
+    }
+
+    /**
+     * Stop accepting events and wait for the queued events to be written.
+     *
+     * @param timeoutMillis maximum time to wait for the queue to drain
+     */
+    public void shutdown(long timeoutMillis) {
+
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writerThread;
+            writerThread = null;
+        }
+
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!thread.isAlive() && !queue.isEmpty()) {
+            // Events queued by producers which passed the running check just before the shutdown
+            List<VersionEvent> remaining = new ArrayList<>(queue.size());
+            queue.drainTo(remaining);
+            writeBatch(remaining);
+        }
+
+        if (thread.isAlive()) {
+            log.warn("Asynchronous event writer did not drain within " + timeoutMillis + " ms, " + queue.size() +
+                     " events are not stored");
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Queue an application creation event to be stored by the background writer. The event is stored on the calling
+     * thread if the writer is not running, a unit of work is active or the queue stays full for longer than the
+     * enqueue timeout.
+     *
+     * @param versionHashId version hash id
+     * @param event         application creation event
+     * @param tenantId      tenant id
+     * @throws IntCloudException if the event is stored on the calling thread and storing it fails
+     */
+    public void addAppCreationEvent(String versionHashId, Event event, int tenantId) throws IntCloudException {
+
+        if (running && UnitOfWork.getCurrent() == null) {
+            VersionEvent versionEvent = new VersionEvent(versionHashId, tenantId, event);
+            try {
+                if (queue.offer(versionEvent, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    // A shutdown which started after the running check may already have drained the queue. The event
+                    // is left to the writer unless it is still queued once the writer has stopped.
+                    if (running || !queue.remove(versionEvent)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        eventsDAO.addAppCreationEvent(versionHashId, event, tenantId);
+        publishAfterCommit(versionHashId, event);
+    }
+
+    private void publishAfterCommit(final String versionHashId, final Event event) {
+        UnitOfWork.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                EventStreamHub.getInstance().publish(versionHashId, event);
+            }
+        });
+    }
+
+    private void writeEvents() {
+
+        List<VersionEvent> batch = new ArrayList<>(flushSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                VersionEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remainingMillis = deadline - System.currentTimeMillis();
+                    if (batch.size() >= flushSize || remainingMillis <= 0 || !running) {
+                        break;
+                    }
+                    VersionEvent next = queue.poll(remainingMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Keep draining, the writer only stops once shut down and the queue is empty
+                log.warn("Asynchronous event writer was interrupted while waiting for events");
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in asynchronous event writer, " + batch.size() + " events are dropped", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<VersionEvent> batch) {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        EventStreamHub eventStreamHub = EventStreamHub.getInstance();
+
+        try {
+            eventsDAO.addAppCreationEvents(batch);
+            for (VersionEvent versionEvent : batch) {
+                eventStreamHub.publish(versionEvent.getVersionHashId(), versionEvent.getEvent());
+            }
+            return;
+        } catch (IntCloudException e) {
+            // A single bad event, such as one of a version deleted meanwhile, fails the whole batch
+            log.warn("Storing a batch of " + batch.size() + " events failed, storing the events one by one");
+        }
+
+        for (VersionEvent versionEvent : batch) {
+            try {
+                eventsDAO.addAppCreationEvent(versionEvent.getVersionHashId(), versionEvent.getEvent(),
+                                              versionEvent.getTenantId());
+                eventStreamHub.publish(versionEvent.getVersionHashId(), versionEvent.getEvent());
+            } catch (IntCloudException e) {
+                log.error("Dropping event : " + versionEvent.getEvent().getEventName() + " of version with hash id : " +
+                          versionEvent.getVersionHashId(), e);
+            }
+        }
+    }
+}
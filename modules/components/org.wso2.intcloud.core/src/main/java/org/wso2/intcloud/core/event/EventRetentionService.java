@@ -0,0 +1,370 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.event;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.SQLQueryConstants;
+import org.wso2.intcloud.core.dao.EventsDAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the size of the application event history.
+ *
+ * A background task periodically purges the events stored before the retention window and compacts the history of
+ * every version and event name down to the latest event and the configured number of earlier events. The latest event
+ * of every version and event name is kept in AC_EVENT_LATEST as well, so neither step changes what is shown for a
+ * version. Deletes run in small chunks, each committed in its own transaction with a pause in between, so that the
+ * event table is never locked for long and concurrent event writers are not blocked.
+ *
+ * When the event table is range partitioned by month as described in intcloud.sql, whole partitions beyond the
+ * retention window are dropped instead of deleting their rows, and partitions for the coming months are created ahead
+ * of time.
+ */
+public class EventRetentionService {
+
+    private static final Log log = LogFactory.getLog(EventRetentionService.class);
+
+    private static final String RETENTION_ENABLED = "Events.Retention.Enabled";
+    private static final String RETENTION_DAYS = "Events.Retention.Days";
+    private static final String HISTORY_PER_EVENT = "Events.Retention.HistoryPerEvent";
+    private static final String DELETE_CHUNK_SIZE = "Events.Retention.DeleteChunkSize";
+    private static final String CHUNK_PAUSE_MILLIS = "Events.Retention.ChunkPauseMillis";
+    private static final String INTERVAL_MINUTES = "Events.Retention.IntervalMinutes";
+    private static final String PARTITIONED = "Events.Retention.Partitioned";
+    private static final String PARTITIONS_AHEAD = "Events.Retention.PartitionsAhead";
+
+    private static final int DEFAULT_RETENTION_DAYS = 90;
+    private static final int DEFAULT_HISTORY_PER_EVENT = 20;
+    private static final int DEFAULT_DELETE_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_CHUNK_PAUSE_MILLIS = 50;
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int DEFAULT_PARTITIONS_AHEAD = 2;
+
+    private static final int EVENT_GROUP_PAGE_SIZE = 500;
+    private static final String MAX_VALUE_PARTITION = "MAXVALUE";
+    private static final String PARTITION_NAME_FORMAT = "p%04d%02d";
+    private static final String RETENTION_THREAD_NAME = "IntCloudEventRetention";
+
+    private static final EventRetentionService instance = new EventRetentionService();
+
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int historyPerEvent;
+    private final int deleteChunkSize;
+    private final long chunkPauseMillis;
+    private final int intervalMinutes;
+    private final boolean partitioned;
+    private final int partitionsAhead;
+    private final EventsDAO eventsDAO = new EventsDAO();
+
+    private ScheduledExecutorService scheduler;
+
+    private EventRetentionService() {
+
+        enabled = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(RETENTION_ENABLED, "false"));
+        retentionDays = IntCloudUtil.getIntPropertyValue(RETENTION_DAYS, DEFAULT_RETENTION_DAYS);
+        historyPerEvent = IntCloudUtil.getIntPropertyValue(HISTORY_PER_EVENT, DEFAULT_HISTORY_PER_EVENT);
+        deleteChunkSize = Math.max(1, IntCloudUtil.getIntPropertyValue(DELETE_CHUNK_SIZE, DEFAULT_DELETE_CHUNK_SIZE));
+        chunkPauseMillis = Math.max(0, IntCloudUtil.getIntPropertyValue(CHUNK_PAUSE_MILLIS,
+                                                                         DEFAULT_CHUNK_PAUSE_MILLIS));
+        intervalMinutes = Math.max(1, IntCloudUtil.getIntPropertyValue(INTERVAL_MINUTES, DEFAULT_INTERVAL_MINUTES));
+        partitioned = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(PARTITIONED, "false"));
+        partitionsAhead = Math.max(1, IntCloudUtil.getIntPropertyValue(PARTITIONS_AHEAD, DEFAULT_PARTITIONS_AHEAD));
+    }
+
+    public static EventRetentionService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Schedule the periodic retention run if event retention is enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, RETENTION_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runRetention();
+                } catch (IntCloudException e) {
+                    log.error("Event retention run failed, it is retried in " + intervalMinutes + " minutes", e);
+                } catch (RuntimeException e) {
+                    log.error("Unexpected error in event retention run", e);
+                }
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Scheduled event retention, retention days : " + retentionDays + ", history per event : " +
+                      historyPerEvent + ", interval minutes : " + intervalMinutes + ", partitioned : " + partitioned);
+        }
+    }
+
+    /**
+     * Stop the periodic retention run. A run in progress stops after its current chunk.
+     */
+    public synchronized void stop() {
+
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Purge the events beyond the retention window and compact the remaining event history. A negative retention
+     * days or history per event value disables the respective step.
+     *
+     * @throws IntCloudException
+     */
+    public void runRetention() throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            if (partitioned) {
+                maintainPartitions(dbConnection);
+            } else if (retentionDays >= 0) {
+                purgeEvents(dbConnection, getRetentionCutoff());
+            }
+            if (historyPerEvent >= 0) {
+                compactEvents(dbConnection);
+            }
+        } catch (InterruptedException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            Thread.currentThread().interrupt();
+            log.warn("Event retention run was interrupted");
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private long getRetentionCutoff() {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    private int purgeEvents(Connection dbConnection, long cutoffMillis) throws IntCloudException,
+                                                                               InterruptedException {
+
+        Timestamp cutoff = new Timestamp(cutoffMillis);
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = eventsDAO.deleteEventsBefore(dbConnection, cutoff, deleteChunkSize);
+            commit(dbConnection);
+            purged += deleted;
+            pause(deleted);
+        } while (deleted == deleteChunkSize);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Purged " + purged + " events stored before : " + cutoff);
+        }
+        return purged;
+    }
+
+    private void compactEvents(Connection dbConnection) throws IntCloudException, InterruptedException {
+
+        // The latest event and the configured number of earlier events are kept
+        int keep = historyPerEvent + 1;
+        int afterVersionId = 0;
+        String afterName = "";
+        int compacted = 0;
+        List<Map.Entry<Integer, String>> eventGroups;
+
+        do {
+            eventGroups = eventsDAO.getEventGroupsToCompact(dbConnection, keep, afterVersionId, afterName,
+                                                            EVENT_GROUP_PAGE_SIZE);
+            commit(dbConnection);
+            for (Map.Entry<Integer, String> eventGroup : eventGroups) {
+                int versionId = eventGroup.getKey();
+                String name = eventGroup.getValue();
+                afterVersionId = versionId;
+                afterName = name;
+                int boundary = eventsDAO.getEventCompactionBoundary(dbConnection, versionId, name, keep);
+                if (boundary < 0) {
+                    continue;
+                }
+                int deleted;
+                do {
+                    deleted = eventsDAO.deleteEventsUpTo(dbConnection, versionId, name, boundary, deleteChunkSize);
+                    commit(dbConnection);
+                    compacted += deleted;
+                    pause(deleted);
+                } while (deleted == deleteChunkSize);
+            }
+        } while (eventGroups.size() == EVENT_GROUP_PAGE_SIZE);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Compacted " + compacted + " events down to " + historyPerEvent + " earlier events per event");
+        }
+    }
+
+    private void maintainPartitions(Connection dbConnection) throws IntCloudException, InterruptedException {
+
+        Map<String, String> partitions = eventsDAO.getEventPartitions(dbConnection);
+        if (partitions.isEmpty()) {
+            log.warn("Event retention is configured for a partitioned event table but AC_EVENT is not partitioned, " +
+                     "hence purging events row by row");
+            if (retentionDays >= 0) {
+                purgeEvents(dbConnection, getRetentionCutoff());
+            }
+            return;
+        }
+
+        String maxValuePartition = null;
+        long lastBoundSeconds = -1;
+        for (Map.Entry<String, String> partition : partitions.entrySet()) {
+            if (MAX_VALUE_PARTITION.equalsIgnoreCase(partition.getValue())) {
+                maxValuePartition = partition.getKey();
+            } else {
+                lastBoundSeconds = Math.max(lastBoundSeconds, Long.parseLong(partition.getValue()));
+            }
+        }
+
+        if (retentionDays >= 0) {
+            dropExpiredPartitions(dbConnection, partitions, getRetentionCutoff() / 1000);
+        }
+
+        if (maxValuePartition == null) {
+            log.warn("AC_EVENT has no partition for future events, hence no partitions are added ahead");
+            return;
+        }
+        addPartitionsAhead(dbConnection, maxValuePartition, lastBoundSeconds);
+    }
+
+    private void dropExpiredPartitions(Connection dbConnection, Map<String, String> partitions, long cutoffSeconds)
+            throws IntCloudException {
+
+        List<String> expiredPartitions = new ArrayList<>();
+        for (Map.Entry<String, String> partition : partitions.entrySet()) {
+            if (!MAX_VALUE_PARTITION.equalsIgnoreCase(partition.getValue()) &&
+                Long.parseLong(partition.getValue()) <= cutoffSeconds) {
+                expiredPartitions.add(partition.getKey());
+            }
+        }
+
+        // A range partitioned table needs at least one partition
+        if (expiredPartitions.size() == partitions.size()) {
+            expiredPartitions.remove(expiredPartitions.size() - 1);
+        }
+
+        for (String partitionName : expiredPartitions) {
+            eventsDAO.alterEventPartitions(dbConnection, String.format(SQLQueryConstants.DROP_EVENT_PARTITION,
+                                                                       partitionName));
+            if (log.isDebugEnabled()) {
+                log.debug("Dropped expired event partition : " + partitionName);
+            }
+        }
+    }
+
+    private void addPartitionsAhead(Connection dbConnection, String maxValuePartition, long lastBoundSeconds)
+            throws IntCloudException {
+
+        // Partitions hold a calendar month each and are bounded by the start of the next month in UTC
+        Calendar month = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        month.set(Calendar.HOUR_OF_DAY, 0);
+        month.set(Calendar.MINUTE, 0);
+        month.set(Calendar.SECOND, 0);
+        month.set(Calendar.MILLISECOND, 0);
+
+        Calendar horizon = (Calendar) month.clone();
+        horizon.add(Calendar.MONTH, partitionsAhead + 1);
+
+        if (lastBoundSeconds >= 0) {
+            Calendar lastBound = (Calendar) month.clone();
+            lastBound.setTimeInMillis(TimeUnit.SECONDS.toMillis(lastBoundSeconds));
+            if (lastBound.after(month)) {
+                month = lastBound;
+                month.set(Calendar.DAY_OF_MONTH, 1);
+                month.set(Calendar.HOUR_OF_DAY, 0);
+                month.set(Calendar.MINUTE, 0);
+                month.set(Calendar.SECOND, 0);
+                month.set(Calendar.MILLISECOND, 0);
+            }
+        }
+
+        StringBuilder definitions = new StringBuilder();
+        while (month.before(horizon)) {
+            String name = String.format(PARTITION_NAME_FORMAT, month.get(Calendar.YEAR),
+                                        month.get(Calendar.MONTH) + 1);
+            month.add(Calendar.MONTH, 1);
+            long boundSeconds = TimeUnit.MILLISECONDS.toSeconds(month.getTimeInMillis());
+            if (boundSeconds <= lastBoundSeconds) {
+                continue;
+            }
+            if (definitions.length() > 0) {
+                definitions.append(", ");
+            }
+            definitions.append(String.format(SQLQueryConstants.EVENT_PARTITION_DEFINITION, name, boundSeconds));
+        }
+
+        if (definitions.length() == 0) {
+            return;
+        }
+        eventsDAO.alterEventPartitions(dbConnection, String.format(SQLQueryConstants.ADD_EVENT_PARTITIONS,
+                                                                   maxValuePartition, definitions,
+                                                                   maxValuePartition));
+        if (log.isDebugEnabled()) {
+            log.debug("Added event partitions : " + definitions);
+        }
+    }
+
+    private void commit(Connection dbConnection) throws IntCloudException {
+        try {
+            dbConnection.commit();
+        } catch (SQLException e) {
+            String msg = "Error while committing event retention changes";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        }
+    }
+
+    private void pause(int deleted) throws InterruptedException {
+        if (deleted > 0 && chunkPauseMillis > 0) {
+            Thread.sleep(chunkPauseMillis);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.event;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.dao.EventsDAO;
+import org.wso2.intcloud.core.dto.Event;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * In-process fan-out of application events to the subscribers of the application versions.
+ *
+ * Events are published once they are committed to the database and handed to each subscriber of the version through
+ * its own bounded buffer, so a slow subscriber never blocks the publishers or the other subscribers. A subscriber
+ * whose buffer overflows, or which resumes after a reconnect, catches up with a single query on the events stored
+ * after the last event it received. Only events stored by this node are pushed, subscribers on other nodes see them
+ * through the catch-up query when they resume.
+ */
+public class EventStreamHub {
+
+    private static final Log log = LogFactory.getLog(EventStreamHub.class);
+
+    private static final String BUFFER_SIZE = "Events.Stream.SubscriberBufferSize";
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private static final EventStreamHub instance = new EventStreamHub();
+
+    private final int bufferSize;
+    private final Map<String, Set<EventSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private EventStreamHub() {
+        bufferSize = Math.max(1, IntCloudUtil.getIntPropertyValue(BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
+    }
+
+    public static EventStreamHub getInstance() {
+        return instance;
+    }
+
+    /**
+     * Subscribe to the events of an application version.
+     *
+     * @param versionHashId version hash id
+     * @param lastEventId   id of the last event received before a reconnect, the events stored after it are delivered
+     *                      first; a negative id subscribes to new events only
+     * @return subscription, which must be closed by the caller
+     * @throws IntCloudException if the events missed since the last event cannot be retrieved
+     */
+    public EventSubscription subscribe(String versionHashId, int lastEventId) throws IntCloudException {
+
+        EventSubscription subscription = new EventSubscription(this, versionHashId, bufferSize);
+
+        // Register before catching up, so that no event is missed in between
+        synchronized (subscriptions) {
+            Set<EventSubscription> versionSubscriptions = subscriptions.get(versionHashId);
+            if (versionSubscriptions == null) {
+                versionSubscriptions = new CopyOnWriteArraySet<>();
+                subscriptions.put(versionHashId, versionSubscriptions);
+            }
+            versionSubscriptions.add(subscription);
+        }
+
+        try {
+            if (lastEventId >= 0) {
+                subscription.catchUp(lastEventId);
+            } else {
+                // New events only, a buffer overflow catches up from the events stored by now
+                subscription.startAfter(new EventsDAO().getLatestEventId(versionHashId));
+            }
+        } catch (IntCloudException e) {
+            subscription.close();
+            throw e;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Subscribed to events of version with hash id : " + versionHashId + " after event id : " +
+                      lastEventId);
+        }
+        return subscription;
+    }
+
+    /**
+     * Publish a stored event to the subscribers of its version.
+     *
+     * @param versionHashId version hash id
+     * @param event         stored event with its id set
+     */
+    public void publish(String versionHashId, Event event) {
+        Set<EventSubscription> versionSubscriptions = subscriptions.get(versionHashId);
+        if (versionSubscriptions == null) {
+            return;
+        }
+        for (EventSubscription subscription : versionSubscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Get the number of active subscriptions.
+     *
+     * @return
+     */
+    public int getSubscriptionCount() {
+        int count = 0;
+        for (Set<EventSubscription> versionSubscriptions : subscriptions.values()) {
+            count += versionSubscriptions.size();
+        }
+        return count;
+    }
+
+    void unsubscribe(EventSubscription subscription) {
+        synchronized (subscriptions) {
+            Set<EventSubscription> versionSubscriptions = subscriptions.get(subscription.getVersionHashId());
+            if (versionSubscriptions != null) {
+                versionSubscriptions.remove(subscription);
+                if (versionSubscriptions.isEmpty()) {
+                    subscriptions.remove(subscription.getVersionHashId());
+                }
+            }
+        }
+    }
+}
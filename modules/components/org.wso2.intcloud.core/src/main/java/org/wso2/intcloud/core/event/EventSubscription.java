@@ -0,0 +1,165 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.event;
+
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.dao.EventsDAO;
+import org.wso2.intcloud.core.dto.Event;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscription to the events of an application version, created through {@link EventStreamHub#subscribe}.
+ *
+ * Events are taken with {@link #poll(long, TimeUnit)} by a single consumer thread. The id of the last event taken is
+ * available through {@link #getLastEventId()}, which is what a consumer passes when it subscribes again after a
+ * reconnect.
+ */
+public class EventSubscription implements AutoCloseable {
+
+    private final EventStreamHub hub;
+    private final String versionHashId;
+    private final BlockingQueue<Event> buffer;
+    private final Queue<Event> caughtUpEvents = new ArrayDeque<>();
+
+    private volatile boolean overflowed;
+    private volatile boolean closed;
+    private int lastEventId = -1;
+    private int caughtUpToEventId = -1;
+
+    EventSubscription(EventStreamHub hub, String versionHashId, int bufferSize) {
+        this.hub = hub;
+        this.versionHashId = versionHashId;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    public String getVersionHashId() {
+        return versionHashId;
+    }
+
+    /**
+     * Get the id of the last event taken from this subscription, or of the last event stored before it was opened.
+     *
+     * @return event id
+     */
+    public int getLastEventId() {
+        return lastEventId;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Take the next event, waiting up to the given time for one to be published.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return next event or null if none is published within the timeout or the subscription is closed
+     * @throws IntCloudException    if events dropped on a buffer overflow cannot be retrieved from the database
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Event poll(long timeout, TimeUnit unit) throws IntCloudException, InterruptedException {
+
+        if (closed) {
+            return null;
+        }
+
+        if (overflowed) {
+            overflowed = false;
+            buffer.clear();
+            caughtUpEvents.clear();
+            catchUp(lastEventId);
+        }
+
+        Event event = caughtUpEvents.poll();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (event == null) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0 || closed) {
+                return null;
+            }
+            event = buffer.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            // Events published while catching up are already delivered from the database
+            if (event != null && event.getId() <= caughtUpToEventId) {
+                event = null;
+            }
+        }
+
+        lastEventId = Math.max(lastEventId, event.getId());
+        return event;
+    }
+
+    /**
+     * Stop receiving events.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            hub.unsubscribe(this);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Hand a published event to this subscription. If the buffer is full, the buffered events are dropped and the
+     * consumer catches up from the database on its next poll.
+     *
+     * @param event published event
+     */
+    void offer(Event event) {
+        if (closed) {
+            return;
+        }
+        if (!buffer.offer(event)) {
+            overflowed = true;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Start delivering the events stored after the given event, the events published up to it are skipped.
+     *
+     * @param eventId id of the last event stored before subscribing
+     */
+    void startAfter(int eventId) {
+        lastEventId = eventId;
+        caughtUpToEventId = eventId;
+    }
+
+    /**
+     * Load the events stored after the given event to be delivered before the buffered events.
+     *
+     * @param afterEventId id of the last event delivered
+     * @throws IntCloudException
+     */
+    void catchUp(int afterEventId) throws IntCloudException {
+        EventsDAO eventsDAO = new EventsDAO();
+        for (Event event : eventsDAO.getEventsOfApplicationAfter(versionHashId, Math.max(0, afterEventId))) {
+            caughtUpEvents.add(event);
+            caughtUpToEventId = Math.max(caughtUpToEventId, event.getId());
+        }
+        if (afterEventId >= 0) {
+            lastEventId = Math.max(lastEventId, afterEventId);
+        }
+    }
+}
@@ -21,6 +21,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.intcloud.core.event.AsyncEventWriter;
+import org.wso2.intcloud.core.event.EventRetentionService;
+import org.wso2.intcloud.core.quota.TenantQuotaManager;
+import org.wso2.intcloud.core.reaper.IdleVersionReaper;
 
 /**
  * @scr.component name="ApplicationManagementServiceComponent" immediate="true"
@@ -29,9 +33,15 @@ public class ApplicationManagementServiceComponent {
 
     private static BundleContext bundleContext;
     private static Log log = LogFactory.getLog(ApplicationManagementServiceComponent.class);
+    private static final long EVENT_WRITER_SHUTDOWN_TIMEOUT_MILLIS = 30000;
 
     protected void activate(ComponentContext context) {
 
+        AsyncEventWriter.getInstance().start();
+        EventRetentionService.getInstance().start();
+        TenantQuotaManager.getInstance().start();
+        IdleVersionReaper.getInstance().start();
+
         if(log.isDebugEnabled()){
             log.debug("ApplicationManagementServiceComponent activated");
         }
@@ -39,6 +49,12 @@ public class ApplicationManagementServiceComponent {
 
     protected void deactivate(org.osgi.service.component.ComponentContext context) {
 
+        EventRetentionService.getInstance().stop();
+        IdleVersionReaper.getInstance().stop();
+        TenantQuotaManager.getInstance().stop();
+        // Store the queued events before the bundle goes away
+        AsyncEventWriter.getInstance().shutdown(EVENT_WRITER_SHUTDOWN_TIMEOUT_MILLIS);
+
         if(log.isDebugEnabled()){
             log.debug("ApplicationManagementServiceComponent deactivated");
         }
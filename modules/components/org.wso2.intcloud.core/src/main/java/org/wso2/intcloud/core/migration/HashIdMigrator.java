@@ -0,0 +1,200 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.migration;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.HashIdGenerator;
+import org.wso2.intcloud.core.SQLQueryConstants;
+import org.wso2.intcloud.core.cache.ApplicationMetadataCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Recomputes the stored hash ids of all applications and versions with a {@link HashIdGenerator.Scheme}.
+ *
+ * Applications and versions are read in pages ordered by id, and each page is updated in one JDBC batch and
+ * committed. Hash ids are computed from the stored names and tenant ids only, so an interrupted migration can be run
+ * again and completes the remaining rows. HashId.Scheme has to be switched to the target scheme once the migration
+ * completes, and hash ids kept outside the database have to be refreshed, as they are not known to this class.
+ *
+ * The scheme is read once when a server starts, and there is no lookup by both schemes. A server which runs during or
+ * after the migration keeps generating and looking up hash ids with the previous scheme and misses every migrated row.
+ * All nodes therefore have to be stopped, the migration run, HashId.Scheme switched on every node, and the nodes
+ * started together again.
+ */
+public class HashIdMigrator {
+
+    private static final Log log = LogFactory.getLog(HashIdMigrator.class);
+
+    private final int batchSize;
+
+    public HashIdMigrator() {
+        this(DBUtil.MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Create a migrator.
+     *
+     * @param batchSize number of rows updated and committed at once
+     */
+    public HashIdMigrator(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive, batch size : " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Recompute the hash ids of all applications and versions.
+     *
+     * @param scheme hash id generation scheme to move to
+     * @return number of updated applications and versions
+     * @throws IntCloudException if reading or updating the hash ids fails, including when two rows get the same hash id
+     */
+    public long migrate(HashIdGenerator.Scheme scheme) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        long migrated = 0;
+
+        try {
+            migrated += migrateApplications(dbConnection, scheme);
+            migrated += migrateVersions(dbConnection, scheme);
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while migrating hash ids to scheme : " + scheme + " after migrating " + migrated +
+                         " hash ids";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+            // Cached entries are keyed by the previous hash ids
+            ApplicationMetadataCache.getInstance().invalidateAll();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Migrated " + migrated + " hash ids to scheme : " + scheme);
+        }
+        return migrated;
+    }
+
+    private long migrateApplications(Connection dbConnection, HashIdGenerator.Scheme scheme) throws SQLException {
+
+        int[] ids = new int[batchSize];
+        long[] hashIds = new long[batchSize];
+        long migrated = 0;
+        int lastId = 0;
+        int count;
+
+        do {
+            count = 0;
+            PreparedStatement preparedStatement = null;
+            ResultSet resultSet = null;
+            try {
+                preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_APPLICATION_HASH_ID_SOURCES);
+                preparedStatement.setInt(1, lastId);
+                preparedStatement.setInt(2, batchSize);
+                resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    ids[count] = resultSet.getInt(SQLQueryConstants.ID);
+                    hashIds[count] = HashIdGenerator.getApplicationHashId(
+                            scheme, resultSet.getInt(SQLQueryConstants.TENANT_ID),
+                            resultSet.getString(SQLQueryConstants.NAME));
+                    count++;
+                }
+            } finally {
+                DBUtil.closeResultSet(resultSet);
+                DBUtil.closePreparedStatement(preparedStatement);
+            }
+
+            updateHashIds(dbConnection, SQLQueryConstants.UPDATE_APPLICATION_HASH_ID, ids, hashIds, count);
+            migrated += count;
+            if (count > 0) {
+                lastId = ids[count - 1];
+            }
+        } while (count == batchSize);
+
+        return migrated;
+    }
+
+    private long migrateVersions(Connection dbConnection, HashIdGenerator.Scheme scheme) throws SQLException {
+
+        int[] ids = new int[batchSize];
+        long[] hashIds = new long[batchSize];
+        long migrated = 0;
+        int lastId = 0;
+        int count;
+
+        do {
+            count = 0;
+            PreparedStatement preparedStatement = null;
+            ResultSet resultSet = null;
+            try {
+                preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_VERSION_HASH_ID_SOURCES);
+                preparedStatement.setInt(1, lastId);
+                preparedStatement.setInt(2, batchSize);
+                resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    ids[count] = resultSet.getInt(SQLQueryConstants.ID);
+                    hashIds[count] = HashIdGenerator.getVersionHashId(
+                            scheme, resultSet.getInt(SQLQueryConstants.TENANT_ID),
+                            resultSet.getString(SQLQueryConstants.APPLICATION_NAME),
+                            resultSet.getString(SQLQueryConstants.NAME));
+                    count++;
+                }
+            } finally {
+                DBUtil.closeResultSet(resultSet);
+                DBUtil.closePreparedStatement(preparedStatement);
+            }
+
+            updateHashIds(dbConnection, SQLQueryConstants.UPDATE_VERSION_HASH_ID, ids, hashIds, count);
+            migrated += count;
+            if (count > 0) {
+                lastId = ids[count - 1];
+            }
+        } while (count == batchSize);
+
+        return migrated;
+    }
+
+    private void updateHashIds(Connection dbConnection, String query, int[] ids, long[] hashIds, int count)
+            throws SQLException {
+
+        if (count == 0) {
+            return;
+        }
+
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = dbConnection.prepareStatement(query);
+            for (int i = 0; i < count; i++) {
+                DBUtil.setHashId(preparedStatement, 1, hashIds[i]);
+                preparedStatement.setInt(2, ids[i]);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            dbConnection.commit();
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.migration;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.SQLQueryConstants;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Writes the applications, icons, versions, APIs and events of a tenant as a line delimited stream in the
+ * {@link TenantDataFormat}.
+ *
+ * Rows are streamed from the database one at a time and written out as they are read, so the memory used does not
+ * depend on the size of the tenant. All the rows are read in a single transaction to get a consistent view of the
+ * tenant.
+ */
+public class TenantDataExporter {
+
+    private static final Log log = LogFactory.getLog(TenantDataExporter.class);
+
+    /**
+     * Fetch size which makes MySQL Connector/J stream result set rows instead of reading the whole result set.
+     */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * Maps the current row of a result set to a stream record.
+     */
+    private interface RecordMapper {
+        JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException;
+    }
+
+    /**
+     * Export the data of a tenant.
+     *
+     * @param tenantId tenant id
+     * @param writer   writer to write the stream to, which is flushed but not closed
+     * @return number of records written, excluding the header
+     * @throws IntCloudException
+     */
+    public long exportTenantData(int tenantId, Writer writer) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        long records = 0;
+
+        try {
+            JSONObject header = new JSONObject();
+            header.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_HEADER);
+            header.put(TenantDataFormat.FORMAT, TenantDataFormat.FORMAT_VERSION);
+            header.put(TenantDataFormat.SOURCE_TENANT, tenantId);
+            writeRecord(writer, header);
+
+            records += exportRecords(dbConnection, SQLQueryConstants.EXPORT_TENANT_APPLICATIONS, tenantId, writer,
+                                     new RecordMapper() {
+                @Override
+                public JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException {
+                    JSONObject record = new JSONObject();
+                    record.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_APPLICATION);
+                    record.put(TenantDataFormat.NAME, resultSet.getString(SQLQueryConstants.NAME));
+                    record.put(TenantDataFormat.DESCRIPTION, resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                    record.put(TenantDataFormat.DEFAULT_VERSION,
+                               resultSet.getString(SQLQueryConstants.DEFAULT_VERSION));
+                    record.put(TenantDataFormat.APPLICATION_TYPE,
+                               resultSet.getString(SQLQueryConstants.APPLICATION_TYPE_NAME));
+                    record.put(TenantDataFormat.CARBON_APPLICATION_NAME,
+                               resultSet.getString(SQLQueryConstants.CARBON_APPLICATION_NAME));
+                    record.put(TenantDataFormat.PARAM_CONFIGURATION,
+                               resultSet.getString(SQLQueryConstants.PARAM_CONFIGURATION));
+                    record.put(TenantDataFormat.TASK_CONFIGURATION,
+                               resultSet.getString(SQLQueryConstants.TASK_CONFIGURATION));
+                    return record;
+                }
+            });
+
+            records += exportRecords(dbConnection, SQLQueryConstants.EXPORT_TENANT_APPLICATION_ICONS, tenantId, writer,
+                                     new RecordMapper() {
+                @Override
+                public JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException {
+                    JSONObject record = new JSONObject();
+                    record.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_ICON);
+                    record.put(TenantDataFormat.APPLICATION, resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
+                    record.put(TenantDataFormat.CONTENT, encode(resultSet.getBytes(SQLQueryConstants.ICON)));
+                    return record;
+                }
+            });
+
+            records += exportRecords(dbConnection, SQLQueryConstants.EXPORT_TENANT_VERSIONS, tenantId, writer,
+                                     new RecordMapper() {
+                @Override
+                public JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException {
+                    JSONObject record = new JSONObject();
+                    record.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_VERSION);
+                    record.put(TenantDataFormat.APPLICATION, resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
+                    record.put(TenantDataFormat.NAME, resultSet.getString(SQLQueryConstants.NAME));
+                    record.put(TenantDataFormat.RUNTIME_ID, resultSet.getObject(SQLQueryConstants.RUNTIME_ID));
+                    record.put(TenantDataFormat.STATUS, resultSet.getString(SQLQueryConstants.STATUS));
+                    putTimestamp(record, resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP));
+                    record.put(TenantDataFormat.WHITE_LISTED, resultSet.getBoolean(SQLQueryConstants.IS_WHITE_LISTED));
+                    return record;
+                }
+            });
+
+            records += exportRecords(dbConnection, SQLQueryConstants.EXPORT_TENANT_APIS, tenantId, writer,
+                                     new RecordMapper() {
+                @Override
+                public JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException {
+                    JSONObject record = new JSONObject();
+                    record.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_API);
+                    record.put(TenantDataFormat.APPLICATION, resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
+                    record.put(TenantDataFormat.NAME, resultSet.getString(SQLQueryConstants.NAME));
+                    record.put(TenantDataFormat.CONTEXT, resultSet.getString(SQLQueryConstants.CONTEXT));
+                    record.put(TenantDataFormat.HTTP_METHODS, resultSet.getString(SQLQueryConstants.HTTP_METHODS));
+                    record.put(TenantDataFormat.URL, resultSet.getString(SQLQueryConstants.URL));
+                    return record;
+                }
+            });
+
+            records += exportRecords(dbConnection, SQLQueryConstants.EXPORT_TENANT_EVENTS, tenantId, writer,
+                                     new RecordMapper() {
+                @Override
+                public JSONObject toRecord(ResultSet resultSet) throws SQLException, JSONException {
+                    JSONObject record = new JSONObject();
+                    record.put(TenantDataFormat.TYPE, TenantDataFormat.TYPE_EVENT);
+                    record.put(TenantDataFormat.APPLICATION, resultSet.getString(SQLQueryConstants.APPLICATION_NAME));
+                    record.put(TenantDataFormat.VERSION, resultSet.getString(SQLQueryConstants.VERSION_NAME));
+                    record.put(TenantDataFormat.NAME, resultSet.getString(SQLQueryConstants.NAME));
+                    record.put(TenantDataFormat.STATUS, resultSet.getString(SQLQueryConstants.STATUS));
+                    putTimestamp(record, resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP));
+                    record.put(TenantDataFormat.DESCRIPTION, resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                    return record;
+                }
+            });
+
+            writer.flush();
+
+        } catch (IOException e) {
+            String msg = "Error while writing the exported data of tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } catch (JSONException e) {
+            String msg = "Error while creating the export records of tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            // Nothing is modified, the transaction only provides a consistent view of the tenant
+            DBUtil.rollbackTransaction(dbConnection);
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Exported " + records + " records of tenant : " + tenantId);
+        }
+        return records;
+    }
+
+    private long exportRecords(Connection dbConnection, String query, int tenantId, Writer writer,
+                               RecordMapper recordMapper) throws IntCloudException, IOException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        long records = 0;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                                                              ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(STREAMING_FETCH_SIZE);
+            preparedStatement.setInt(1, tenantId);
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                writeRecord(writer, recordMapper.toRecord(resultSet));
+                records++;
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while reading the data of tenant : " + tenantId + " for export";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return records;
+    }
+
+    private static void writeRecord(Writer writer, JSONObject record) throws IOException {
+        writer.write(record.toString());
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private static void putTimestamp(JSONObject record, Timestamp timestamp) throws JSONException {
+        if (timestamp != null) {
+            record.put(TenantDataFormat.TIMESTAMP, timestamp.getTime());
+        }
+    }
+
+    private static String encode(byte[] content) {
+        try {
+            return new String(Base64.encodeBase64(content), "US-ASCII");
+        } catch (UnsupportedEncodingException e) {
+            // Every Java platform is required to support US-ASCII
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.migration;
+
+/**
+ * Record types and field names of the line delimited tenant data stream written by {@link TenantDataExporter} and
+ * read by {@link TenantDataImporter}.
+ *
+ * Each line holds one JSON object with a {@link #TYPE} field. The stream starts with a header record followed by the
+ * application, icon, version, API and event records in that order, so that every record only refers to records
+ * written before it. Records refer to each other by application and version names, which keeps the stream
+ * independent of the database ids and of the tenant it was exported from.
+ */
+public final class TenantDataFormat {
+
+    public static final int FORMAT_VERSION = 1;
+
+    public static final String TYPE = "type";
+
+    public static final String TYPE_HEADER = "header";
+    public static final String TYPE_APPLICATION = "application";
+    public static final String TYPE_ICON = "icon";
+    public static final String TYPE_VERSION = "version";
+    public static final String TYPE_API = "api";
+    public static final String TYPE_EVENT = "event";
+
+    public static final String FORMAT = "format";
+    public static final String SOURCE_TENANT = "sourceTenant";
+
+    public static final String NAME = "name";
+    public static final String APPLICATION = "application";
+    public static final String VERSION = "version";
+    public static final String DESCRIPTION = "description";
+    public static final String DEFAULT_VERSION = "defaultVersion";
+    public static final String APPLICATION_TYPE = "applicationType";
+    public static final String CARBON_APPLICATION_NAME = "cappName";
+    public static final String PARAM_CONFIGURATION = "paramConfiguration";
+    public static final String TASK_CONFIGURATION = "taskConfiguration";
+    public static final String CONTENT = "content";
+    public static final String RUNTIME_ID = "runtimeId";
+    public static final String STATUS = "status";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String WHITE_LISTED = "whiteListed";
+    public static final String CONTEXT = "context";
+    public static final String HTTP_METHODS = "httpMethods";
+    public static final String URL = "url";
+
+    private TenantDataFormat() {
+    }
+}
@@ -0,0 +1,326 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.migration;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.SQLQueryConstants;
+import org.wso2.intcloud.core.Util;
+import org.wso2.intcloud.core.dao.ApplicationDAO;
+import org.wso2.intcloud.core.quota.TenantQuotaManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Reads a line delimited stream in the {@link TenantDataFormat} and inserts its records into a tenant.
+ *
+ * The stream is processed one line at a time and records refer to their applications and versions through hash ids
+ * recomputed for the target tenant, so no lookup tables are kept and the memory used does not depend on the size of
+ * the tenant. Records are inserted in JDBC batches and the transaction is committed every commit interval records.
+ * If the import fails, the records committed before the failure remain in the database.
+ */
+public class TenantDataImporter {
+
+    private static final Log log = LogFactory.getLog(TenantDataImporter.class);
+
+    private static final String BATCH_SIZE = "TenantMigration.BatchSize";
+    private static final String COMMIT_INTERVAL = "TenantMigration.CommitInterval";
+
+    private static final int DEFAULT_BATCH_SIZE = DBUtil.MAX_BATCH_SIZE;
+    private static final int DEFAULT_COMMIT_INTERVAL = 5000;
+
+    private final int batchSize;
+    private final int commitInterval;
+
+    /**
+     * Create an importer with the batch size and commit interval configured in the intcloud configuration.
+     */
+    public TenantDataImporter() {
+        this(IntCloudUtil.getIntPropertyValue(BATCH_SIZE, DEFAULT_BATCH_SIZE),
+             IntCloudUtil.getIntPropertyValue(COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL));
+    }
+
+    /**
+     * Create an importer.
+     *
+     * @param batchSize      maximum number of records sent in one JDBC batch
+     * @param commitInterval number of records after which the transaction is committed
+     */
+    public TenantDataImporter(int batchSize, int commitInterval) {
+        if (batchSize < 1 || commitInterval < 1) {
+            throw new IllegalArgumentException("Batch size and commit interval should be positive, batch size : " +
+                                               batchSize + ", commit interval : " + commitInterval);
+        }
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * Import a tenant data stream into a tenant.
+     *
+     * @param tenantId tenant id to import the data into
+     * @param reader   reader of the stream, which is not closed
+     * @return number of records imported, excluding the header
+     * @throws IntCloudException
+     */
+    public long importTenantData(int tenantId, Reader reader) throws IntCloudException {
+
+        BufferedReader bufferedReader = reader instanceof BufferedReader ?
+                                        (BufferedReader) reader : new BufferedReader(reader);
+        Connection dbConnection = DBUtil.getDBConnection();
+        ApplicationDAO applicationDAO = new ApplicationDAO();
+
+        PreparedStatement preparedStatement = null;
+        String currentType = null;
+        int batchedRecords = 0;
+        long uncommittedRecords = 0;
+        long records = 0;
+        long lineNumber = 0;
+        boolean eventsImported = false;
+
+        try {
+            String line;
+            boolean headerRead = false;
+
+            while ((line = bufferedReader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                JSONObject record = new JSONObject(line);
+                String type = record.getString(TenantDataFormat.TYPE);
+
+                if (!headerRead) {
+                    validateHeader(record, type);
+                    headerRead = true;
+                    continue;
+                }
+
+                // Records of a type refer to records of the preceding types, which must be inserted first
+                if (!type.equals(currentType)) {
+                    executeBatch(preparedStatement, batchedRecords);
+                    DBUtil.closePreparedStatement(preparedStatement);
+                    batchedRecords = 0;
+                    preparedStatement = TenantDataFormat.TYPE_ICON.equals(type) ?
+                                        null : dbConnection.prepareStatement(getInsertQuery(type));
+                    currentType = type;
+                }
+
+                if (preparedStatement == null) {
+                    importIcon(dbConnection, applicationDAO, record, tenantId);
+                } else {
+                    bindRecord(preparedStatement, type, record, tenantId);
+                    preparedStatement.addBatch();
+                    if (++batchedRecords >= batchSize) {
+                        executeBatch(preparedStatement, batchedRecords);
+                        batchedRecords = 0;
+                    }
+                }
+
+                eventsImported |= TenantDataFormat.TYPE_EVENT.equals(type);
+                records++;
+                if (++uncommittedRecords >= commitInterval) {
+                    executeBatch(preparedStatement, batchedRecords);
+                    batchedRecords = 0;
+                    dbConnection.commit();
+                    uncommittedRecords = 0;
+                }
+            }
+
+            executeBatch(preparedStatement, batchedRecords);
+            dbConnection.commit();
+
+            if (eventsImported) {
+                refreshLatestEvents(dbConnection, tenantId);
+            }
+
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while importing data into tenant : " + tenantId + " at line : " + lineNumber;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } catch (JSONException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Invalid tenant data record at line : " + lineNumber + " while importing into tenant : " +
+                         tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } catch (IOException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while reading tenant data at line : " + lineNumber + " while importing into tenant : " +
+                         tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } catch (IntCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } catch (RuntimeException e) {
+            // closeConnection does not roll back, so the open chunk would be returned to the pool uncommitted
+            DBUtil.rollbackTransaction(dbConnection);
+            throw e;
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+            // Committed chunks are not reflected in the tenant quota counters
+            TenantQuotaManager.getInstance().invalidateTenant(tenantId);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Imported " + records + " records into tenant : " + tenantId);
+        }
+        return records;
+    }
+
+    private void validateHeader(JSONObject record, String type) throws IntCloudException {
+        if (!TenantDataFormat.TYPE_HEADER.equals(type)) {
+            String msg = "Tenant data stream does not start with a header record";
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+        int format = record.optInt(TenantDataFormat.FORMAT, -1);
+        if (format != TenantDataFormat.FORMAT_VERSION) {
+            String msg = "Unsupported tenant data format : " + format + ", expected format : " +
+                         TenantDataFormat.FORMAT_VERSION;
+            log.error(msg);
+            throw new IntCloudException(msg);
+        }
+    }
+
+    private String getInsertQuery(String type) throws IntCloudException {
+        if (TenantDataFormat.TYPE_APPLICATION.equals(type)) {
+            return SQLQueryConstants.IMPORT_APPLICATION;
+        } else if (TenantDataFormat.TYPE_VERSION.equals(type)) {
+            return SQLQueryConstants.IMPORT_VERSION;
+        } else if (TenantDataFormat.TYPE_API.equals(type)) {
+            return SQLQueryConstants.IMPORT_API;
+        } else if (TenantDataFormat.TYPE_EVENT.equals(type)) {
+            return SQLQueryConstants.ADD_APP_CREATION_EVENT;
+        }
+        String msg = "Unknown tenant data record type : " + type;
+        log.error(msg);
+        throw new IntCloudException(msg);
+    }
+
+    private void bindRecord(PreparedStatement preparedStatement, String type, JSONObject record, int tenantId)
+            throws SQLException, JSONException {
+
+        if (TenantDataFormat.TYPE_APPLICATION.equals(type)) {
+            String applicationName = record.getString(TenantDataFormat.NAME);
+            preparedStatement.setString(1, applicationName);
+            DBUtil.setHashId(preparedStatement, 2, Util.getApplicationHashIdValue(applicationName, tenantId));
+            preparedStatement.setString(3, getString(record, TenantDataFormat.DESCRIPTION));
+            preparedStatement.setInt(4, tenantId);
+            preparedStatement.setString(5, getString(record, TenantDataFormat.DEFAULT_VERSION));
+            preparedStatement.setString(6, getString(record, TenantDataFormat.CARBON_APPLICATION_NAME));
+            preparedStatement.setString(7, getString(record, TenantDataFormat.PARAM_CONFIGURATION));
+            preparedStatement.setString(8, getString(record, TenantDataFormat.TASK_CONFIGURATION));
+            preparedStatement.setString(9, getString(record, TenantDataFormat.APPLICATION_TYPE));
+
+        } else if (TenantDataFormat.TYPE_VERSION.equals(type)) {
+            String applicationName = record.getString(TenantDataFormat.APPLICATION);
+            String versionName = record.getString(TenantDataFormat.NAME);
+            preparedStatement.setString(1, versionName);
+            DBUtil.setHashId(preparedStatement, 2, Util.getVersionHashIdValue(applicationName, versionName, tenantId));
+            DBUtil.setHashId(preparedStatement, 3, Util.getApplicationHashIdValue(applicationName, tenantId));
+            if (record.isNull(TenantDataFormat.RUNTIME_ID)) {
+                preparedStatement.setNull(4, Types.INTEGER);
+            } else {
+                preparedStatement.setInt(4, record.getInt(TenantDataFormat.RUNTIME_ID));
+            }
+            preparedStatement.setString(5, getString(record, TenantDataFormat.STATUS));
+            preparedStatement.setInt(6, tenantId);
+            preparedStatement.setTimestamp(7, getTimestamp(record));
+            preparedStatement.setBoolean(8, record.optBoolean(TenantDataFormat.WHITE_LISTED, false));
+
+        } else if (TenantDataFormat.TYPE_API.equals(type)) {
+            preparedStatement.setString(1, getString(record, TenantDataFormat.NAME));
+            DBUtil.setHashId(preparedStatement, 2,
+                             Util.getApplicationHashIdValue(record.getString(TenantDataFormat.APPLICATION), tenantId));
+            preparedStatement.setString(3, getString(record, TenantDataFormat.CONTEXT));
+            preparedStatement.setString(4, getString(record, TenantDataFormat.HTTP_METHODS));
+            preparedStatement.setString(5, getString(record, TenantDataFormat.URL));
+            preparedStatement.setInt(6, tenantId);
+
+        } else {
+            preparedStatement.setString(1, record.getString(TenantDataFormat.NAME));
+            preparedStatement.setString(2, getString(record, TenantDataFormat.STATUS));
+            DBUtil.setHashId(preparedStatement, 3,
+                             Util.getVersionHashIdValue(record.getString(TenantDataFormat.APPLICATION),
+                                                        record.getString(TenantDataFormat.VERSION), tenantId));
+            preparedStatement.setTimestamp(4, getTimestamp(record));
+            preparedStatement.setString(5, getString(record, TenantDataFormat.DESCRIPTION));
+            preparedStatement.setInt(6, tenantId);
+        }
+    }
+
+    private void importIcon(Connection dbConnection, ApplicationDAO applicationDAO, JSONObject record, int tenantId)
+            throws IntCloudException, JSONException {
+
+        String applicationHashId = Util.getApplicationHashId(record.getString(TenantDataFormat.APPLICATION), tenantId);
+        int applicationId = applicationDAO.getApplicationId(dbConnection, applicationHashId);
+        byte[] content = Base64.decodeBase64(record.getString(TenantDataFormat.CONTENT));
+        applicationDAO.updateApplicationIcon(dbConnection, new ByteArrayInputStream(content), applicationId);
+    }
+
+    /**
+     * Record the latest imported event per version and event name, which the batched event inserts do not maintain.
+     */
+    private void refreshLatestEvents(Connection dbConnection, int tenantId) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement =
+                    dbConnection.prepareStatement(SQLQueryConstants.REFRESH_LATEST_APP_CREATION_EVENTS_OF_TENANT);
+            preparedStatement.setInt(1, tenantId);
+            preparedStatement.executeUpdate();
+            dbConnection.commit();
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    private static void executeBatch(PreparedStatement preparedStatement, int batchedRecords) throws SQLException {
+        if (preparedStatement != null && batchedRecords > 0) {
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private static String getString(JSONObject record, String field) {
+        return record.isNull(field) ? null : record.optString(field, null);
+    }
+
+    private static Timestamp getTimestamp(JSONObject record) throws JSONException {
+        return record.isNull(TenantDataFormat.TIMESTAMP) ?
+               null : new Timestamp(record.getLong(TenantDataFormat.TIMESTAMP));
+    }
+}
@@ -0,0 +1,417 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.quota;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.SQLQueryConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the application and version counts of every tenant in memory and resolves the application limit of a tenant.
+ *
+ * The counts of a tenant are loaded from the database the first time the tenant is seen and are then adjusted by
+ * ApplicationManager after every committed add or delete, so quota checks on the create path are plain memory reads.
+ * The effective application limit is the whitelisted limit of the tenant when there is one and the limit of the
+ * subscription plan of the tenant otherwise.
+ *
+ * Writes made outside this node, or lost to a failure between the commit and the counter update, are picked up by a
+ * background task that periodically reconciles the counters, whitelisted limits and plan limits with the database.
+ */
+public class TenantQuotaManager {
+
+    private static final Log log = LogFactory.getLog(TenantQuotaManager.class);
+
+    public static final int NO_LIMIT = -1;
+
+    private static final String RECONCILE_INTERVAL_SECONDS = "Quota.ReconcileIntervalSeconds";
+    private static final int DEFAULT_RECONCILE_INTERVAL_SECONDS = 300;
+    private static final String RECONCILE_THREAD_NAME = "IntCloudQuotaReconciler";
+
+    private static final TenantQuotaManager instance = new TenantQuotaManager();
+
+    private final ConcurrentHashMap<Integer, TenantQuota> quotas = new ConcurrentHashMap<>();
+    private final int reconcileIntervalSeconds;
+
+    private volatile Map<String, Integer> planLimits;
+    private ScheduledExecutorService scheduler;
+
+    private TenantQuotaManager() {
+
+        reconcileIntervalSeconds = IntCloudUtil.getIntPropertyValue(RECONCILE_INTERVAL_SECONDS,
+                                                                    DEFAULT_RECONCILE_INTERVAL_SECONDS);
+    }
+
+    public static TenantQuotaManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * Schedule the periodic reconciliation with the database. A non positive interval disables it.
+     */
+    public synchronized void start() {
+
+        if (reconcileIntervalSeconds <= 0 || scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, RECONCILE_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reconcile();
+                } catch (IntCloudException e) {
+                    log.error("Tenant quota reconciliation failed, it is retried in " + reconcileIntervalSeconds +
+                              " seconds", e);
+                } catch (RuntimeException e) {
+                    log.error("Unexpected error in tenant quota reconciliation", e);
+                }
+            }
+        }, reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the periodic reconciliation with the database.
+     */
+    public synchronized void stop() {
+
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    public int getApplicationCount(int tenantId) throws IntCloudException {
+        return getTenantQuota(tenantId).applications.get();
+    }
+
+    public int getVersionCount(int tenantId) throws IntCloudException {
+        return getTenantQuota(tenantId).versions.get();
+    }
+
+    /**
+     * Get the whitelisted application limit of a tenant.
+     *
+     * @param tenantId tenant id
+     * @return whitelisted application limit or NO_LIMIT if the tenant is not whitelisted
+     * @throws IntCloudException
+     */
+    public int getWhiteListedApplicationLimit(int tenantId) throws IntCloudException {
+        return getTenantQuota(tenantId).whiteListedApplicationLimit;
+    }
+
+    /**
+     * Resolve the application limit of a tenant, the whitelisted limit takes precedence over the plan limit.
+     *
+     * @param tenantId tenant id
+     * @param planName subscription plan of the tenant, may be null
+     * @return effective application limit or NO_LIMIT if neither the tenant nor its plan sets one
+     * @throws IntCloudException
+     */
+    public int getApplicationLimit(int tenantId, String planName) throws IntCloudException {
+
+        int whiteListedLimit = getTenantQuota(tenantId).whiteListedApplicationLimit;
+        if (whiteListedLimit != NO_LIMIT) {
+            return whiteListedLimit;
+        }
+        if (planName == null) {
+            return NO_LIMIT;
+        }
+        Integer planLimit = getPlanLimits().get(planName);
+        return planLimit != null ? planLimit : NO_LIMIT;
+    }
+
+    /**
+     * Check whether a tenant may create another application.
+     *
+     * @param tenantId tenant id
+     * @param planName subscription plan of the tenant, may be null
+     * @return true if the tenant is below its application limit
+     * @throws IntCloudException
+     */
+    public boolean canAddApplication(int tenantId, String planName) throws IntCloudException {
+
+        int limit = getApplicationLimit(tenantId, planName);
+        return limit == NO_LIMIT || getApplicationCount(tenantId) < limit;
+    }
+
+    public void applicationAdded(int tenantId, int versionCount) {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            quota.applications.incrementAndGet();
+            quota.versions.addAndGet(versionCount);
+        }
+    }
+
+    public void applicationDeleted(int tenantId, int versionCount) {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            decrement(quota.applications, 1);
+            decrement(quota.versions, versionCount);
+        }
+    }
+
+    public void versionAdded(int tenantId) {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            quota.versions.incrementAndGet();
+        }
+    }
+
+    public void versionDeleted(int tenantId) {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            decrement(quota.versions, 1);
+        }
+    }
+
+    public void tenantWhiteListed(int tenantId, int maxAppCount) {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            quota.whiteListedApplicationLimit = maxAppCount;
+        }
+    }
+
+    /**
+     * Drop the loaded counters of a tenant so that they are read from the database on next use, for bulk changes
+     * made without going through ApplicationManager.
+     *
+     * @param tenantId tenant id
+     */
+    public void invalidateTenant(int tenantId) {
+        quotas.remove(tenantId);
+    }
+
+    /**
+     * Bring the counters and limits of all loaded tenants in line with the database. Counters that changed while the
+     * database was read are left alone, they are corrected by the next run.
+     *
+     * @throws IntCloudException
+     */
+    public void reconcile() throws IntCloudException {
+
+        Map<Integer, Integer> applicationsBefore = new HashMap<>();
+        Map<Integer, Integer> versionsBefore = new HashMap<>();
+        for (Map.Entry<Integer, TenantQuota> entry : quotas.entrySet()) {
+            applicationsBefore.put(entry.getKey(), entry.getValue().applications.get());
+            versionsBefore.put(entry.getKey(), entry.getValue().versions.get());
+        }
+
+        Map<Integer, Integer> applicationCounts;
+        Map<Integer, Integer> versionCounts;
+        Map<Integer, Integer> whiteListedLimits;
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            applicationCounts = getCountsByTenant(dbConnection, SQLQueryConstants.GET_APPLICATION_COUNT_BY_TENANT);
+            versionCounts = getCountsByTenant(dbConnection, SQLQueryConstants.GET_VERSION_COUNT_BY_TENANT);
+            whiteListedLimits = getCountsByTenant(dbConnection, SQLQueryConstants.GET_WHITE_LISTED_TENANT_LIMITS);
+            planLimits = loadPlanLimits(dbConnection);
+        } catch (SQLException e) {
+            String msg = "Error while reading tenant quota usage for reconciliation";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Integer, Integer> entry : applicationsBefore.entrySet()) {
+            Integer tenantId = entry.getKey();
+            TenantQuota quota = quotas.get(tenantId);
+            if (quota == null) {
+                continue;
+            }
+            if (reconcileCounter(quota.applications, entry.getValue(), valueOf(applicationCounts, tenantId, 0))) {
+                corrected++;
+            }
+            if (reconcileCounter(quota.versions, versionsBefore.get(tenantId), valueOf(versionCounts, tenantId, 0))) {
+                corrected++;
+            }
+            quota.whiteListedApplicationLimit = valueOf(whiteListedLimits, tenantId, NO_LIMIT);
+        }
+
+        if (corrected > 0 && log.isDebugEnabled()) {
+            log.debug("Corrected " + corrected + " tenant quota counters during reconciliation");
+        }
+    }
+
+    private TenantQuota getTenantQuota(int tenantId) throws IntCloudException {
+
+        TenantQuota quota = quotas.get(tenantId);
+        if (quota != null) {
+            return quota;
+        }
+
+        quota = loadTenantQuota(tenantId);
+        TenantQuota existing = quotas.putIfAbsent(tenantId, quota);
+        return existing != null ? existing : quota;
+    }
+
+    private TenantQuota loadTenantQuota(int tenantId) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            TenantQuota quota = new TenantQuota();
+            quota.applications.set(getTenantCount(dbConnection, SQLQueryConstants.GET_TENANT_APPLICATION_COUNT,
+                                                  tenantId, 0));
+            quota.versions.set(getTenantCount(dbConnection, SQLQueryConstants.GET_TENANT_VERSION_COUNT, tenantId, 0));
+            quota.whiteListedApplicationLimit = getTenantCount(dbConnection,
+                                                               SQLQueryConstants.GET_WHITE_LISTED_TENANT_LIMIT,
+                                                               tenantId, NO_LIMIT);
+            return quota;
+        } catch (SQLException e) {
+            String msg = "Error while loading the quota usage of tenant : " + tenantId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private Map<String, Integer> getPlanLimits() throws IntCloudException {
+
+        Map<String, Integer> limits = planLimits;
+        if (limits != null) {
+            return limits;
+        }
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            limits = loadPlanLimits(dbConnection);
+            planLimits = limits;
+            return limits;
+        } catch (SQLException e) {
+            String msg = "Error while loading the application limits of subscription plans";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private Map<String, Integer> loadPlanLimits(Connection dbConnection) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Map<String, Integer> limits = new HashMap<>();
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_SUBSCRIPTION_PLAN_LIMITS);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                limits.put(resultSet.getString(SQLQueryConstants.PLAN_NAME),
+                           resultSet.getInt(SQLQueryConstants.MAX_APPLICATIONS));
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return Collections.unmodifiableMap(limits);
+    }
+
+    private int getTenantCount(Connection dbConnection, String query, int tenantId, int defaultValue)
+            throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        try {
+            preparedStatement = dbConnection.prepareStatement(query);
+            preparedStatement.setInt(1, tenantId);
+            resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : defaultValue;
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Run a query returning tenant id and value pairs, later rows of a tenant replace earlier ones.
+     */
+    private Map<Integer, Integer> getCountsByTenant(Connection dbConnection, String query) throws SQLException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Map<Integer, Integer> counts = new HashMap<>();
+        try {
+            preparedStatement = dbConnection.prepareStatement(query);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                counts.put(resultSet.getInt(1), resultSet.getInt(2));
+            }
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return counts;
+    }
+
+    private static boolean reconcileCounter(AtomicInteger counter, int before, int actual) {
+        return before != actual && counter.compareAndSet(before, actual);
+    }
+
+    private static int valueOf(Map<Integer, Integer> values, Integer tenantId, int defaultValue) {
+
+        Integer value = values.get(tenantId);
+        return value != null ? value : defaultValue;
+    }
+
+    private static void decrement(AtomicInteger counter, int delta) {
+
+        int current;
+        do {
+            current = counter.get();
+        } while (!counter.compareAndSet(current, Math.max(0, current - delta)));
+    }
+
+    private static class TenantQuota {
+
+        private final AtomicInteger applications = new AtomicInteger();
+        private final AtomicInteger versions = new AtomicInteger();
+        private volatile int whiteListedApplicationLimit = NO_LIMIT;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.reaper;
+
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.dto.Version;
+
+/**
+ * Reclaims a version found idle by the IdleVersionReaper, for example by stopping its deployment.
+ *
+ * Implementations are called from several worker threads at once and must be thread safe.
+ */
+public interface IdleVersionHandler {
+
+    /**
+     * Handle an idle version.
+     *
+     * @param version idle version with its hash id, name, runtime id, status, tenant id and timestamp set
+     * @throws IntCloudException if the version could not be handled, it is picked up again by the next sweep
+     */
+    void handleIdleVersion(Version version) throws IntCloudException;
+}
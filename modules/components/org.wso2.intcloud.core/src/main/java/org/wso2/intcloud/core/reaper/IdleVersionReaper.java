@@ -0,0 +1,441 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.intcloud.core.reaper;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.common.util.IntCloudUtil;
+import org.wso2.intcloud.core.DBUtil;
+import org.wso2.intcloud.core.SQLQueryConstants;
+import org.wso2.intcloud.core.dto.Version;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the running versions that are not whitelisted and are older than the configured number of hours and hands
+ * them to the registered IdleVersionHandler.
+ *
+ * A sweep fixes its cutoff time when it starts and walks the candidate versions in (timestamp, id) order in chunks,
+ * using the status, is_white_listed and timestamp index of AC_VERSION. The versions of a chunk are handled in parallel
+ * by a pool of worker threads and skipped when their tenant is whitelisted, using the whitelisted tenants read once
+ * per sweep. The position after every chunk is stored in AC_REAPER_CHECKPOINT, so a sweep interrupted by a restart is
+ * resumed from the last completed chunk instead of starting over.
+ *
+ * Only one node of a cluster should run the reaper.
+ */
+public class IdleVersionReaper {
+
+    private static final Log log = LogFactory.getLog(IdleVersionReaper.class);
+
+    private static final String REAPER_ENABLED = "Reaper.Enabled";
+    private static final String IDLE_HOURS = "Reaper.IdleHours";
+    private static final String CHUNK_SIZE = "Reaper.ChunkSize";
+    private static final String WORKER_THREADS = "Reaper.WorkerThreads";
+    private static final String INTERVAL_MINUTES = "Reaper.IntervalMinutes";
+
+    private static final int DEFAULT_IDLE_HOURS = 24;
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final int DEFAULT_WORKER_THREADS = 4;
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+
+    private static final String CHECKPOINT_NAME = "idle-versions";
+    private static final Timestamp SWEEP_START = new Timestamp(0);
+    private static final String REAPER_THREAD_NAME = "IntCloudIdleVersionReaper";
+    private static final String WORKER_THREAD_NAME = "IntCloudIdleVersionWorker-";
+
+    private static final IdleVersionReaper instance = new IdleVersionReaper();
+
+    private final boolean enabled;
+    private final int idleHours;
+    private final int chunkSize;
+    private final int workerThreads;
+    private final int intervalMinutes;
+
+    private volatile IdleVersionHandler handler;
+    private ScheduledExecutorService scheduler;
+
+    private IdleVersionReaper() {
+
+        enabled = Boolean.parseBoolean(IntCloudUtil.getPropertyValue(REAPER_ENABLED, "false"));
+        idleHours = IntCloudUtil.getIntPropertyValue(IDLE_HOURS, DEFAULT_IDLE_HOURS);
+        chunkSize = Math.max(1, IntCloudUtil.getIntPropertyValue(CHUNK_SIZE, DEFAULT_CHUNK_SIZE));
+        workerThreads = Math.max(1, IntCloudUtil.getIntPropertyValue(WORKER_THREADS, DEFAULT_WORKER_THREADS));
+        intervalMinutes = Math.max(1, IntCloudUtil.getIntPropertyValue(INTERVAL_MINUTES, DEFAULT_INTERVAL_MINUTES));
+    }
+
+    public static IdleVersionReaper getInstance() {
+        return instance;
+    }
+
+    /**
+     * Register the handler that idle versions are handed to. The handler must be registered before {@link #start()},
+     * as the reaper is not started without one. Sweeps are skipped while no handler is registered.
+     *
+     * @param handler idle version handler, null to unregister
+     */
+    public void setHandler(IdleVersionHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Schedule the periodic sweep if the reaper is enabled and an idle version handler is registered.
+     */
+    public synchronized void start() {
+
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        if (handler == null) {
+            log.warn("Idle version reaper is enabled but not started as no idle version handler is registered");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, REAPER_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runSweep();
+                } catch (IntCloudException e) {
+                    log.error("Idle version sweep failed, it is resumed in " + intervalMinutes + " minutes", e);
+                } catch (RuntimeException e) {
+                    log.error("Unexpected error in idle version sweep", e);
+                }
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Scheduled idle version sweep, idle hours : " + idleHours + ", chunk size : " + chunkSize +
+                      ", worker threads : " + workerThreads + ", interval minutes : " + intervalMinutes);
+        }
+    }
+
+    /**
+     * Stop the periodic sweep. A sweep in progress stops after its current chunk and is resumed on next start.
+     */
+    public synchronized void stop() {
+
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Resume the unfinished sweep or start a new one and run it to completion.
+     *
+     * @return number of idle versions handed to the handler
+     * @throws IntCloudException
+     */
+    public synchronized long runSweep() throws IntCloudException {
+
+        IdleVersionHandler currentHandler = handler;
+        if (currentHandler == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Skipping idle version sweep as no idle version handler is registered");
+            }
+            return 0;
+        }
+
+        Checkpoint checkpoint = getCheckpoint();
+        if (checkpoint == null || checkpoint.completed) {
+            checkpoint = new Checkpoint(getCutoff());
+        } else if (log.isDebugEnabled()) {
+            log.debug("Resuming idle version sweep with cutoff : " + checkpoint.cutoff + " after version id : " +
+                      checkpoint.lastVersionId);
+        }
+        Set<Integer> whiteListedTenants = getWhiteListedTenants();
+
+        long handled = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, WORKER_THREAD_NAME + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<IdleVersion> chunk = getIdleVersions(checkpoint);
+            while (!chunk.isEmpty()) {
+                int chunkHandled = handleChunk(workers, currentHandler, chunk, whiteListedTenants);
+                handled += chunkHandled;
+
+                IdleVersion last = chunk.get(chunk.size() - 1);
+                checkpoint.lastTimestamp = last.timestamp;
+                checkpoint.lastVersionId = last.id;
+                checkpoint.processed += chunkHandled;
+                saveCheckpoint(checkpoint);
+
+                chunk = getIdleVersions(checkpoint);
+            }
+            checkpoint.completed = true;
+            saveCheckpoint(checkpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Idle version sweep interrupted after version id : " + checkpoint.lastVersionId);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Handled " + handled + " idle versions, " + checkpoint.processed + " in the current sweep");
+        }
+        return handled;
+    }
+
+    private int handleChunk(ExecutorService workers, final IdleVersionHandler currentHandler, List<IdleVersion> chunk,
+                            Set<Integer> whiteListedTenants) throws InterruptedException {
+
+        List<Callable<Boolean>> tasks = new ArrayList<>(chunk.size());
+        for (IdleVersion idleVersion : chunk) {
+            final Version version = idleVersion.version;
+            if (whiteListedTenants.contains(version.getTenantId())) {
+                continue;
+            }
+            tasks.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    try {
+                        currentHandler.handleIdleVersion(version);
+                        return true;
+                    } catch (IntCloudException e) {
+                        log.error("Error while handling idle version with hash id : " + version.getHashId(), e);
+                    } catch (RuntimeException e) {
+                        log.error("Unexpected error while handling idle version with hash id : " +
+                                  version.getHashId(), e);
+                    }
+                    return false;
+                }
+            });
+        }
+
+        int handled = 0;
+        for (Future<Boolean> result : workers.invokeAll(tasks)) {
+            try {
+                if (result.get()) {
+                    handled++;
+                }
+            } catch (ExecutionException e) {
+                log.error("Unexpected error while handling an idle version", e);
+            }
+        }
+        return handled;
+    }
+
+    private List<IdleVersion> getIdleVersions(Checkpoint checkpoint) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        List<IdleVersion> versions = new ArrayList<>(chunkSize);
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_IDLE_VERSIONS_AFTER);
+            preparedStatement.setTimestamp(1, checkpoint.cutoff);
+            Timestamp lastTimestamp = checkpoint.lastTimestamp != null ? checkpoint.lastTimestamp : SWEEP_START;
+            preparedStatement.setTimestamp(2, lastTimestamp);
+            preparedStatement.setTimestamp(3, lastTimestamp);
+            preparedStatement.setInt(4, checkpoint.lastVersionId);
+            preparedStatement.setInt(5, chunkSize);
+            resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                Version version = new Version();
+                version.setVersionName(resultSet.getString(SQLQueryConstants.NAME));
+                version.setHashIdValue(DBUtil.getHashIdValue(resultSet, SQLQueryConstants.HASH_ID));
+                version.setRuntimeId(resultSet.getInt(SQLQueryConstants.RUNTIME_ID));
+                version.setStatus(resultSet.getString(SQLQueryConstants.STATUS));
+                version.setTenantId(resultSet.getInt(SQLQueryConstants.TENANT_ID));
+                Timestamp timestamp = resultSet.getTimestamp(SQLQueryConstants.EVENT_TIMESTAMP);
+                version.setCreatedTimestamp(timestamp);
+                versions.add(new IdleVersion(resultSet.getInt(SQLQueryConstants.ID), timestamp, version));
+            }
+            dbConnection.commit();
+        } catch (SQLException e) {
+            String msg = "Error while retrieving idle versions after version id : " + checkpoint.lastVersionId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+        return versions;
+    }
+
+    private Timestamp getCutoff() throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_IDLE_VERSION_CUTOFF);
+            preparedStatement.setInt(1, idleHours);
+            resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return resultSet.getTimestamp(1);
+        } catch (SQLException e) {
+            String msg = "Error while calculating the idle version cutoff for idle hours : " + idleHours;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private Set<Integer> getWhiteListedTenants() throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Set<Integer> tenants = new HashSet<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_WHITE_LISTED_TENANT_IDS);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                tenants.add(resultSet.getInt(SQLQueryConstants.TENANT_ID));
+            }
+        } catch (SQLException e) {
+            String msg = "Error while retrieving the whitelisted tenants";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+        return Collections.unmodifiableSet(tenants);
+    }
+
+    private Checkpoint getCheckpoint() throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_REAPER_CHECKPOINT);
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+            resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next()) {
+                return null;
+            }
+
+            Checkpoint checkpoint = new Checkpoint(resultSet.getTimestamp(SQLQueryConstants.CUTOFF));
+            checkpoint.lastTimestamp = resultSet.getTimestamp(SQLQueryConstants.LAST_TIMESTAMP);
+            checkpoint.lastVersionId = resultSet.getInt(SQLQueryConstants.LAST_VERSION_ID);
+            checkpoint.processed = resultSet.getLong(SQLQueryConstants.PROCESSED);
+            checkpoint.completed = resultSet.getBoolean(SQLQueryConstants.COMPLETED);
+            return checkpoint;
+        } catch (SQLException e) {
+            String msg = "Error while retrieving the idle version sweep checkpoint";
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private void saveCheckpoint(Checkpoint checkpoint) throws IntCloudException {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.SAVE_REAPER_CHECKPOINT);
+            preparedStatement.setString(1, CHECKPOINT_NAME);
+            preparedStatement.setTimestamp(2, checkpoint.cutoff);
+            preparedStatement.setTimestamp(3, checkpoint.lastTimestamp);
+            preparedStatement.setInt(4, checkpoint.lastVersionId);
+            preparedStatement.setLong(5, checkpoint.processed);
+            preparedStatement.setBoolean(6, checkpoint.completed);
+            preparedStatement.execute();
+            dbConnection.commit();
+        } catch (SQLException e) {
+            String msg = "Error while saving the idle version sweep checkpoint after version id : " +
+                         checkpoint.lastVersionId;
+            log.error(msg, e);
+            throw new IntCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private static class IdleVersion {
+
+        private final int id;
+        private final Timestamp timestamp;
+        private final Version version;
+
+        private IdleVersion(int id, Timestamp timestamp, Version version) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.version = version;
+        }
+    }
+
+    private static class Checkpoint {
+
+        private final Timestamp cutoff;
+        private Timestamp lastTimestamp;
+        private int lastVersionId;
+        private long processed;
+        private boolean completed;
+
+        private Checkpoint(Timestamp cutoff) {
+            this.cutoff = cutoff;
+        }
+    }
+}
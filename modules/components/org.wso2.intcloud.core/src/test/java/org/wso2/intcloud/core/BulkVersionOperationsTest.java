@@ -0,0 +1,123 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bulk operations of {@link ApplicationManager} against the seeded test database, with more hash ids than fit
+ * in one IN list of {@link DBUtil#MAX_IN_LIST_SIZE} elements.
+ */
+public class BulkVersionOperationsTest {
+
+    private static final int APPLICATION_COUNT = DBUtil.MAX_IN_LIST_SIZE + 50;
+
+    private TestDatabase database;
+
+    @Before
+    public void createDatabase() throws SQLException {
+        database = TestDatabase.create(APPLICATION_COUNT);
+        DBUtil.setDataSource(database.getDataSource());
+    }
+
+    @After
+    public void closeDatabase() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    public void updatesStatusesAcrossChunks() throws Exception {
+
+        int versionCount = database.getVersionCount();
+        assertTrue(versionCount > 2 * DBUtil.MAX_IN_LIST_SIZE);
+
+        Map<String, String> versionStatuses = new LinkedHashMap<>();
+        for (int i = 0; i < versionCount; i++) {
+            versionStatuses.put(database.getVersionHashId(i), i % 2 == 0 ? "stopped" : "error");
+        }
+        versionStatuses.put("unknown", "stopped");
+
+        assertEquals(versionCount, ApplicationManager.updateVersionStatuses(versionStatuses));
+        assertEquals(versionCount / 2, count("SELECT COUNT(*) FROM AC_VERSION WHERE status='stopped'"));
+        assertEquals(versionCount / 2, count("SELECT COUNT(*) FROM AC_VERSION WHERE status='error'"));
+    }
+
+    @Test
+    public void deletesVersionsAcrossChunks() throws Exception {
+
+        int versionCount = database.getVersionCount();
+        List<String> versionHashIds = new ArrayList<>();
+        for (int i = 0; i < versionCount - 1; i++) {
+            versionHashIds.add(database.getVersionHashId(i));
+        }
+        // Duplicates and unknown hash ids are skipped
+        versionHashIds.add(database.getVersionHashId(0));
+        versionHashIds.add("unknown");
+
+        assertEquals(versionCount - 1, ApplicationManager.deleteVersions(versionHashIds));
+        assertEquals(1, count("SELECT COUNT(*) FROM AC_VERSION"));
+        assertEquals(0, count("SELECT COUNT(*) FROM AC_EVENT WHERE version_id NOT IN (SELECT id FROM AC_VERSION)"));
+        assertEquals(0, count("SELECT COUNT(*) FROM AC_EVENT_LATEST " +
+                              "WHERE version_id NOT IN (SELECT id FROM AC_VERSION)"));
+        assertEquals(APPLICATION_COUNT, count("SELECT COUNT(*) FROM AC_APPLICATION"));
+    }
+
+    @Test
+    public void deletesApplicationsAcrossChunks() throws Exception {
+
+        List<String> applicationHashIds = new ArrayList<>();
+        for (int i = 0; i < APPLICATION_COUNT - 1; i++) {
+            applicationHashIds.add(database.getApplicationHashId(i));
+        }
+        applicationHashIds.add(database.getApplicationHashId(0));
+        applicationHashIds.add("unknown");
+
+        assertEquals(APPLICATION_COUNT - 1, ApplicationManager.deleteApplications(applicationHashIds));
+        assertEquals(1, count("SELECT COUNT(*) FROM AC_APPLICATION"));
+        assertEquals(2, count("SELECT COUNT(*) FROM AC_VERSION"));
+        assertEquals(0, count("SELECT COUNT(*) FROM AC_EVENT WHERE version_id NOT IN (SELECT id FROM AC_VERSION)"));
+        assertEquals(0, count("SELECT COUNT(*) FROM AC_EVENT_LATEST " +
+                              "WHERE version_id NOT IN (SELECT id FROM AC_VERSION)"));
+    }
+
+    private int count(String sql) throws SQLException {
+
+        Connection dbConnection = database.getDataSource().getConnection();
+        try {
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(sql);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1);
+        } finally {
+            dbConnection.close();
+        }
+    }
+}
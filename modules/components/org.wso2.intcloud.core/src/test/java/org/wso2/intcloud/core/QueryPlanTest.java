@@ -0,0 +1,161 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Guards the indexes behind the lookups by hash id, version id and carbon application name. Every statement of
+ * {@link SQLQueryConstants} filtering on one of these columns is explained by MySQL against the seeded test database
+ * and must not scan a table. Access paths are only meaningful for the production database, so the test is skipped
+ * unless a MySQL database is configured for {@link TestDatabase}.
+ */
+public class QueryPlanTest {
+
+    private static final Pattern INDEXED_LOOKUP =
+            Pattern.compile("(hash_id|version_id|capp_name)\\s*(=\\s*\\?|IN\\s*\\()", Pattern.CASE_INSENSITIVE);
+
+    // Parameters of a LIMIT clause have to be bound as numbers, all others are bound as strings
+    private static final Pattern LIMIT_PARAMETER =
+            Pattern.compile("(LIMIT\\s*(\\?\\s*,\\s*)?|OFFSET\\s*)$", Pattern.CASE_INSENSITIVE);
+
+    // Access type of MySQL for a full table scan
+    private static final String TABLE_SCAN = "ALL";
+
+    /*
+     * Statements on tables and columns which intcloud.sql does not define either (AC_DEPLOYMENT,
+     * AC_VERSION.deployment_id, AC_TAG, AC_RUNTIME_PROPERTY and AC_CONTAINER_SERVICE_PROXY), so they cannot be
+     * explained against the schema
+     */
+    private static final Set<String> UNDEFINED_TABLE_STATEMENTS = new HashSet<>(Arrays.asList(
+            "UPDATE_RUNTIME_PROPERTIES", "DELETE_RUNTIME_PROPERTY", "UPDATE_TAG", "DELETE_TAG",
+            "UPDATE_VERSION_WITH_DEPLOYMENT", "DELETE_DEPLOYMENT", "DELETE_ALL_DEPLOYMENT_OF_APPLICATION",
+            "UPDATE_CONTAINER_SERVICE_PROXY"));
+
+    private static TestDatabase database;
+
+    @BeforeClass
+    public static void createDatabase() throws SQLException {
+        Assume.assumeTrue("A MySQL database is not configured with " + TestDatabase.MYSQL_URL,
+                          TestDatabase.isMySQLConfigured());
+        database = TestDatabase.create(1000);
+    }
+
+    @AfterClass
+    public static void closeDatabase() throws SQLException {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    public void lookupsUseIndexes() throws Exception {
+
+        List<String> explained = new ArrayList<>();
+        List<String> tableScans = new ArrayList<>();
+        Connection dbConnection = database.getDataSource().getConnection();
+
+        try {
+            for (Field field : SQLQueryConstants.class.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class ||
+                    UNDEFINED_TABLE_STATEMENTS.contains(field.getName())) {
+                    continue;
+                }
+                String sql = (String) field.get(null);
+                if (!INDEXED_LOOKUP.matcher(sql).find()) {
+                    continue;
+                }
+                List<String> scannedTables = getScannedTables(dbConnection, sql);
+                explained.add(field.getName());
+                if (!scannedTables.isEmpty()) {
+                    tableScans.add(field.getName() + " scans " + scannedTables);
+                }
+            }
+        } finally {
+            dbConnection.close();
+        }
+
+        assertFalse("No statements were explained", explained.isEmpty());
+        assertTrue("Statements scanning a table :\n" + tableScans, tableScans.isEmpty());
+    }
+
+    @Test
+    public void tableScansAreDetected() throws Exception {
+
+        Connection dbConnection = database.getDataSource().getConnection();
+        try {
+            assertFalse(getScannedTables(dbConnection, "SELECT id FROM AC_APPLICATION WHERE description=?").isEmpty());
+        } finally {
+            dbConnection.close();
+        }
+    }
+
+    /**
+     * Explain a statement and get the tables it reads without using an index.
+     */
+    private static List<String> getScannedTables(Connection dbConnection, String sql) throws SQLException {
+
+        // IN lists are explained with a single element
+        String statement = sql.contains("%s") ? DBUtil.buildInListQuery(sql, 1) : sql;
+
+        List<String> scannedTables = new ArrayList<>();
+        PreparedStatement preparedStatement = dbConnection.prepareStatement("EXPLAIN " + statement);
+        try {
+            // Non null values, a comparison with null would be optimized away without choosing an access path
+            int index = 1;
+            for (int i = statement.indexOf('?'); i >= 0; i = statement.indexOf('?', i + 1)) {
+                if (LIMIT_PARAMETER.matcher(statement.substring(0, i)).find()) {
+                    preparedStatement.setInt(index++, 10);
+                } else {
+                    preparedStatement.setString(index++, "1");
+                }
+            }
+            ResultSet resultSet = preparedStatement.executeQuery();
+            try {
+                while (resultSet.next()) {
+                    if (TABLE_SCAN.equalsIgnoreCase(resultSet.getString("type"))) {
+                        scannedTables.add(resultSet.getString("table"));
+                    }
+                }
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            preparedStatement.close();
+        }
+        return scannedTables;
+    }
+}
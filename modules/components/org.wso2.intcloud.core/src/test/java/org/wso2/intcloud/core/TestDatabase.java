@@ -0,0 +1,351 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.apache.commons.io.IOUtils;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Database seeded with the applications of one tenant, used by the DAO tests and the benchmarks.
+ *
+ * The database is an in-memory H2 database in MySQL mode, unless a MySQL database is given with the
+ * intcloud.test.mysql.url, intcloud.test.mysql.username and intcloud.test.mysql.password system properties, for
+ * example mvn test -Dintcloud.test.mysql.url=jdbc:mysql://localhost:3306/intcloud_test. The tables of the MySQL
+ * database are dropped and created again by every {@link #create(int)}, so it must be a database used for tests only.
+ *
+ * Every application has the versions in {@link #VERSION_NAMES} and one API, and every version has one event per name
+ * in {@link #EVENT_NAMES}, which is also its latest event. Rows are inserted in id order, so the ids of the seeded
+ * rows are derived from the application index instead of being read back.
+ */
+public class TestDatabase {
+
+    public static final int TENANT_ID = 1;
+    public static final String[] VERSION_NAMES = {"1.0.0", "2.0.0"};
+    public static final String[] EVENT_NAMES = {"Build", "Deploy", "Start"};
+
+    public static final String MYSQL_URL = "intcloud.test.mysql.url";
+    public static final String MYSQL_USERNAME = "intcloud.test.mysql.username";
+    public static final String MYSQL_PASSWORD = "intcloud.test.mysql.password";
+
+    private static final String SCHEMA_SCRIPT = "/intcloud-test-schema.sql";
+    private static final Pattern CREATE_TABLE = Pattern.compile("^CREATE TABLE (\\w+)", Pattern.MULTILINE);
+    private static final int BATCH_SIZE = 1000;
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+
+    private final DataSource dataSource;
+    private final boolean mySQL;
+    private final String[] applicationHashIds;
+    private final String[] versionHashIds;
+
+    private TestDatabase(DataSource dataSource, boolean mySQL, int applicationCount) {
+        this.dataSource = dataSource;
+        this.mySQL = mySQL;
+        this.applicationHashIds = new String[applicationCount];
+        this.versionHashIds = new String[applicationCount * VERSION_NAMES.length];
+    }
+
+    /**
+     * Check whether the tests run against MySQL instead of H2.
+     *
+     * @return
+     */
+    public static boolean isMySQLConfigured() {
+        String url = System.getProperty(MYSQL_URL);
+        return url != null && !url.isEmpty();
+    }
+
+    /**
+     * Create a database and seed it with the given number of applications.
+     *
+     * @param applicationCount number of applications of the tenant
+     * @return
+     * @throws SQLException
+     */
+    public static TestDatabase create(int applicationCount) throws SQLException {
+
+        TestDatabase database;
+        if (isMySQLConfigured()) {
+            org.apache.tomcat.jdbc.pool.DataSource dataSource = new org.apache.tomcat.jdbc.pool.DataSource();
+            dataSource.setDriverClassName("com.mysql.jdbc.Driver");
+            dataSource.setUrl(System.getProperty(MYSQL_URL));
+            dataSource.setUsername(System.getProperty(MYSQL_USERNAME));
+            dataSource.setPassword(System.getProperty(MYSQL_PASSWORD));
+            database = new TestDatabase(dataSource, true, applicationCount);
+        } else {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:intcloud" + databaseCount.incrementAndGet() +
+                              ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+            database = new TestDatabase(withH2Statements(dataSource), false, applicationCount);
+        }
+
+        Connection connection = database.dataSource.getConnection();
+        try {
+            database.createSchema(connection);
+            connection.setAutoCommit(false);
+            database.seed(connection);
+            connection.commit();
+        } finally {
+            connection.close();
+        }
+        return database;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isMySQL() {
+        return mySQL;
+    }
+
+    public int getApplicationCount() {
+        return applicationHashIds.length;
+    }
+
+    /**
+     * Get the id of the application with the given index.
+     *
+     * @param index application index
+     * @return
+     */
+    public int getApplicationId(int index) {
+        return index + 1;
+    }
+
+    public String getApplicationHashId(int index) {
+        return applicationHashIds[index];
+    }
+
+    public int getVersionCount() {
+        return versionHashIds.length;
+    }
+
+    public String getVersionHashId(int index) {
+        return versionHashIds[index];
+    }
+
+    /**
+     * Drop an H2 database, or release the connections to a MySQL database whose tables are kept for inspection.
+     *
+     * @throws SQLException
+     */
+    public void close() throws SQLException {
+
+        if (mySQL) {
+            ((org.apache.tomcat.jdbc.pool.DataSource) dataSource).close();
+            return;
+        }
+
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                statement.execute("SHUTDOWN");
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void createSchema(Connection connection) throws SQLException {
+
+        String script;
+        InputStream inputStream = TestDatabase.class.getResourceAsStream(SCHEMA_SCRIPT);
+        try {
+            script = IOUtils.toString(inputStream, "UTF-8");
+        } catch (IOException e) {
+            throw new SQLException("Could not read the schema script : " + SCHEMA_SCRIPT, e);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+
+        List<String> statements = new ArrayList<>();
+        if (mySQL) {
+            // Tables are dropped in the reverse order of their creation, so that referencing tables go first
+            List<String> tables = new ArrayList<>();
+            Matcher matcher = CREATE_TABLE.matcher(script);
+            while (matcher.find()) {
+                tables.add(0, matcher.group(1));
+            }
+            for (String table : tables) {
+                statements.add("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+            if (!sql.trim().isEmpty()) {
+                statements.add(sql.trim());
+            }
+        }
+
+        Statement statement = connection.createStatement();
+        try {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void seed(Connection connection) throws SQLException {
+
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        PreparedStatement applications = connection.prepareStatement(
+                "INSERT INTO AC_APPLICATION (name, hash_id, description, tenant_id, default_version, app_type_id, " +
+                "capp_name) VALUES (?, ?, ?, ?, ?, 1, ?)");
+        PreparedStatement versions = connection.prepareStatement(
+                "INSERT INTO AC_VERSION (name, hash_id, application_id, runtime_id, status, tenant_id, timestamp) " +
+                "VALUES (?, ?, ?, 1, 'running', ?, ?)");
+        PreparedStatement apis = connection.prepareStatement(
+                "INSERT INTO AC_API (name, context, http_methods, application_id, url, tenant_id) VALUES " +
+                "(?, ?, 'GET,POST', ?, ?, ?)");
+        PreparedStatement events = connection.prepareStatement(
+                "INSERT INTO AC_EVENT (name, status, version_id, timestamp, description, tenant_id) VALUES " +
+                "(?, 'success', ?, ?, ?, ?)");
+        PreparedStatement latestEvents = connection.prepareStatement(
+                "INSERT INTO AC_EVENT_LATEST (version_id, name, event_id, status, timestamp, description, " +
+                "tenant_id) VALUES (?, ?, ?, 'success', ?, ?, ?)");
+
+        try {
+            int versionIndex = 0;
+            int eventId = 0;
+            for (int i = 0; i < applicationHashIds.length; i++) {
+                String applicationName = "application" + i;
+                applicationHashIds[i] = Util.getApplicationHashId(applicationName, TENANT_ID);
+
+                applications.setString(1, applicationName);
+                applications.setString(2, applicationHashIds[i]);
+                applications.setString(3, "Test application " + i);
+                applications.setInt(4, TENANT_ID);
+                applications.setString(5, VERSION_NAMES[VERSION_NAMES.length - 1]);
+                applications.setString(6, applicationName + "CompositeApplication");
+                applications.addBatch();
+
+                apis.setString(1, applicationName + "API");
+                apis.setString(2, "/" + applicationName);
+                apis.setInt(3, getApplicationId(i));
+                apis.setString(4, "http://localhost:8280/" + applicationName);
+                apis.setInt(5, TENANT_ID);
+                apis.addBatch();
+
+                for (String versionName : VERSION_NAMES) {
+                    versionHashIds[versionIndex] = Util.getVersionHashId(applicationName, versionName, TENANT_ID);
+                    int versionId = ++versionIndex;
+
+                    versions.setString(1, versionName);
+                    versions.setString(2, versionHashIds[versionId - 1]);
+                    versions.setInt(3, getApplicationId(i));
+                    versions.setInt(4, TENANT_ID);
+                    versions.setTimestamp(5, timestamp);
+                    versions.addBatch();
+
+                    for (String eventName : EVENT_NAMES) {
+                        String description = eventName + " of " + applicationName + " " + versionName;
+                        events.setString(1, eventName);
+                        events.setInt(2, versionId);
+                        events.setTimestamp(3, timestamp);
+                        events.setString(4, description);
+                        events.setInt(5, TENANT_ID);
+                        events.addBatch();
+
+                        latestEvents.setInt(1, versionId);
+                        latestEvents.setString(2, eventName);
+                        latestEvents.setInt(3, ++eventId);
+                        latestEvents.setTimestamp(4, timestamp);
+                        latestEvents.setString(5, description);
+                        latestEvents.setInt(6, TENANT_ID);
+                        latestEvents.addBatch();
+                    }
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0 || i == applicationHashIds.length - 1) {
+                    // Applications first, the other rows refer to them
+                    applications.executeBatch();
+                    apis.executeBatch();
+                    versions.executeBatch();
+                    events.executeBatch();
+                    latestEvents.executeBatch();
+                }
+            }
+        } finally {
+            applications.close();
+            versions.close();
+            apis.close();
+            events.close();
+            latestEvents.close();
+        }
+    }
+
+    /**
+     * H2 only has the argumentless LAST_INSERT_ID(), so statements of H2 connections run without the argument form.
+     * The new row version is then read back instead of being reported as a generated key, as with other drivers which
+     * do not report it. Statements run unchanged against MySQL.
+     */
+    private static DataSource withH2Statements(final DataSource dataSource) {
+
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                                                   new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = invokeOn(dataSource, method, args);
+                return result instanceof Connection ? withH2Statements((Connection) result) : result;
+            }
+        });
+    }
+
+    private static Connection withH2Statements(final Connection connection) {
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                                   new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("prepareStatement".equals(method.getName())) {
+                    args[0] = ((String) args[0]).replace("LAST_INSERT_ID(row_version + 1)", "row_version + 1");
+                }
+                return invokeOn(connection, method, args);
+            }
+        });
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
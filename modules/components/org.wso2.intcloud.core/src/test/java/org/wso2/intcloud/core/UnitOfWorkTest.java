@@ -0,0 +1,267 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.intcloud.common.IntCloudException;
+import org.wso2.intcloud.core.dao.ApplicationDAO;
+import org.wso2.intcloud.core.dto.Version;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Transaction handling of {@link UnitOfWork} against the seeded test database, whose versions are running.
+ */
+public class UnitOfWorkTest {
+
+    private TestDatabase database;
+    private ApplicationDAO applicationDAO = new ApplicationDAO();
+
+    @Before
+    public void createDatabase() throws SQLException {
+        database = TestDatabase.create(2);
+        DBUtil.setDataSource(database.getDataSource());
+    }
+
+    @After
+    public void closeDatabase() throws SQLException {
+        UnitOfWork unitOfWork = UnitOfWork.getCurrent();
+        if (unitOfWork != null) {
+            unitOfWork.close();
+        }
+        database.close();
+    }
+
+    @Test
+    public void operationsShareOneConnection() throws Exception {
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            assertSame(unitOfWork, UnitOfWork.getCurrent());
+            assertSame(DBUtil.getDBConnection(), DBUtil.getDBConnection());
+        } finally {
+            unitOfWork.close();
+        }
+        assertNull(UnitOfWork.getCurrent());
+    }
+
+    @Test(expected = IntCloudException.class)
+    public void nestedUnitOfWorkIsRefused() throws Exception {
+
+        UnitOfWork.begin();
+        UnitOfWork.begin();
+    }
+
+    @Test
+    public void commitsTheWorkOfAllOperations() throws Exception {
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            updateStatus(database.getVersionHashId(0), "stopped");
+            updateStatus(database.getVersionHashId(1), "stopped");
+            unitOfWork.commit();
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals("stopped", getStatus(database.getVersionHashId(0)));
+        assertEquals("stopped", getStatus(database.getVersionHashId(1)));
+    }
+
+    @Test
+    public void rollsBackUncommittedWorkOnClose() throws Exception {
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            updateStatus(database.getVersionHashId(0), "stopped");
+            assertTrue(UnitOfWork.hasUncommittedModifications());
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals("running", getStatus(database.getVersionHashId(0)));
+    }
+
+    @Test
+    public void rollbackOfOneOperationRollsBackAll() throws Exception {
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            updateStatus(database.getVersionHashId(0), "stopped");
+            Connection dbConnection = DBUtil.getDBConnection();
+            applicationDAO.updateVersionStatus(dbConnection, "stopped", database.getVersionHashId(1));
+            DBUtil.rollbackTransaction(dbConnection);
+            try {
+                unitOfWork.commit();
+                fail("A unit of work with a rolled back operation must not commit");
+            } catch (IntCloudException e) {
+                // Expected
+            }
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals("running", getStatus(database.getVersionHashId(0)));
+        assertEquals("running", getStatus(database.getVersionHashId(1)));
+    }
+
+    @Test
+    public void failedOperationRollsBackAll() throws Exception {
+
+        Version version = new Version();
+        version.setVersionName("3.0.0");
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            updateStatus(database.getVersionHashId(0), "stopped");
+            try {
+                ApplicationManager.addApplicationVersion(version, "unknown");
+                fail("Adding a version to an unknown application must fail");
+            } catch (IntCloudException e) {
+                // Expected, the failure is handled by the caller
+            }
+            try {
+                unitOfWork.commit();
+                fail("A unit of work with a failed operation must not commit");
+            } catch (IntCloudException e) {
+                // Expected
+            }
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals("running", getStatus(database.getVersionHashId(0)));
+    }
+
+    @Test
+    public void completionActionsRunAfterCommit() throws Exception {
+
+        AtomicInteger invalidations = new AtomicInteger();
+        AtomicInteger publications = new AtomicInteger();
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            UnitOfWork.runNowAndOnCompletion(counter(invalidations));
+            UnitOfWork.runAfterCommit(counter(publications));
+            assertEquals(1, invalidations.get());
+            assertEquals(0, publications.get());
+            unitOfWork.commit();
+            assertEquals(0, publications.get());
+        } finally {
+            unitOfWork.close();
+        }
+
+        assertEquals(2, invalidations.get());
+        assertEquals(1, publications.get());
+    }
+
+    @Test
+    public void completionActionsOnRollback() throws Exception {
+
+        AtomicInteger invalidations = new AtomicInteger();
+        AtomicInteger publications = new AtomicInteger();
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            UnitOfWork.runNowAndOnCompletion(counter(invalidations));
+            UnitOfWork.runAfterCommit(counter(publications));
+        } finally {
+            unitOfWork.close();
+        }
+
+        // Invalidations also run after a rollback, while effects of the work are dropped
+        assertEquals(2, invalidations.get());
+        assertEquals(0, publications.get());
+    }
+
+    @Test
+    public void actionsRunImmediatelyWithoutUnitOfWork() {
+
+        AtomicInteger invalidations = new AtomicInteger();
+        AtomicInteger publications = new AtomicInteger();
+
+        UnitOfWork.runNowAndOnCompletion(counter(invalidations));
+        UnitOfWork.runAfterCommit(counter(publications));
+
+        assertEquals(1, invalidations.get());
+        assertEquals(1, publications.get());
+    }
+
+    @Test
+    public void closeAfterCommitDoesNotRollBack() throws Exception {
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        updateStatus(database.getVersionHashId(0), "stopped");
+        unitOfWork.commit();
+        unitOfWork.close();
+        unitOfWork.close();
+
+        assertEquals("stopped", getStatus(database.getVersionHashId(0)));
+        assertFalse(UnitOfWork.hasUncommittedModifications());
+    }
+
+    /**
+     * Update a status the way the managers do, committing and closing the connection handed out by DBUtil.
+     */
+    private void updateStatus(String versionHashId, String status) throws Exception {
+
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            applicationDAO.updateVersionStatus(dbConnection, status, versionHashId);
+            dbConnection.commit();
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
+    private String getStatus(String versionHashId) throws SQLException {
+
+        Connection dbConnection = database.getDataSource().getConnection();
+        try {
+            PreparedStatement preparedStatement =
+                    dbConnection.prepareStatement("SELECT status FROM AC_VERSION WHERE hash_id=?");
+            preparedStatement.setString(1, versionHashId);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        } finally {
+            dbConnection.close();
+        }
+    }
+
+    private static Runnable counter(final AtomicInteger count) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.intcloud.core.TestDatabase;
+import org.wso2.intcloud.core.dto.VersionStatus;
+import org.wso2.intcloud.core.dto.VersionStatusUpdate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compare-and-set status updates of {@link ApplicationDAO} against the seeded test database, whose versions are
+ * running at row version 0.
+ */
+public class VersionStatusCompareAndSetTest {
+
+    private TestDatabase database;
+    private Connection dbConnection;
+    private ApplicationDAO applicationDAO = new ApplicationDAO();
+    private String versionHashId;
+
+    @Before
+    public void createDatabase() throws SQLException {
+        database = TestDatabase.create(1);
+        dbConnection = database.getDataSource().getConnection();
+        versionHashId = database.getVersionHashId(0);
+    }
+
+    @After
+    public void closeDatabase() throws SQLException {
+        dbConnection.close();
+        database.close();
+    }
+
+    @Test
+    public void appliesOnExpectedStatus() throws Exception {
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId,
+                                                                               VersionStatus.RUNNING,
+                                                                               VersionStatus.STOPPED);
+        assertTrue(update.isApplied());
+        assertEquals("stopped", update.getStatus());
+        assertEquals(1, update.getRowVersion());
+    }
+
+    @Test
+    public void missesOnStatusMismatch() throws Exception {
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId,
+                                                                               VersionStatus.STOPPED,
+                                                                               VersionStatus.PENDING);
+        assertFalse(update.isApplied());
+        assertEquals("running", update.getStatus());
+        assertEquals(0, update.getRowVersion());
+    }
+
+    @Test
+    public void appliesOnExpectedRowVersion() throws Exception {
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId, 0L,
+                                                                               VersionStatus.STOPPED);
+        assertTrue(update.isApplied());
+        assertEquals("stopped", update.getStatus());
+        assertEquals(1, update.getRowVersion());
+    }
+
+    @Test
+    public void missesOnStaleRowVersion() throws Exception {
+
+        assertTrue(applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId, 0L,
+                                                             VersionStatus.STOPPED).isApplied());
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId, 0L,
+                                                                               VersionStatus.PENDING);
+        assertFalse(update.isApplied());
+        assertEquals("stopped", update.getStatus());
+        assertEquals(1, update.getRowVersion());
+    }
+
+    @Test
+    public void missesOnForbiddenTransition() throws Exception {
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, versionHashId, 0L,
+                                                                               VersionStatus.RUNNING);
+        assertFalse(update.isApplied());
+        assertEquals("running", update.getStatus());
+        assertEquals(0, update.getRowVersion());
+    }
+
+    @Test
+    public void missesOnUnknownVersion() throws Exception {
+
+        VersionStatusUpdate update = applicationDAO.compareAndSetVersionStatus(dbConnection, "unknown",
+                                                                               VersionStatus.RUNNING,
+                                                                               VersionStatus.STOPPED);
+        assertFalse(update.isApplied());
+        assertNull(update.getStatus());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.core.dto;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VersionStatusTest {
+
+    @Test
+    public void allowedTransitions() {
+
+        assertTrue(VersionStatus.PENDING.canTransitionTo(VersionStatus.RUNNING));
+        assertTrue(VersionStatus.PENDING.canTransitionTo(VersionStatus.STOPPED));
+        assertTrue(VersionStatus.PENDING.canTransitionTo(VersionStatus.ERROR));
+        assertTrue(VersionStatus.RUNNING.canTransitionTo(VersionStatus.PENDING));
+        assertTrue(VersionStatus.RUNNING.canTransitionTo(VersionStatus.STOPPED));
+        assertTrue(VersionStatus.RUNNING.canTransitionTo(VersionStatus.ERROR));
+        assertTrue(VersionStatus.STOPPED.canTransitionTo(VersionStatus.PENDING));
+        assertTrue(VersionStatus.STOPPED.canTransitionTo(VersionStatus.RUNNING));
+        assertTrue(VersionStatus.ERROR.canTransitionTo(VersionStatus.PENDING));
+        assertTrue(VersionStatus.ERROR.canTransitionTo(VersionStatus.STOPPED));
+    }
+
+    @Test
+    public void forbiddenTransitions() {
+
+        for (VersionStatus status : VersionStatus.values()) {
+            assertFalse(status + " to itself", status.canTransitionTo(status));
+        }
+        assertFalse(VersionStatus.STOPPED.canTransitionTo(VersionStatus.ERROR));
+        assertFalse(VersionStatus.ERROR.canTransitionTo(VersionStatus.RUNNING));
+    }
+
+    @Test
+    public void predecessorsMirrorTransitions() {
+
+        for (VersionStatus target : VersionStatus.values()) {
+            EnumSet<VersionStatus> expected = EnumSet.noneOf(VersionStatus.class);
+            for (VersionStatus source : VersionStatus.values()) {
+                if (source.canTransitionTo(target)) {
+                    expected.add(source);
+                }
+            }
+            assertEquals(target.toString(), expected, target.getPredecessors());
+        }
+        assertEquals(EnumSet.of(VersionStatus.PENDING, VersionStatus.STOPPED), VersionStatus.RUNNING.getPredecessors());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void predecessorsAreUnmodifiable() {
+        VersionStatus.RUNNING.getPredecessors().add(VersionStatus.ERROR);
+    }
+
+    @Test
+    public void fromValueIgnoresCase() {
+
+        assertSame(VersionStatus.RUNNING, VersionStatus.fromValue("running"));
+        assertSame(VersionStatus.STOPPED, VersionStatus.fromValue("Stopped"));
+        assertSame(VersionStatus.ERROR, VersionStatus.fromValue("ERROR"));
+        assertNull(VersionStatus.fromValue("unknown"));
+        assertNull(VersionStatus.fromValue(null));
+    }
+}
@@ -0,0 +1,159 @@
+-- Schema of the tables used by the DAO tests and benchmarks, for MySQL and for H2 in MySQL mode. Kept in line with
+-- dbscripts/intcloud.sql.
+
+CREATE TABLE AC_APP_TYPE (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  description VARCHAR(1000) NULL DEFAULT NULL,
+  buildable INT NULL DEFAULT 1,
+  PRIMARY KEY (id));
+
+CREATE TABLE AC_APPLICATION (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  hash_id VARCHAR(24) NULL DEFAULT NULL,
+  description VARCHAR(1000) NULL DEFAULT NULL,
+  tenant_id INT NOT NULL,
+  default_version VARCHAR(24) NULL DEFAULT NULL,
+  app_type_id INT NULL DEFAULT NULL,
+  capp_name VARCHAR(45) NULL DEFAULT NULL,
+  param_configuration VARCHAR(10000) NULL DEFAULT NULL,
+  task_configuration VARCHAR(10000) NULL DEFAULT NULL,
+  PRIMARY KEY (id));
+
+CREATE UNIQUE INDEX uk_Application_NAME_TID_REV ON AC_APPLICATION (name, tenant_id);
+CREATE UNIQUE INDEX uk_AC_APPLICATION_hash_id ON AC_APPLICATION (hash_id);
+CREATE INDEX idx_AC_APPLICATION_tenant_id ON AC_APPLICATION (tenant_id);
+CREATE INDEX idx_AC_APPLICATION_capp_name_tenant_id ON AC_APPLICATION (capp_name, tenant_id);
+
+CREATE TABLE AC_ICON_CONTENT (
+  id INT NOT NULL AUTO_INCREMENT,
+  content_hash VARCHAR(64) NOT NULL,
+  icon MEDIUMBLOB NOT NULL,
+  size INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id));
+
+CREATE UNIQUE INDEX content_hash_UNIQUE ON AC_ICON_CONTENT (content_hash);
+
+CREATE TABLE AC_APP_ICON (
+  id INT NOT NULL AUTO_INCREMENT,
+  icon_hash VARCHAR(64) NOT NULL,
+  application_id INT NOT NULL,
+  PRIMARY KEY (id));
+
+CREATE UNIQUE INDEX application_id_UNIQUE ON AC_APP_ICON (application_id);
+CREATE INDEX fk_AC_APP_ICON_AC_ICON_CONTENT1 ON AC_APP_ICON (icon_hash);
+
+CREATE TABLE AC_RUNTIME (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  repo_url VARCHAR(250) NULL DEFAULT NULL,
+  image_name VARCHAR(100) NULL DEFAULT NULL,
+  tag VARCHAR(45) NOT NULL,
+  description VARCHAR(1000) NULL DEFAULT NULL,
+  PRIMARY KEY (id, name));
+
+CREATE TABLE AC_VERSION (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(13) NULL DEFAULT NULL,
+  hash_id VARCHAR(24) NULL DEFAULT NULL,
+  application_id INT NOT NULL,
+  runtime_id INT NULL DEFAULT NULL,
+  status VARCHAR(45) NULL DEFAULT NULL,
+  tenant_id INT NULL DEFAULT NULL,
+  timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  is_white_listed TINYINT NOT NULL DEFAULT 0,
+  row_version INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id));
+
+CREATE UNIQUE INDEX uk_AC_VERSION_hash_id ON AC_VERSION (hash_id);
+CREATE INDEX fk_AC_VERSION_AC_APPLICATION1 ON AC_VERSION (application_id);
+ALTER TABLE AC_VERSION ADD CONSTRAINT fk_AC_VERSION_AC_APPLICATION1 FOREIGN KEY (application_id)
+  REFERENCES AC_APPLICATION (id) ON DELETE CASCADE;
+CREATE INDEX idx_AC_VERSION_status_white_listed_timestamp ON AC_VERSION (status, is_white_listed, timestamp);
+
+CREATE TABLE AC_API (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(40) NULL DEFAULT NULL,
+  context VARCHAR(24) NULL DEFAULT NULL,
+  http_methods VARCHAR(24) NULL DEFAULT NULL,
+  application_id INT NOT NULL,
+  url VARCHAR(100) NULL DEFAULT NULL,
+  tenant_id INT NULL DEFAULT NULL,
+  PRIMARY KEY (id));
+
+CREATE INDEX fk_AC_API_AC_APPLICATION ON AC_API (application_id);
+ALTER TABLE AC_API ADD CONSTRAINT fk_AC_API_AC_APPLICATION FOREIGN KEY (application_id)
+  REFERENCES AC_APPLICATION (id) ON DELETE CASCADE;
+
+CREATE TABLE AC_EVENT (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  status VARCHAR(45) NULL DEFAULT NULL,
+  version_id INT NOT NULL,
+  timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  description VARCHAR(1000) NULL DEFAULT NULL,
+  tenant_id INT NULL DEFAULT NULL,
+  PRIMARY KEY (id));
+
+CREATE INDEX idx_AC_EVENT_version_id_name ON AC_EVENT (version_id, name);
+CREATE INDEX idx_AC_EVENT_timestamp ON AC_EVENT (timestamp);
+
+CREATE TABLE AC_EVENT_LATEST (
+  version_id INT NOT NULL,
+  name VARCHAR(100) NOT NULL,
+  event_id INT NOT NULL,
+  status VARCHAR(45) NULL DEFAULT NULL,
+  timestamp TIMESTAMP NULL DEFAULT NULL,
+  description VARCHAR(1000) NULL DEFAULT NULL,
+  tenant_id INT NULL DEFAULT NULL,
+  PRIMARY KEY (version_id, name));
+
+CREATE TABLE AC_SUBSCRIPTION_PLANS (
+  PLAN_ID INT NOT NULL AUTO_INCREMENT,
+  PLAN_NAME VARCHAR(200) NOT NULL,
+  MAX_APPLICATIONS INT NOT NULL,
+  PRIMARY KEY (PLAN_ID));
+
+CREATE TABLE AC_CONTAINER_SPECIFICATIONS (
+  CON_SPEC_ID INT NOT NULL AUTO_INCREMENT,
+  CON_SPEC_NAME VARCHAR(200) NOT NULL,
+  CPU INT NOT NULL,
+  MEMORY INT NOT NULL,
+  COST_PER_HOUR INT NOT NULL,
+  PRIMARY KEY (CON_SPEC_ID));
+
+CREATE TABLE AC_RUNTIME_CONTAINER_SPECIFICATIONS (
+  id INT NOT NULL,
+  CON_SPEC_ID INT NOT NULL,
+  PRIMARY KEY (id, CON_SPEC_ID));
+
+CREATE TABLE RestrictedPlanContainerSpecs (
+  PLAN_ID INT NOT NULL,
+  CON_SPEC_ID INT NOT NULL,
+  PRIMARY KEY (PLAN_ID, CON_SPEC_ID));
+
+CREATE TABLE AC_TIER_CATALOGUE_VERSION (
+  id INT NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id));
+
+INSERT INTO AC_APP_TYPE (id, name, description) VALUES (1, 'car', 'Allows you to create ESB configuration projects');
+
+INSERT INTO AC_RUNTIME (id, name, repo_url, image_name, tag, description) VALUES
+(1, 'ESB 5.0', 'https://localhost:9453/carbon', 'esb', '5.0.0', 'OS:Debian, Java Version:7u101');
+
+INSERT INTO AC_CONTAINER_SPECIFICATIONS (CON_SPEC_NAME, CPU, MEMORY, COST_PER_HOUR) VALUES
+('SMALL(128MB RAM and 0.1x vCPU)', 100, 128, 1),
+('MEDIUM(256MB RAM and 0.2x vCPU)', 200, 256, 2),
+('LARGE(512MB RAM and 0.3x vCPU)', 300, 512, 3);
+
+INSERT INTO AC_SUBSCRIPTION_PLANS (PLAN_NAME, MAX_APPLICATIONS) VALUES
+('FREE', 3),
+('PAID', 10);
+
+INSERT INTO AC_RUNTIME_CONTAINER_SPECIFICATIONS (id, CON_SPEC_ID) VALUES (1, 3);
+
+INSERT INTO RestrictedPlanContainerSpecs (PLAN_ID, CON_SPEC_ID) VALUES (1, 3);
+
+INSERT INTO AC_TIER_CATALOGUE_VERSION (id, version) VALUES (1, 0);
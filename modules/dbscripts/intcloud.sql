@@ -58,6 +58,9 @@ CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_APPLICATION` (
   `task_configuration` VARCHAR(10000) NULL DEFAULT NULL,
   PRIMARY KEY (`id`),
   UNIQUE INDEX `uk_Application_NAME_TID_REV` (`name` ASC, `tenant_id` ASC),
+  UNIQUE INDEX `uk_AC_APPLICATION_hash_id` (`hash_id` ASC),
+  INDEX `idx_AC_APPLICATION_tenant_id` (`tenant_id` ASC),
+  INDEX `idx_AC_APPLICATION_capp_name_tenant_id` (`capp_name` ASC, `tenant_id` ASC),
   INDEX `fk_Application_ApplicationType1` (`app_type_id` ASC),
   CONSTRAINT `fk_Application_ApplicationType1`
     FOREIGN KEY (`app_type_id`)
@@ -68,19 +71,39 @@ ENGINE = InnoDB
 DEFAULT CHARACTER SET = utf8;
 
 
+-- -----------------------------------------------------
+-- Table `dbIntCloud`.`AC_ICON_CONTENT`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_ICON_CONTENT` (
+  `id` INT(11) NOT NULL AUTO_INCREMENT,
+  `content_hash` VARCHAR(64) NOT NULL,
+  `icon` MEDIUMBLOB NOT NULL,
+  `size` INT(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE INDEX `content_hash_UNIQUE` (`content_hash` ASC))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+
 -- -----------------------------------------------------
 -- Table `dbIntCloud`.`AC_APP_ICON`
 -- -----------------------------------------------------
 CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_APP_ICON` (
   `id` INT(11) NOT NULL AUTO_INCREMENT,
-  `icon` MEDIUMBLOB NULL DEFAULT NULL,
+  `icon_hash` VARCHAR(64) NOT NULL,
   `application_id` INT(11) NOT NULL,
   PRIMARY KEY (`id`),
   UNIQUE INDEX `application_id_UNIQUE` (`application_id` ASC),
+  INDEX `fk_AC_APP_ICON_AC_ICON_CONTENT1` (`icon_hash` ASC),
   CONSTRAINT `fk_AC_APPLICATION_ICON_AC_APPLICATION1`
     FOREIGN KEY (`application_id`)
     REFERENCES `dbIntCloud`.`AC_APPLICATION` (`id`)
     ON DELETE CASCADE
+    ON UPDATE NO ACTION,
+  CONSTRAINT `fk_AC_APP_ICON_AC_ICON_CONTENT1`
+    FOREIGN KEY (`icon_hash`)
+    REFERENCES `dbIntCloud`.`AC_ICON_CONTENT` (`content_hash`)
+    ON DELETE NO ACTION
     ON UPDATE NO ACTION)
 ENGINE = InnoDB
 DEFAULT CHARACTER SET = utf8;
@@ -152,7 +175,39 @@ CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_EVENT` (
   `timestamp` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `description` VARCHAR(1000) NULL DEFAULT NULL,
   `tenant_id` INT(11) NULL DEFAULT NULL,
-  PRIMARY KEY (`id`))
+  PRIMARY KEY (`id`),
+  INDEX `idx_AC_EVENT_version_id_name` (`version_id` ASC, `name` ASC),
+  INDEX `idx_AC_EVENT_timestamp` (`timestamp` ASC))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+-- Optional monthly partitioning of AC_EVENT, enable Events.Retention.Partitioned in intcloud.properties when applied.
+-- Expired months are then dropped as whole partitions and partitions for the coming months are added ahead by the
+-- event retention task, which names them pYYYYMM and bounds them by the start of the next month in UTC.
+-- The partitioning column has to be part of every unique key, hence the primary key is widened.
+--
+-- ALTER TABLE `dbIntCloud`.`AC_EVENT`
+--   DROP PRIMARY KEY,
+--   ADD PRIMARY KEY (`id`, `timestamp`);
+--
+-- ALTER TABLE `dbIntCloud`.`AC_EVENT`
+--   PARTITION BY RANGE (UNIX_TIMESTAMP(`timestamp`)) (
+--     PARTITION p_future VALUES LESS THAN MAXVALUE);
+
+
+-- -----------------------------------------------------
+-- Table `dbIntCloud`.`AC_EVENT_LATEST`
+-- Latest event per version and event name, maintained along with AC_EVENT
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_EVENT_LATEST` (
+  `version_id` INT(11) NOT NULL,
+  `name` VARCHAR(100) NOT NULL,
+  `event_id` INT(11) NOT NULL,
+  `status` VARCHAR(45) NULL DEFAULT NULL,
+  `timestamp` TIMESTAMP NULL DEFAULT NULL,
+  `description` VARCHAR(1000) NULL DEFAULT NULL,
+  `tenant_id` INT(11) NULL DEFAULT NULL,
+  PRIMARY KEY (`version_id`, `name`))
 ENGINE = InnoDB
 DEFAULT CHARACTER SET = utf8;
 
@@ -198,9 +253,12 @@ CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_VERSION` (
   `tenant_id` INT(11) NULL DEFAULT NULL,
   `timestamp` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `is_white_listed` TINYINT(3) UNSIGNED NOT NULL DEFAULT '0',
+  `row_version` INT(11) NOT NULL DEFAULT '0',
   PRIMARY KEY (`id`),
+  UNIQUE INDEX `uk_AC_VERSION_hash_id` (`hash_id` ASC),
   INDEX `fk_AC_VERSION_AC_APPLICATION1` (`application_id` ASC),
   INDEX `fk_AC_VERSION_ApplicationRuntime1` (`runtime_id` ASC),
+  INDEX `idx_AC_VERSION_status_white_listed_timestamp` (`status` ASC, `is_white_listed` ASC, `timestamp` ASC),
   CONSTRAINT `fk_AC_VERSION_AC_APPLICATION1`
     FOREIGN KEY (`application_id`)
     REFERENCES `dbIntCloud`.`AC_APPLICATION` (`id`)
@@ -217,7 +275,24 @@ CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_WHITE_LISTED_TENANTS` (
   `id` INT(11) NOT NULL AUTO_INCREMENT,
   `tenant_id` INT(11) NOT NULL,
   `max_app_count` INT(11) NOT NULL,
-  PRIMARY KEY (`id`, `tenant_id`))
+  PRIMARY KEY (`id`, `tenant_id`),
+  UNIQUE INDEX `uk_AC_WHITE_LISTED_TENANTS_tenant_id` (`tenant_id` ASC))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+
+-- -----------------------------------------------------
+-- Table `dbIntCloud`.`AC_REAPER_CHECKPOINT`
+-- Progress of the idle version sweep, a sweep that is not completed is resumed after a restart
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `dbIntCloud`.`AC_REAPER_CHECKPOINT` (
+  `name` VARCHAR(45) NOT NULL,
+  `cutoff` TIMESTAMP NOT NULL DEFAULT '1970-01-01 00:00:01',
+  `last_timestamp` TIMESTAMP NULL DEFAULT NULL,
+  `last_version_id` INT(11) NOT NULL DEFAULT 0,
+  `processed` BIGINT NOT NULL DEFAULT 0,
+  `completed` TINYINT(1) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`name`))
 ENGINE = InnoDB
 DEFAULT CHARACTER SET = utf8;
 
@@ -244,6 +319,19 @@ CREATE TABLE IF NOT EXISTS AC_SUBSCRIPTION_PLANS (
     PRIMARY KEY (PLAN_ID))
 ENGINE = InnoDB;
 
+CREATE TABLE IF NOT EXISTS RestrictedPlanContainerSpecs (
+  PLAN_ID int(11) NOT NULL,
+  CON_SPEC_ID int(11) NOT NULL,
+  PRIMARY KEY (PLAN_ID,CON_SPEC_ID))
+ENGINE=InnoDB;
+
+-- Version of the plan and container specification tables cached by the tier API, increment it on manual changes
+CREATE TABLE IF NOT EXISTS AC_TIER_CATALOGUE_VERSION (
+  id int(11) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id))
+ENGINE=InnoDB;
+
 -- -----------------------------------------------------
 -- Table `dbIntCloud`.`AC_API`
 -- -----------------------------------------------------
@@ -305,6 +393,8 @@ INSERT INTO `AC_SUBSCRIPTION_PLANS` (`PLAN_NAME`, `MAX_APPLICATIONS`) VALUES
 INSERT INTO `AC_RUNTIME_CONTAINER_SPECIFICATIONS` (`id`, `CON_SPEC_ID`) VALUES
 (1, 3);
 
+INSERT INTO `AC_TIER_CATALOGUE_VERSION` (`id`, `version`) VALUES (1, 0);
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
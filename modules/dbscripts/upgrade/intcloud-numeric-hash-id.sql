@@ -0,0 +1,15 @@
+-- -----------------------------------------------------
+-- Converts the application and version hash ids from decimal strings to BIGINT values.
+--
+-- Run after intcloud-upgrade.sql, or on a schema created from the current intcloud.sql, and set HashId.Numeric=true
+-- in intcloud.properties before the server is started again. The existing decimal strings are converted in place and
+-- the hash id indexes are rebuilt on the numeric columns.
+-- -----------------------------------------------------
+
+USE `dbIntCloud` ;
+
+ALTER TABLE `AC_APPLICATION`
+  MODIFY COLUMN `hash_id` BIGINT NULL DEFAULT NULL;
+
+ALTER TABLE `AC_VERSION`
+  MODIFY COLUMN `hash_id` BIGINT NULL DEFAULT NULL;
@@ -0,0 +1,149 @@
+-- -----------------------------------------------------
+-- Upgrades an existing dbIntCloud schema created from the initial intcloud.sql to the current intcloud.sql.
+--
+-- Application icons are moved to content addressed storage and the latest event projection is filled from the
+-- existing events. Index additions run in place without blocking writers on MySQL 5.6 and later. The unique hash id
+-- indexes fail if duplicate hash ids exist, list them first with
+--   SELECT hash_id, COUNT(*) FROM AC_APPLICATION GROUP BY hash_id HAVING COUNT(*) > 1;
+--   SELECT hash_id, COUNT(*) FROM AC_VERSION GROUP BY hash_id HAVING COUNT(*) > 1;
+--
+-- Moving the stored hash ids to another HashId.Scheme with HashIdMigrator is a separate step which is not online. Every
+-- node reads the scheme once at startup and cannot look up rows migrated to another scheme, so stop all nodes, run the
+-- migration, set HashId.Scheme on every node and start the nodes together again.
+-- -----------------------------------------------------
+
+USE `dbIntCloud` ;
+
+
+-- -----------------------------------------------------
+-- Hash id, name and tenant lookups of AC_APPLICATION
+-- -----------------------------------------------------
+ALTER TABLE `AC_APPLICATION`
+  ADD UNIQUE INDEX `uk_AC_APPLICATION_hash_id` (`hash_id` ASC),
+  ADD INDEX `idx_AC_APPLICATION_tenant_id` (`tenant_id` ASC),
+  ADD INDEX `idx_AC_APPLICATION_capp_name_tenant_id` (`capp_name` ASC, `tenant_id` ASC),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+
+-- -----------------------------------------------------
+-- Hash id lookups and the stopping of idle versions on AC_VERSION
+-- -----------------------------------------------------
+ALTER TABLE `AC_VERSION`
+  ADD UNIQUE INDEX `uk_AC_VERSION_hash_id` (`hash_id` ASC),
+  ADD INDEX `idx_AC_VERSION_status_white_listed_timestamp` (`status` ASC, `is_white_listed` ASC, `timestamp` ASC),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+
+-- -----------------------------------------------------
+-- One whitelist entry per tenant in AC_WHITE_LISTED_TENANTS, keeping the first entry which lookups have always used
+-- -----------------------------------------------------
+DELETE duplicate FROM `AC_WHITE_LISTED_TENANTS` duplicate
+  JOIN `AC_WHITE_LISTED_TENANTS` first ON first.`tenant_id` = duplicate.`tenant_id` AND first.`id` < duplicate.`id`;
+
+ALTER TABLE `AC_WHITE_LISTED_TENANTS`
+  ADD UNIQUE INDEX `uk_AC_WHITE_LISTED_TENANTS_tenant_id` (`tenant_id` ASC),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+
+-- -----------------------------------------------------
+-- Version, event name and retention lookups of AC_EVENT
+-- -----------------------------------------------------
+ALTER TABLE `AC_EVENT`
+  ADD INDEX `idx_AC_EVENT_version_id_name` (`version_id` ASC, `name` ASC),
+  ADD INDEX `idx_AC_EVENT_timestamp` (`timestamp` ASC),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+
+-- -----------------------------------------------------
+-- Latest event per version and event name
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `AC_EVENT_LATEST` (
+  `version_id` INT(11) NOT NULL,
+  `name` VARCHAR(100) NOT NULL,
+  `event_id` INT(11) NOT NULL,
+  `status` VARCHAR(45) NULL DEFAULT NULL,
+  `timestamp` TIMESTAMP NULL DEFAULT NULL,
+  `description` VARCHAR(1000) NULL DEFAULT NULL,
+  `tenant_id` INT(11) NULL DEFAULT NULL,
+  PRIMARY KEY (`version_id`, `name`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+INSERT INTO `AC_EVENT_LATEST` (`version_id`, `name`, `event_id`, `status`, `timestamp`, `description`, `tenant_id`)
+SELECT event.version_id, event.name, event.id, event.status, event.timestamp, event.description, event.tenant_id
+FROM `AC_EVENT` event JOIN (SELECT MAX(id) as id FROM `AC_EVENT` GROUP BY version_id, name) latest
+ON event.id = latest.id JOIN `AC_VERSION` ver ON ver.id = event.version_id;
+
+
+-- -----------------------------------------------------
+-- Content addressed application icons, identical icons are stored once and keyed by their SHA-256 digest
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `AC_ICON_CONTENT` (
+  `id` INT(11) NOT NULL AUTO_INCREMENT,
+  `content_hash` VARCHAR(64) NOT NULL,
+  `icon` MEDIUMBLOB NOT NULL,
+  `size` INT(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE INDEX `content_hash_UNIQUE` (`content_hash` ASC))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+INSERT IGNORE INTO `AC_ICON_CONTENT` (`content_hash`, `icon`, `size`)
+SELECT SHA2(icon, 256), icon, OCTET_LENGTH(icon) FROM `AC_APP_ICON` WHERE icon IS NOT NULL;
+
+DELETE FROM `AC_APP_ICON` WHERE icon IS NULL;
+
+ALTER TABLE `AC_APP_ICON` ADD COLUMN `icon_hash` VARCHAR(64) NULL DEFAULT NULL AFTER `id`;
+
+UPDATE `AC_APP_ICON` SET icon_hash = SHA2(icon, 256);
+
+ALTER TABLE `AC_APP_ICON`
+  DROP COLUMN `icon`,
+  MODIFY COLUMN `icon_hash` VARCHAR(64) NOT NULL,
+  ADD INDEX `fk_AC_APP_ICON_AC_ICON_CONTENT1` (`icon_hash` ASC),
+  ADD CONSTRAINT `fk_AC_APP_ICON_AC_ICON_CONTENT1`
+    FOREIGN KEY (`icon_hash`)
+    REFERENCES `AC_ICON_CONTENT` (`content_hash`)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION;
+
+
+-- -----------------------------------------------------
+-- Plan restrictions and the version of the tier catalogue cached by the tier API
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS RestrictedPlanContainerSpecs (
+  PLAN_ID int(11) NOT NULL,
+  CON_SPEC_ID int(11) NOT NULL,
+  PRIMARY KEY (PLAN_ID,CON_SPEC_ID))
+ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS AC_TIER_CATALOGUE_VERSION (
+  id int(11) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id))
+ENGINE=InnoDB;
+
+INSERT IGNORE INTO `AC_TIER_CATALOGUE_VERSION` (`id`, `version`) VALUES (1, 0);
+
+
+-- -----------------------------------------------------
+-- Progress of the idle version sweep
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `AC_REAPER_CHECKPOINT` (
+  `name` VARCHAR(45) NOT NULL,
+  `cutoff` TIMESTAMP NOT NULL DEFAULT '1970-01-01 00:00:01',
+  `last_timestamp` TIMESTAMP NULL DEFAULT NULL,
+  `last_version_id` INT(11) NOT NULL DEFAULT 0,
+  `processed` BIGINT NOT NULL DEFAULT 0,
+  `completed` TINYINT(1) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`name`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8;
+
+
+-- -----------------------------------------------------
+-- Row version of AC_VERSION for conditional status updates
+-- -----------------------------------------------------
+ALTER TABLE `AC_VERSION`
+  ADD COLUMN `row_version` INT(11) NOT NULL DEFAULT '0',
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,144 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.catalogue;
+
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable matrix of the container specifications allowed in each plan.
+ *
+ * Container specifications are numbered by their position in id order and each plan has a bit set of the allowed
+ * numbers, so a check is a map lookup and a bit test. Plans without an entry, which do not exist, allow every
+ * container specification like the restriction query did.
+ */
+final class AllowedSpecMatrix {
+
+	private final int[] containerSpecIds;
+	private final Map<Integer, Integer> ordinals;
+	private final List<ContainerSpecifications> containerSpecs;
+	private final Map<Integer, Row> rows;
+
+	/**
+	 * Build the matrix, reusing the bit sets of the previous matrix for plans whose restrictions did not change when
+	 * the container specifications are numbered the same.
+	 *
+	 * @param plans                      plans
+	 * @param containerSpecs             container specifications in id order
+	 * @param restrictedContainerSpecIds container specification ids not allowed in each plan
+	 * @param previous                   matrix of the previous snapshot, or null
+	 */
+	AllowedSpecMatrix(List<Plan> plans, List<ContainerSpecifications> containerSpecs,
+	                  Map<Integer, Set<Integer>> restrictedContainerSpecIds, AllowedSpecMatrix previous) {
+
+		this.containerSpecs = containerSpecs;
+		containerSpecIds = new int[containerSpecs.size()];
+		Map<Integer, Integer> ordinals = new HashMap<Integer, Integer>();
+		for (int i = 0; i < containerSpecIds.length; i++) {
+			containerSpecIds[i] = containerSpecs.get(i).getId();
+			ordinals.put(containerSpecIds[i], i);
+		}
+		this.ordinals = Collections.unmodifiableMap(ordinals);
+
+		boolean sameOrdinals = previous != null && Arrays.equals(previous.containerSpecIds, containerSpecIds);
+		Map<Integer, Row> rows = new HashMap<Integer, Row>();
+		for (Plan plan : plans) {
+			Set<Integer> restricted = restrictedContainerSpecIds.get(plan.getId());
+			if (restricted == null) {
+				restricted = Collections.emptySet();
+			}
+
+			BitSet allowed = null;
+			if (sameOrdinals) {
+				Row previousRow = previous.rows.get(plan.getId());
+				if (previousRow != null && previousRow.restricted.equals(restricted)) {
+					allowed = previousRow.allowed;
+				}
+			}
+			if (allowed == null) {
+				allowed = new BitSet(containerSpecIds.length);
+				allowed.set(0, containerSpecIds.length);
+				for (Integer containerSpecId : restricted) {
+					Integer ordinal = ordinals.get(containerSpecId);
+					if (ordinal != null) {
+						allowed.clear(ordinal);
+					}
+				}
+			}
+
+			// The beans are reloaded with the snapshot, so the list view is always rebuilt
+			List<ContainerSpecifications> allowedContainerSpecs = new ArrayList<ContainerSpecifications>();
+			for (int i = allowed.nextSetBit(0); i >= 0; i = allowed.nextSetBit(i + 1)) {
+				allowedContainerSpecs.add(containerSpecs.get(i));
+			}
+			rows.put(plan.getId(), new Row(restricted, allowed, Collections.unmodifiableList(allowedContainerSpecs)));
+		}
+		this.rows = Collections.unmodifiableMap(rows);
+	}
+
+	/**
+	 * Check whether a container specification is allowed in a plan.
+	 *
+	 * @param planId          plan id
+	 * @param containerSpecId container specification id
+	 * @return false if there is no such container specification
+	 */
+	boolean isAllowed(int planId, int containerSpecId) {
+		Integer ordinal = ordinals.get(containerSpecId);
+		if (ordinal == null) {
+			return false;
+		}
+		Row row = rows.get(planId);
+		return row == null || row.allowed.get(ordinal);
+	}
+
+	/**
+	 * Get the container specifications allowed in a plan.
+	 *
+	 * @param planId plan id
+	 * @return the allowed container specifications in id order
+	 */
+	List<ContainerSpecifications> getAllowed(int planId) {
+		Row row = rows.get(planId);
+		return row != null ? row.allowedContainerSpecs : containerSpecs;
+	}
+
+	/**
+	 * Allowed container specifications of a plan. The bit set is never modified once the row is built.
+	 */
+	private static final class Row {
+
+		private final Set<Integer> restricted;
+		private final BitSet allowed;
+		private final List<ContainerSpecifications> allowedContainerSpecs;
+
+		private Row(Set<Integer> restricted, BitSet allowed, List<ContainerSpecifications> allowedContainerSpecs) {
+			this.restricted = restricted;
+			this.allowed = allowed;
+			this.allowedContainerSpecs = allowedContainerSpecs;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.catalogue;
+
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the subscription plans and container specifications, indexed for the tier API reads.
+ *
+ * The beans are shared by all readers of the snapshot and must not be modified.
+ */
+public final class CatalogueSnapshot {
+
+	private final long version;
+	private final long loadedAt;
+	private final List<Plan> plans;
+	private final Map<Integer, Plan> plansById;
+	private final List<ContainerSpecifications> containerSpecs;
+	private final Map<Integer, ContainerSpecifications> containerSpecsById;
+	private final Map<Integer, List<ContainerSpecifications>> containerSpecsByRuntimeId;
+	private final AllowedSpecMatrix allowedSpecMatrix;
+
+	/**
+	 * Build the indexes of a snapshot.
+	 *
+	 * @param version                   catalogue version the rows were read at
+	 * @param plans                     plans in plan id order
+	 * @param containerSpecs            container specifications in id order
+	 * @param runtimeContainerSpecIds   container specification ids of each runtime
+	 * @param restrictedContainerSpecIds container specification ids not allowed in each plan
+	 * @param previous                  snapshot being replaced, or null
+	 */
+	CatalogueSnapshot(long version, List<Plan> plans, List<ContainerSpecifications> containerSpecs,
+	                  Map<Integer, List<Integer>> runtimeContainerSpecIds,
+	                  Map<Integer, Set<Integer>> restrictedContainerSpecIds, CatalogueSnapshot previous) {
+
+		this.version = version;
+		// Last-Modified has a precision of seconds
+		this.loadedAt = System.currentTimeMillis() / 1000 * 1000;
+		this.plans = Collections.unmodifiableList(new ArrayList<Plan>(plans));
+		this.containerSpecs = Collections.unmodifiableList(new ArrayList<ContainerSpecifications>(containerSpecs));
+
+		Map<Integer, Plan> plansById = new HashMap<Integer, Plan>();
+		for (Plan plan : plans) {
+			plansById.put(plan.getId(), plan);
+		}
+		this.plansById = Collections.unmodifiableMap(plansById);
+
+		Map<Integer, ContainerSpecifications> containerSpecsById = new HashMap<Integer, ContainerSpecifications>();
+		for (ContainerSpecifications containerSpec : containerSpecs) {
+			containerSpecsById.put(containerSpec.getId(), containerSpec);
+		}
+		this.containerSpecsById = Collections.unmodifiableMap(containerSpecsById);
+
+		Map<Integer, List<ContainerSpecifications>> containerSpecsByRuntimeId =
+				new HashMap<Integer, List<ContainerSpecifications>>();
+		for (Map.Entry<Integer, List<Integer>> entry : runtimeContainerSpecIds.entrySet()) {
+			List<ContainerSpecifications> runtimeContainerSpecs = new ArrayList<ContainerSpecifications>();
+			for (Integer containerSpecId : entry.getValue()) {
+				ContainerSpecifications containerSpec = containerSpecsById.get(containerSpecId);
+				if (containerSpec != null) {
+					runtimeContainerSpecs.add(containerSpec);
+				}
+			}
+			containerSpecsByRuntimeId.put(entry.getKey(), Collections.unmodifiableList(runtimeContainerSpecs));
+		}
+		this.containerSpecsByRuntimeId = Collections.unmodifiableMap(containerSpecsByRuntimeId);
+
+		this.allowedSpecMatrix = new AllowedSpecMatrix(this.plans, this.containerSpecs, restrictedContainerSpecIds,
+		                                               previous != null ? previous.allowedSpecMatrix : null);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the time the snapshot was loaded at, in milliseconds truncated to seconds.
+	 */
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	public List<Plan> getPlans() {
+		return plans;
+	}
+
+	/**
+	 * Get the plan with the given id.
+	 *
+	 * @param planId plan id
+	 * @return the plan, or null if there is no such plan
+	 */
+	public Plan getPlan(int planId) {
+		return plansById.get(planId);
+	}
+
+	public List<ContainerSpecifications> getContainerSpecs() {
+		return containerSpecs;
+	}
+
+	/**
+	 * Get the container specification with the given id.
+	 *
+	 * @param containerSpecId container specification id
+	 * @return the container specification, or null if there is no such container specification
+	 */
+	public ContainerSpecifications getContainerSpec(int containerSpecId) {
+		return containerSpecsById.get(containerSpecId);
+	}
+
+	/**
+	 * Get the container specifications of a runtime.
+	 *
+	 * @param runtimeId runtime id
+	 * @return the container specifications, empty if the runtime has none
+	 */
+	public List<ContainerSpecifications> getContainerSpecsOfRuntime(int runtimeId) {
+		List<ContainerSpecifications> runtimeContainerSpecs = containerSpecsByRuntimeId.get(runtimeId);
+		if (runtimeContainerSpecs == null) {
+			return Collections.emptyList();
+		}
+		return runtimeContainerSpecs;
+	}
+
+	/**
+	 * Get the container specifications allowed in a plan, which are all but the ones restricted for the plan.
+	 *
+	 * @param planId plan id
+	 * @return the allowed container specifications, all of them if there is no such plan
+	 */
+	public List<ContainerSpecifications> getAllowedContainerSpecs(int planId) {
+		return allowedSpecMatrix.getAllowed(planId);
+	}
+
+	/**
+	 * Check whether a container specification is allowed in a plan.
+	 *
+	 * @param planId          plan id
+	 * @param containerSpecId container specification id
+	 * @return false if there is no such container specification, true if there is no such plan
+	 */
+	public boolean isAllowed(int planId, int containerSpecId) {
+		return allowedSpecMatrix.isAllowed(planId, containerSpecId);
+	}
+}
@@ -0,0 +1,282 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.catalogue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+import org.wso2.intcloud.tierapi.dao.RowMapper;
+import org.wso2.intcloud.tierapi.dao.RowMappers;
+import org.wso2.intcloud.tierapi.dao.SQLQueryConstants;
+import org.wso2.intcloud.tierapi.dao.SQLQueryExecutor;
+import org.wso2.intcloud.tierapi.util.DBConfiguration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the subscription plans and container specifications from memory.
+ *
+ * The tables are loaded into a {@link CatalogueSnapshot} which is replaced as a whole, so readers always see one
+ * consistent load. Writes through the tier API bump the catalogue version in AC_TIER_CATALOGUE_VERSION and reload
+ * the catalogue right away. Other nodes pick the change up when they find a newer version while polling.
+ */
+public class TierCatalogue {
+
+	private static final Log log = LogFactory.getLog(TierCatalogue.class);
+
+	private static final RowMapper<Long> VERSION = new RowMapper<Long>() {
+		@Override
+		public Long mapRow(ResultSet rs) throws SQLException {
+			return rs.getLong(SQLQueryConstants.VERSION);
+		}
+	};
+
+	// Runtime id and container specification id
+	private static final RowMapper<int[]> RUNTIME_CONTAINER_SPEC = new RowMapper<int[]>() {
+		@Override
+		public int[] mapRow(ResultSet rs) throws SQLException {
+			return new int[]{rs.getInt(SQLQueryConstants.RUNTIME_ID), rs.getInt(SQLQueryConstants.CON_SPEC_ID)};
+		}
+	};
+
+	// Plan id and container specification id
+	private static final RowMapper<int[]> RESTRICTED_CONTAINER_SPEC = new RowMapper<int[]>() {
+		@Override
+		public int[] mapRow(ResultSet rs) throws SQLException {
+			return new int[]{rs.getInt(SQLQueryConstants.PLAN_ID), rs.getInt(SQLQueryConstants.CON_SPEC_ID)};
+		}
+	};
+
+	private static final TierCatalogue instance = new TierCatalogue();
+
+	private volatile CatalogueSnapshot snapshot;
+	private ScheduledExecutorService scheduler;
+
+	private TierCatalogue() {
+	}
+
+	public static TierCatalogue getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get the current snapshot of the catalogue, loading it if it has not been loaded yet.
+	 *
+	 * @return the catalogue snapshot
+	 * @throws SQLException if the catalogue could not be loaded
+	 */
+	public CatalogueSnapshot getSnapshot() throws SQLException {
+		CatalogueSnapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = load();
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Reload the catalogue and replace the current snapshot.
+	 *
+	 * @throws SQLException if the catalogue could not be loaded, the current snapshot is kept
+	 */
+	public synchronized void refresh() throws SQLException {
+		snapshot = load();
+	}
+
+	/**
+	 * Reload the catalogue after a change made through this node. A failed reload is logged and left to the
+	 * version check.
+	 */
+	public void refreshAfterChange() {
+		try {
+			refresh();
+		} catch (SQLException e) {
+			String msg = "Error while reloading the tier catalogue after a change";
+			log.error(msg, e);
+		}
+	}
+
+	/**
+	 * Mark the catalogue tables as changed, to be called on the connection which made the change.
+	 *
+	 * @param dbConnection connection of the change
+	 * @throws SQLException
+	 */
+	public void markChanged(Connection dbConnection) throws SQLException {
+		SQLQueryExecutor.update(dbConnection, SQLQueryConstants.INCREMENT_CATALOGUE_VERSION);
+	}
+
+	/**
+	 * Load the catalogue and poll for changes made by other nodes.
+	 *
+	 * @param reloadInterval seconds between version checks, polling is disabled if not positive
+	 */
+	public synchronized void start(long reloadInterval) {
+		try {
+			refresh();
+		} catch (SQLException e) {
+			// Loaded on first use instead
+			String msg = "Error while loading the tier catalogue";
+			log.error(msg, e);
+		}
+
+		if (reloadInterval <= 0 || scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "TierCatalogueReload");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				reloadIfChanged();
+			}
+		}, reloadInterval, reloadInterval, TimeUnit.SECONDS);
+	}
+
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	private void reloadIfChanged() {
+		Connection dbConnection = null;
+		try {
+			DBConfiguration dbCon = new DBConfiguration();
+			dbConnection = dbCon.getConnection();
+			long version = getVersion(dbConnection);
+			dbConnection.close();
+			dbConnection = null;
+
+			CatalogueSnapshot current = snapshot;
+			if (current == null || current.getVersion() != version) {
+				if (log.isDebugEnabled()) {
+					log.debug("Reloading the tier catalogue for version " + version);
+				}
+				refresh();
+			}
+		} catch (SQLException e) {
+			String msg = "Error while reloading the tier catalogue";
+			log.error(msg, e);
+		} catch (RuntimeException e) {
+			// Keep polling
+			String msg = "Error while reloading the tier catalogue";
+			log.error(msg, e);
+		} finally {
+			if (dbConnection != null) {
+				try {
+					dbConnection.close();
+				} catch (SQLException e) {
+					log.error("Error while closing the connection", e);
+				}
+			}
+		}
+	}
+
+	private CatalogueSnapshot load() throws SQLException {
+		Connection dbConnection = null;
+		long version;
+		List<Plan> plans;
+		List<ContainerSpecifications> containerSpecs;
+		Map<Integer, List<Integer>> runtimeContainerSpecIds = new HashMap<Integer, List<Integer>>();
+		Map<Integer, Set<Integer>> restrictedContainerSpecIds = new HashMap<Integer, Set<Integer>>();
+
+		try {
+			DBConfiguration dbCon = new DBConfiguration();
+			dbConnection = dbCon.getConnection();
+			// Read all tables in one transaction so the snapshot is consistent
+			dbConnection.setAutoCommit(false);
+
+			// The version is read first, a change committed during the load is picked up by the next check
+			version = getVersion(dbConnection);
+			plans = SQLQueryExecutor.query(dbConnection, SQLQueryConstants.GET_ALL_PLANS, RowMappers.PLAN);
+			containerSpecs = SQLQueryExecutor.query(dbConnection, SQLQueryConstants.GET_ALL_CONTAINER_SPECS,
+			                                        RowMappers.CONTAINER_SPECIFICATIONS);
+
+			for (int[] runtimeContainerSpec : SQLQueryExecutor.query(
+					dbConnection, SQLQueryConstants.GET_ALL_RUNTIME_CONTAINER_SPECS, RUNTIME_CONTAINER_SPEC)) {
+				List<Integer> containerSpecIds = runtimeContainerSpecIds.get(runtimeContainerSpec[0]);
+				if (containerSpecIds == null) {
+					containerSpecIds = new ArrayList<Integer>();
+					runtimeContainerSpecIds.put(runtimeContainerSpec[0], containerSpecIds);
+				}
+				containerSpecIds.add(runtimeContainerSpec[1]);
+			}
+
+			for (int[] restrictedContainerSpec : SQLQueryExecutor.query(
+					dbConnection, SQLQueryConstants.GET_ALL_RESTRICTED_CONTAINER_SPECS, RESTRICTED_CONTAINER_SPEC)) {
+				Set<Integer> containerSpecIds = restrictedContainerSpecIds.get(restrictedContainerSpec[0]);
+				if (containerSpecIds == null) {
+					containerSpecIds = new HashSet<Integer>();
+					restrictedContainerSpecIds.put(restrictedContainerSpec[0], containerSpecIds);
+				}
+				containerSpecIds.add(restrictedContainerSpec[1]);
+			}
+
+			dbConnection.commit();
+		} catch (SQLException e) {
+			String msg = "Error while loading the tier catalogue";
+			log.error(msg, e);
+			throw e;
+		} finally {
+			if (dbConnection != null) {
+				try {
+					dbConnection.setAutoCommit(true);
+				} catch (SQLException e) {
+					// Do not hide the outcome of the load, the connection is closed below either way
+					log.error("Error while restoring auto commit after loading the tier catalogue", e);
+				} finally {
+					dbConnection.close();
+				}
+			}
+		}
+
+		return new CatalogueSnapshot(version, plans, containerSpecs, runtimeContainerSpecIds,
+		                             restrictedContainerSpecIds, snapshot);
+	}
+
+	private long getVersion(Connection dbConnection) throws SQLException {
+		Long version =
+				SQLQueryExecutor.queryForObject(dbConnection, SQLQueryConstants.GET_CATALOGUE_VERSION, VERSION);
+		return version != null ? version : 0;
+	}
+}
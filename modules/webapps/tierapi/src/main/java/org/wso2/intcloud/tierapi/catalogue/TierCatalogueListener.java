@@ -0,0 +1,44 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.catalogue;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * Loads the tier catalogue when the webapp starts and stops polling for changes when it is undeployed.
+ */
+public class TierCatalogueListener implements ServletContextListener {
+
+	private static final String RELOAD_INTERVAL_PARAM = "tierCatalogueReloadInterval";
+	private static final long DEFAULT_RELOAD_INTERVAL = 30;
+
+	@Override
+	public void contextInitialized(ServletContextEvent event) {
+		long reloadInterval = DEFAULT_RELOAD_INTERVAL;
+		String value = event.getServletContext().getInitParameter(RELOAD_INTERVAL_PARAM);
+		if (value != null) {
+			reloadInterval = Long.parseLong(value.trim());
+		}
+		TierCatalogue.getInstance().start(reloadInterval);
+	}
+
+	@Override
+	public void contextDestroyed(ServletContextEvent event) {
+		TierCatalogue.getInstance().stop();
+	}
+}
@@ -57,5 +57,10 @@ public interface PlanDao {
 	 */
 	public List<ContainerSpecifications> getAllowedConSpecs(int planId) throws SQLException ;
 
+	/*
+	 * Check whether the container specification is allowed within the subscription plan.
+	 */
+	public boolean isAllowed(int planId, int conSpecId) throws SQLException;
+
 
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.dao;
+
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Row mappers of the tier API beans.
+ */
+public class RowMappers {
+
+	public static final RowMapper<Plan> PLAN = new RowMapper<Plan>() {
+		@Override
+		public Plan mapRow(ResultSet rs) throws SQLException {
+			Plan plan = new Plan();
+			plan.setId(rs.getInt(SQLQueryConstants.PLAN_ID));
+			plan.setPlanName(rs.getString(SQLQueryConstants.PLAN_NAME));
+			plan.setMaxApplications(rs.getInt(SQLQueryConstants.MAX_APPLICATIONS));
+			return plan;
+		}
+	};
+
+	public static final RowMapper<ContainerSpecifications> CONTAINER_SPECIFICATIONS =
+			new RowMapper<ContainerSpecifications>() {
+				@Override
+				public ContainerSpecifications mapRow(ResultSet rs) throws SQLException {
+					ContainerSpecifications containerSpec = new ContainerSpecifications();
+					containerSpec.setId(rs.getInt(SQLQueryConstants.CON_SPEC_ID));
+					containerSpec.setConSpecName(rs.getString(SQLQueryConstants.CON_SPEC_NAME));
+					containerSpec.setCpu(rs.getInt(SQLQueryConstants.CPU));
+					containerSpec.setMemory(rs.getInt(SQLQueryConstants.MEMORY));
+					containerSpec.setCostPerHour(rs.getInt(SQLQueryConstants.COST_PER_HOUR));
+					return containerSpec;
+				}
+			};
+
+	private RowMappers() {
+	}
+}
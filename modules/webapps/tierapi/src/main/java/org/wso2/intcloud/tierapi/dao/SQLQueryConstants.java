@@ -0,0 +1,91 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.dao;
+
+/**
+ * Statements of the tier API. Ids are always bound as parameters so that each statement has a single text, which
+ * lets the driver and MySQL reuse the prepared statement and its plan.
+ */
+public class SQLQueryConstants {
+
+	/*==============================
+	    Database Column Constants
+	  ==============================*/
+
+	public static final String PLAN_ID = "PLAN_ID";
+	public static final String PLAN_NAME = "PLAN_NAME";
+	public static final String MAX_APPLICATIONS = "MAX_APPLICATIONS";
+	public static final String CON_SPEC_ID = "CON_SPEC_ID";
+	public static final String CON_SPEC_NAME = "CON_SPEC_NAME";
+	public static final String CPU = "CPU";
+	public static final String MEMORY = "MEMORY";
+	public static final String COST_PER_HOUR = "COST_PER_HOUR";
+	public static final String RUNTIME_ID = "id";
+	public static final String VERSION = "version";
+
+	/*==============================
+	    SQL Query Constants
+	  ==============================*/
+
+	/* Plan Queries */
+
+	public static final String GET_ALL_PLANS =
+			"SELECT PLAN_ID, PLAN_NAME, MAX_APPLICATIONS FROM AC_SUBSCRIPTION_PLANS ORDER BY PLAN_ID";
+
+	public static final String GET_PLAN_BY_ID =
+			"SELECT PLAN_ID, PLAN_NAME, MAX_APPLICATIONS FROM AC_SUBSCRIPTION_PLANS WHERE PLAN_ID=?";
+
+	public static final String ADD_PLAN =
+			"INSERT INTO AC_SUBSCRIPTION_PLANS (PLAN_NAME, MAX_APPLICATIONS) VALUES (?, ?)";
+
+	public static final String UPDATE_PLAN =
+			"UPDATE AC_SUBSCRIPTION_PLANS SET PLAN_NAME=?, MAX_APPLICATIONS=? WHERE PLAN_ID=?";
+
+	public static final String DELETE_PLAN = "DELETE FROM AC_SUBSCRIPTION_PLANS WHERE PLAN_ID=?";
+
+	public static final String GET_ALL_RESTRICTED_CONTAINER_SPECS =
+			"SELECT PLAN_ID, CON_SPEC_ID FROM RestrictedPlanContainerSpecs";
+
+	/* Container Specification Queries */
+
+	public static final String GET_ALL_CONTAINER_SPECS =
+			"SELECT CON_SPEC_ID, CON_SPEC_NAME, CPU, MEMORY, COST_PER_HOUR FROM AC_CONTAINER_SPECIFICATIONS " +
+			"ORDER BY CON_SPEC_ID";
+
+	public static final String GET_CONTAINER_SPEC_BY_ID =
+			"SELECT CON_SPEC_ID, CON_SPEC_NAME, CPU, MEMORY, COST_PER_HOUR FROM AC_CONTAINER_SPECIFICATIONS " +
+			"WHERE CON_SPEC_ID=?";
+
+	public static final String ADD_CONTAINER_SPEC =
+			"INSERT INTO AC_CONTAINER_SPECIFICATIONS (CON_SPEC_NAME, CPU, MEMORY, COST_PER_HOUR) VALUES (?, ?, ?, ?)";
+
+	public static final String UPDATE_CONTAINER_SPEC =
+			"UPDATE AC_CONTAINER_SPECIFICATIONS SET CON_SPEC_NAME=?, CPU=?, MEMORY=?, COST_PER_HOUR=? " +
+			"WHERE CON_SPEC_ID=?";
+
+	public static final String DELETE_CONTAINER_SPEC = "DELETE FROM AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_ID=?";
+
+	public static final String GET_ALL_RUNTIME_CONTAINER_SPECS =
+			"SELECT id, CON_SPEC_ID FROM AC_RUNTIME_CONTAINER_SPECIFICATIONS ORDER BY id, CON_SPEC_ID";
+
+	/* Catalogue Version Queries */
+
+	public static final String GET_CATALOGUE_VERSION = "SELECT version FROM AC_TIER_CATALOGUE_VERSION WHERE id=1";
+
+	public static final String INCREMENT_CATALOGUE_VERSION =
+			"UPDATE AC_TIER_CATALOGUE_VERSION SET version=version+1 WHERE id=1";
+}
@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the statements of {@link SQLQueryConstants} on a connection, binding the parameters in order.
+ *
+ * Statements are prepared from the constant text on every call and closed afterwards. The pooled connections cache
+ * prepared statements by their text, so repeated calls reuse the same prepared statement.
+ */
+public class SQLQueryExecutor {
+
+	private static final Log log = LogFactory.getLog(SQLQueryExecutor.class);
+
+	private SQLQueryExecutor() {
+	}
+
+	/**
+	 * Run a query and map every row.
+	 *
+	 * @param dbConnection connection to run on
+	 * @param sql          statement
+	 * @param mapper       row mapper
+	 * @param parameters   parameters of the statement
+	 * @return the mapped rows
+	 * @throws SQLException
+	 */
+	public static <T> List<T> query(Connection dbConnection, String sql, RowMapper<T> mapper, Object... parameters)
+			throws SQLException {
+		PreparedStatement preparedStatement = dbConnection.prepareStatement(sql);
+		try {
+			bind(preparedStatement, parameters);
+			ResultSet rs = preparedStatement.executeQuery();
+			try {
+				List<T> rows = new ArrayList<T>();
+				while (rs.next()) {
+					rows.add(mapper.mapRow(rs));
+				}
+				return rows;
+			} finally {
+				rs.close();
+			}
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	/**
+	 * Run a query and map its first row.
+	 *
+	 * @param dbConnection connection to run on
+	 * @param sql          statement
+	 * @param mapper       row mapper
+	 * @param parameters   parameters of the statement
+	 * @return the mapped row, or null if there are no rows
+	 * @throws SQLException
+	 */
+	public static <T> T queryForObject(Connection dbConnection, String sql, RowMapper<T> mapper,
+	                                   Object... parameters) throws SQLException {
+		PreparedStatement preparedStatement = dbConnection.prepareStatement(sql);
+		try {
+			bind(preparedStatement, parameters);
+			ResultSet rs = preparedStatement.executeQuery();
+			try {
+				return rs.next() ? mapper.mapRow(rs) : null;
+			} finally {
+				rs.close();
+			}
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	/**
+	 * Run an insert, update or delete.
+	 *
+	 * @param dbConnection connection to run on
+	 * @param sql          statement
+	 * @param parameters   parameters of the statement
+	 * @return the number of affected rows
+	 * @throws SQLException
+	 */
+	public static int update(Connection dbConnection, String sql, Object... parameters) throws SQLException {
+		PreparedStatement preparedStatement = dbConnection.prepareStatement(sql);
+		try {
+			bind(preparedStatement, parameters);
+			return preparedStatement.executeUpdate();
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	/**
+	 * Run an insert into a table with an auto increment key.
+	 *
+	 * @param dbConnection connection to run on
+	 * @param sql          statement
+	 * @param parameters   parameters of the statement
+	 * @return the generated key
+	 * @throws SQLException if the statement failed or did not generate a key
+	 */
+	public static int insert(Connection dbConnection, String sql, Object... parameters) throws SQLException {
+		PreparedStatement preparedStatement = dbConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+		try {
+			bind(preparedStatement, parameters);
+			preparedStatement.executeUpdate();
+			ResultSet rs = preparedStatement.getGeneratedKeys();
+			try {
+				if (!rs.next()) {
+					throw new SQLException("No key was generated by " + sql);
+				}
+				return rs.getInt(1);
+			} finally {
+				rs.close();
+			}
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	/**
+	 * Roll back the transaction of a connection after a failed change. A failure of the rollback itself is only
+	 * logged, so that the failure of the change is the one reported.
+	 *
+	 * @param dbConnection connection of the change, may be null if none could be borrowed
+	 */
+	public static void rollback(Connection dbConnection) {
+		if (dbConnection == null) {
+			return;
+		}
+		try {
+			dbConnection.rollback();
+		} catch (SQLException e) {
+			log.error("Error while rolling back the transaction", e);
+		}
+	}
+
+	private static void bind(PreparedStatement preparedStatement, Object... parameters) throws SQLException {
+		for (int i = 0; i < parameters.length; i++) {
+			preparedStatement.setObject(i + 1, parameters[i]);
+		}
+	}
+}
@@ -19,15 +19,16 @@ package org.wso2.intcloud.tierapi.dao.impl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.catalogue.TierCatalogue;
 import org.wso2.intcloud.tierapi.dao.ContainerSpecsDao;
+import org.wso2.intcloud.tierapi.dao.RowMappers;
+import org.wso2.intcloud.tierapi.dao.SQLQueryConstants;
+import org.wso2.intcloud.tierapi.dao.SQLQueryExecutor;
 import org.wso2.intcloud.tierapi.util.DBConfiguration;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
 @XmlRootElement
@@ -36,223 +37,114 @@ public class ContainerSpecDaoImpl implements ContainerSpecsDao {
 
 	@Override
 	public List<ContainerSpecifications> getAllContainerSpecs() throws SQLException {
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		List<ContainerSpecifications> containerSpecsList = new ArrayList<ContainerSpecifications>();
-		String sql = "select * from AC_CONTAINER_SPECIFICATIONS";
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				ContainerSpecifications containerSpec = new ContainerSpecifications();
-				containerSpec.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpec.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpec.setCpu(rs.getInt("CPU"));
-				containerSpec.setMemory(rs.getInt("MEMORY"));
-				containerSpec.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-				containerSpecsList.add(containerSpec);
-			}
-			rs.close();
-		} catch (SQLException e) {
-			String msg = "Error while getting details of Container Specifications";
-			log.error(msg, e);
-			throw e;
-		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return containerSpecsList;
+		return TierCatalogue.getInstance().getSnapshot().getContainerSpecs();
 	}
 
 	@Override
 	public List<ContainerSpecifications> getContainerSpecByRuntimeID(int runtimeId) throws SQLException {
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		List<ContainerSpecifications> containerSpecsList = new ArrayList<ContainerSpecifications>();
-		String sql = "SELECT * FROM AC_CONTAINER_SPECIFICATIONS JOIN AC_RUNTIME_CONTAINER_SPECIFICATIONS "
-		             + "ON AC_CONTAINER_SPECIFICATIONS.CON_SPEC_ID = AC_RUNTIME_CONTAINER_SPECIFICATIONS.CON_SPEC_ID"
-		             + " WHERE AC_RUNTIME_CONTAINER_SPECIFICATIONS.id =" + runtimeId;
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				ContainerSpecifications containerSpec = new ContainerSpecifications();
-				containerSpec.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpec.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpec.setCpu(rs.getInt("CPU"));
-				containerSpec.setMemory(rs.getInt("MEMORY"));
-				containerSpec.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-				containerSpecsList.add(containerSpec);
-			}
-			rs.close();
-		} catch (SQLException e) {
-			String msg = "Error while getting details of Container Specifications for Runtime ID " + runtimeId;
-			log.error(msg, e);
-			throw e;
-		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return containerSpecsList;
+		return TierCatalogue.getInstance().getSnapshot().getContainerSpecsOfRuntime(runtimeId);
 	}
 
 	@Override
 	public ContainerSpecifications getContainerSpecById(int containerSpecId) throws SQLException {
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		ContainerSpecifications containerSpec = new ContainerSpecifications();
-		String sql = "select * from AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_ID =" + containerSpecId;
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				containerSpec.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpec.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpec.setCpu(rs.getInt("CPU"));
-				containerSpec.setMemory(rs.getInt("MEMORY"));
-				containerSpec.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-			}
-			rs.close();
-		} catch (SQLException e) {
-			String msg =
-					"Error while getting details of Container Specification with the ID" + containerSpecId;
-			log.error(msg, e);
-			throw e;
-		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return containerSpec;
+		ContainerSpecifications containerSpec =
+				TierCatalogue.getInstance().getSnapshot().getContainerSpec(containerSpecId);
+		return containerSpec != null ? containerSpec : new ContainerSpecifications();
 	}
 
 	@Override
 	public ContainerSpecifications defineContainerSpec(ContainerSpecifications containerSpec) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		String sql = "INSERT INTO AC_CONTAINER_SPECIFICATIONS (CON_SPEC_NAME, CPU, MEMORY,COST_PER_HOUR) "
-		             + "VALUES (?, ?, ?, ?)";
+		ContainerSpecifications definedContainerSpec;
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			preparedStatement.setString(1, containerSpec.getConSpecName());
-			preparedStatement.setInt(2, containerSpec.getCpu());
-			preparedStatement.setInt(3, containerSpec.getMemory());
-			preparedStatement.setInt(4, containerSpec.getCostPerHour());
-			preparedStatement.executeUpdate();
-			preparedStatement.close();
-			String sql2 = "select * from AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_NAME= ?";
-			preparedStatement = dbConnection.prepareStatement(sql2);
-			preparedStatement.setString(1, containerSpec.getConSpecName());
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				containerSpec.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpec.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpec.setCpu(rs.getInt("CPU"));
-				containerSpec.setMemory(rs.getInt("MEMORY"));
-				containerSpec.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-			}
+			dbConnection.setAutoCommit(false);
+			int containerSpecId = SQLQueryExecutor.insert(dbConnection, SQLQueryConstants.ADD_CONTAINER_SPEC,
+			                                              containerSpec.getConSpecName(), containerSpec.getCpu(),
+			                                              containerSpec.getMemory(), containerSpec.getCostPerHour());
+			TierCatalogue.getInstance().markChanged(dbConnection);
+
+			definedContainerSpec = SQLQueryExecutor.queryForObject(dbConnection,
+			                                                       SQLQueryConstants.GET_CONTAINER_SPEC_BY_ID,
+			                                                       RowMappers.CONTAINER_SPECIFICATIONS,
+			                                                       containerSpecId);
+			dbConnection.commit();
 		} catch (SQLException e) {
+			SQLQueryExecutor.rollback(dbConnection);
 			String msg = "Error while defining the Container Specifications";
 			log.error(msg, e);
 			throw e;
 		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
-		return containerSpec;
+		TierCatalogue.getInstance().refreshAfterChange();
+		return definedContainerSpec != null ? definedContainerSpec : containerSpec;
 	}
 
 	@Override
 	public boolean deleteContainerSpecById(int containerSpecId) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
 		boolean isDeleted;
-		String sql = "DELETE FROM AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_ID=" + containerSpecId;
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			isDeleted = preparedStatement.executeUpdate() == 1 ? true : false;
+			dbConnection.setAutoCommit(false);
+			isDeleted = SQLQueryExecutor.update(dbConnection, SQLQueryConstants.DELETE_CONTAINER_SPEC,
+			                                    containerSpecId) == 1;
+			if (isDeleted) {
+				TierCatalogue.getInstance().markChanged(dbConnection);
+			}
+			dbConnection.commit();
 		} catch (SQLException e) {
+			SQLQueryExecutor.rollback(dbConnection);
 			String msg =
 					"Error while deleting the Container Specifications with ID " + containerSpecId;
 			log.error(msg, e);
 			throw e;
 		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
+		if (isDeleted) {
+			TierCatalogue.getInstance().refreshAfterChange();
+		}
 		return isDeleted;
 	}
 
 	@Override
 	public ContainerSpecifications updateContainerSpecById(int containerSpecId, ContainerSpecifications containerSpec) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		String sql = "Update AC_CONTAINER_SPECIFICATIONS SET CON_SPEC_NAME=?, CPU= ?, MEMORY=?,"
-		             + "COST_PER_HOUR=? WHERE CON_SPEC_ID = ?";
+		ContainerSpecifications updatedContainerSpec;
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			preparedStatement.setString(1, containerSpec.getConSpecName());
-			preparedStatement.setInt(2, containerSpec.getCpu());
-			preparedStatement.setInt(3, containerSpec.getMemory());
-			preparedStatement.setInt(4, containerSpec.getCostPerHour());
-			preparedStatement.setInt(5, containerSpecId);
-			preparedStatement.executeUpdate();
-			preparedStatement.close();
-			String sql2 = "select * from AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_ID= ?";
-			preparedStatement = dbConnection.prepareStatement(sql2);
-			preparedStatement.setInt(1, containerSpecId);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				containerSpec.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpec.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpec.setCpu(rs.getInt("CPU"));
-				containerSpec.setMemory(rs.getInt("MEMORY"));
-				containerSpec.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-			}
+			dbConnection.setAutoCommit(false);
+			SQLQueryExecutor.update(dbConnection, SQLQueryConstants.UPDATE_CONTAINER_SPEC,
+			                        containerSpec.getConSpecName(), containerSpec.getCpu(), containerSpec.getMemory(),
+			                        containerSpec.getCostPerHour(), containerSpecId);
+			TierCatalogue.getInstance().markChanged(dbConnection);
+
+			updatedContainerSpec = SQLQueryExecutor.queryForObject(dbConnection,
+			                                                       SQLQueryConstants.GET_CONTAINER_SPEC_BY_ID,
+			                                                       RowMappers.CONTAINER_SPECIFICATIONS,
+			                                                       containerSpecId);
+			dbConnection.commit();
 		} catch (SQLException e) {
+			SQLQueryExecutor.rollback(dbConnection);
 			String msg =
 					"Error while Updating the Container Specifications with ID " + containerSpecId;
 			log.error(msg, e);
 			throw e;
 		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
-		return containerSpec;
+		TierCatalogue.getInstance().refreshAfterChange();
+		return updatedContainerSpec != null ? updatedContainerSpec : containerSpec;
 	}
 }
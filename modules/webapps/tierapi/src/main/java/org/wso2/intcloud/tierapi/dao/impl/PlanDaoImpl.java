@@ -20,17 +20,17 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
 import org.wso2.intcloud.tierapi.bean.Plan;
+import org.wso2.intcloud.tierapi.catalogue.TierCatalogue;
 import org.wso2.intcloud.tierapi.dao.PlanDao;
+import org.wso2.intcloud.tierapi.dao.RowMappers;
+import org.wso2.intcloud.tierapi.dao.SQLQueryConstants;
+import org.wso2.intcloud.tierapi.dao.SQLQueryExecutor;
 import org.wso2.intcloud.tierapi.util.DBConfiguration;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
 
 @XmlRootElement
 public class PlanDaoImpl implements PlanDao {
@@ -39,225 +39,110 @@ public class PlanDaoImpl implements PlanDao {
 
 	@Override
 	public List<Plan> getAllPlans() throws SQLException{
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-
-		List<Plan> plans = new ArrayList<Plan>();
-		String sql = "select * from AC_SUBSCRIPTION_PLANS";
-
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-
-
-			preparedStatement = dbConnection.prepareStatement(sql);
-			ResultSet rs = preparedStatement.executeQuery();
-
-			while (rs.next()) {
-				Plan plan = new Plan();
-				plan.setId(rs.getInt("PLAN_ID"));
-				plan.setPlanName(rs.getString("PLAN_NAME"));
-				plan.setMaxApplications(rs.getInt("MAX_APPLICATIONS"));
-
-				plans.add(plan);
-			}
-		} catch (SQLException e) {
-			String msg = "Error while getting details of Plans";
-			log.error(msg, e);
-			throw e;
-		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return plans;
+		return TierCatalogue.getInstance().getSnapshot().getPlans();
 	}
 
 	@Override
 	public Plan getPlanByPlanId(int planId) throws SQLException {
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		Logger log = Logger.getLogger(PlanDaoImpl.class.getName());
-		Plan plan = new Plan();
-		String sql = "select * from AC_SUBSCRIPTION_PLANS WHERE PLAN_ID ="+planId;
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				plan.setId(rs.getInt("PLAN_ID"));
-				plan.setPlanName(rs.getString("PLAN_NAME"));
-				plan.setMaxApplications(rs.getInt("MAX_APPLICATIONS"));
-			}
-			rs.close();
-		} catch (SQLException e) {
-			String msg = "Error while getting details of Plan with ID "+planId;
-			throw e;
-		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return plan;
+		Plan plan = TierCatalogue.getInstance().getSnapshot().getPlan(planId);
+		return plan != null ? plan : new Plan();
 	}
 
 	@Override
 	public Plan definePlan(Plan plan) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-
-		String sql = "INSERT INTO AC_SUBSCRIPTION_PLANS (PLAN_NAME, TEAM, MAX_INSTANCES) VALUES (?, ?)";
+		Plan definedPlan;
 
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			preparedStatement.setString(1, plan.getPlanName());
-			preparedStatement.setInt(2, plan.getMaxApplications());
-
-			preparedStatement.executeUpdate();
-			preparedStatement.close();
-
-			String sql2 = "select * from AC_SUBSCRIPTION_PLANS WHERE PLAN_NAME= ?";
-			preparedStatement= dbConnection.prepareStatement(sql2);
-			preparedStatement.setString(1, plan.getPlanName());
-			ResultSet rs = preparedStatement.executeQuery();
-
-			while (rs.next()) {
-				plan.setId(rs.getInt("PLAN_ID"));
-				plan.setPlanName(rs.getString("PLAN_NAME"));
-				plan.setMaxApplications(rs.getInt("MAX_APPLICATIONS"));
-			}
-
+			dbConnection.setAutoCommit(false);
+			int planId = SQLQueryExecutor.insert(dbConnection, SQLQueryConstants.ADD_PLAN, plan.getPlanName(),
+			                                     plan.getMaxApplications());
+			TierCatalogue.getInstance().markChanged(dbConnection);
+
+			definedPlan = SQLQueryExecutor.queryForObject(dbConnection, SQLQueryConstants.GET_PLAN_BY_ID,
+			                                              RowMappers.PLAN, planId);
+			dbConnection.commit();
 		} catch (SQLException e) {
+			SQLQueryExecutor.rollback(dbConnection);
 			String msg = "Error while adding the Plans to Data Base";
 			log.error(msg, e);
 			throw e;
 		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
-		return plan;
+		TierCatalogue.getInstance().refreshAfterChange();
+		return definedPlan != null ? definedPlan : plan;
 	}
 
 	@Override
 	public boolean deletePlanById(int planId) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
 		boolean isDeleted;
-		String sql = "DELETE FROM AC_SUBSCRIPTION_PLANS WHERE PLAN_ID="+planId;
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-			isDeleted = preparedStatement.executeUpdate() == 1 ? true : false;
+			dbConnection.setAutoCommit(false);
+			isDeleted = SQLQueryExecutor.update(dbConnection, SQLQueryConstants.DELETE_PLAN, planId) == 1;
+			if (isDeleted) {
+				TierCatalogue.getInstance().markChanged(dbConnection);
+			}
+			dbConnection.commit();
 		} catch (SQLException e) {
-			String msg = "Error while deleting the Plan with ID "+planId+"from Data Base";
+			SQLQueryExecutor.rollback(dbConnection);
+			String msg = "Error while deleting the Plan with ID " + planId + " from Data Base";
 			log.error(msg, e);
 			throw e;
 		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
+		if (isDeleted) {
+			TierCatalogue.getInstance().refreshAfterChange();
+		}
 		return isDeleted;
 	}
 
 	@Override
 	public Plan updatePlanById(int planId, Plan plan) throws SQLException {
 		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		String sql = "Update AC_SUBSCRIPTION_PLANS SET PLAN_NAME=?, MAX_INSTANCES=?, WHERE PLAN_ID = ?";
+		Plan updatedPlan;
 		try {
 			DBConfiguration dbCon = new DBConfiguration();
 			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sql);
-
-			preparedStatement.setString(1, plan.getPlanName());
-			preparedStatement.setInt(2, plan.getMaxApplications());
-			preparedStatement.setInt(3, planId);
-			preparedStatement.executeUpdate();
-			preparedStatement.close();
-
-			String sql2 = "select * from AC_SUBSCRIPTION_PLANS WHERE PLAN_ID= ?";
-			preparedStatement = dbConnection.prepareStatement(sql2);
-			preparedStatement.setInt(1, planId);
-			ResultSet rs = preparedStatement.executeQuery();
-
-			while (rs.next()) {
-				plan.setId(rs.getInt("PLAN_ID"));
-				plan.setPlanName(rs.getString("PLAN_NAME"));
-				plan.setMaxApplications(rs.getInt("MAX_APPLICATIONS"));
-			}
+			dbConnection.setAutoCommit(false);
+			SQLQueryExecutor.update(dbConnection, SQLQueryConstants.UPDATE_PLAN, plan.getPlanName(),
+			                        plan.getMaxApplications(), planId);
+			TierCatalogue.getInstance().markChanged(dbConnection);
+
+			updatedPlan = SQLQueryExecutor.queryForObject(dbConnection, SQLQueryConstants.GET_PLAN_BY_ID,
+			                                              RowMappers.PLAN, planId);
+			dbConnection.commit();
 		} catch (SQLException e) {
-			String msg = "Error while updating the Plan with ID "+planId+"from Data Base";
+			SQLQueryExecutor.rollback(dbConnection);
+			String msg = "Error while updating the Plan with ID " + planId + " from Data Base";
 			log.error(msg, e);
 			throw e;
 		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
 			if (dbConnection != null) {
 				dbConnection.close();
 			}
 		}
-		return plan;
+		TierCatalogue.getInstance().refreshAfterChange();
+		return updatedPlan != null ? updatedPlan : plan;
 	}
 
 	@Override
 	public List<ContainerSpecifications> getAllowedConSpecs(int planId) throws SQLException {
-		Connection dbConnection = null;
-		PreparedStatement preparedStatement = null;
-		List<ContainerSpecifications> allowedContainerSpecs = new ArrayList<ContainerSpecifications>();
-		String sqlAllContainerSpecs = "select * from AC_CONTAINER_SPECIFICATIONS WHERE CON_SPEC_ID NOT IN "
-		                              + "(SELECT CON_SPEC_ID FROM AC_SUBSCRIPTION_PLANS JOIN RestrictedPlanContainerSpecs ON"
-		                              + " AC_SUBSCRIPTION_PLANS.PLAN_ID = RestrictedPlanContainerSpecs.PLAN_ID WHERE"
-		                              + " RestrictedPlanContainerSpecs.PLAN_ID ="+planId+")";
-		try {
-			DBConfiguration dbCon = new DBConfiguration();
-			dbConnection = dbCon.getConnection();
-			preparedStatement = dbConnection.prepareStatement(sqlAllContainerSpecs);
-			ResultSet rs = preparedStatement.executeQuery();
-			while (rs.next()) {
-				ContainerSpecifications containerSpecification = new ContainerSpecifications();
-				containerSpecification.setId(rs.getInt("CON_SPEC_ID"));
-				containerSpecification.setConSpecName(rs.getString("CON_SPEC_NAME"));
-				containerSpecification.setCpu(rs.getInt("CPU"));
-				containerSpecification.setMemory(rs.getInt("MEMORY"));
-				containerSpecification.setCostPerHour(rs.getInt("COST_PER_HOUR"));
-				allowedContainerSpecs.add(containerSpecification);
-			}
-		} catch (SQLException e) {
-			String msg = "Error while getting details of container specifications that are allowed in Plan "
-			             + "with ID the Plan with ID "+planId;
-			log.error(msg, e);
-			throw e;
-		} finally {
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			if (dbConnection != null) {
-				dbConnection.close();
-			}
-		}
-		return allowedContainerSpecs;
+		return TierCatalogue.getInstance().getSnapshot().getAllowedContainerSpecs(planId);
+	}
+
+	@Override
+	public boolean isAllowed(int planId, int conSpecId) throws SQLException {
+		return TierCatalogue.getInstance().getSnapshot().isAllowed(planId, conSpecId);
 	}
 }
@@ -0,0 +1,170 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.server;
+
+import org.wso2.intcloud.tierapi.catalogue.CatalogueSnapshot;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builds the responses of the catalogue resources.
+ *
+ * The catalogue version together with the negotiated media type is the entity tag and the snapshot load time the
+ * last modified time of every resource, so a revalidation is answered with 304 from the snapshot alone. The media
+ * type is part of the tag since the JSON and XML representations of a resource differ byte for byte. Serialized
+ * entities are cached per resource and media type until the snapshot is replaced.
+ */
+final class CatalogueResponses {
+
+	private static final MediaType[] MEDIA_TYPES = {MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE};
+	private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+	// Bounds the entities kept for ids which are looked up but do not exist
+	private static final int MAX_CACHED_ENTITIES = 1024;
+
+	private static volatile EntityCache entityCache = new EntityCache(null);
+
+	private CatalogueResponses() {
+	}
+
+	/**
+	 * Get the 304 or 412 response for a conditional request.
+	 *
+	 * @param request  the request
+	 * @param headers  headers of the request
+	 * @param snapshot current catalogue snapshot
+	 * @return the response, or null if the entity has to be sent
+	 */
+	static Response evaluatePreconditions(Request request, HttpHeaders headers, CatalogueSnapshot snapshot) {
+		MediaType mediaType = selectMediaType(headers);
+		Response.ResponseBuilder builder = request.evaluatePreconditions(new Date(snapshot.getLoadedAt()),
+		                                                                 getEntityTag(snapshot, mediaType));
+		if (builder == null) {
+			return null;
+		}
+		return builder.cacheControl(getCacheControl()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+	}
+
+	/**
+	 * Get the response carrying a catalogue entity, serialized once per snapshot for each media type.
+	 *
+	 * @param snapshot  catalogue snapshot the entity was read from
+	 * @param resource  key of the resource, unique among the catalogue resources
+	 * @param entity    the entity
+	 * @param headers   headers of the request
+	 * @param providers providers to serialize with
+	 * @return the response
+	 * @throws IOException if the entity could not be serialized
+	 */
+	static Response ok(CatalogueSnapshot snapshot, String resource, GenericEntity<?> entity, HttpHeaders headers,
+	                   Providers providers) throws IOException {
+
+		MediaType mediaType = selectMediaType(headers);
+		EntityCache cache = entityCache;
+		if (cache.snapshot != snapshot) {
+			cache = new EntityCache(snapshot);
+			entityCache = cache;
+		}
+
+		String key = resource + ' ' + mediaType;
+		byte[] serialized = cache.entities.get(key);
+		if (serialized == null) {
+			serialized = serialize(entity, mediaType, providers);
+			if (serialized == null) {
+				return build(Response.ok(entity, mediaType), snapshot, mediaType);
+			}
+			if (cache.entities.size() < MAX_CACHED_ENTITIES) {
+				cache.entities.putIfAbsent(key, serialized);
+			}
+		}
+		return build(Response.ok(serialized, mediaType), snapshot, mediaType);
+	}
+
+	private static Response build(Response.ResponseBuilder builder, CatalogueSnapshot snapshot,
+	                              MediaType mediaType) {
+		return builder.tag(getEntityTag(snapshot, mediaType))
+		              .lastModified(new Date(snapshot.getLoadedAt()))
+		              .cacheControl(getCacheControl())
+		              .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+		              .build();
+	}
+
+	private static EntityTag getEntityTag(CatalogueSnapshot snapshot, MediaType mediaType) {
+		return new EntityTag(snapshot.getVersion() + "-" + mediaType.getSubtype());
+	}
+
+	private static CacheControl getCacheControl() {
+		// Let gateways keep the entity but revalidate it on every use
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setNoCache(true);
+		return cacheControl;
+	}
+
+	private static MediaType selectMediaType(HttpHeaders headers) {
+		// The acceptable media types are sorted by preference
+		for (MediaType acceptable : headers.getAcceptableMediaTypes()) {
+			for (MediaType mediaType : MEDIA_TYPES) {
+				if (acceptable.isCompatible(mediaType)) {
+					return mediaType;
+				}
+			}
+		}
+		return MEDIA_TYPES[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static byte[] serialize(GenericEntity<?> entity, MediaType mediaType, Providers providers)
+			throws IOException {
+
+		MessageBodyWriter writer = providers.getMessageBodyWriter(entity.getRawType(), entity.getType(),
+		                                                          NO_ANNOTATIONS, mediaType);
+		if (writer == null) {
+			return null;
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writer.writeTo(entity.getEntity(), entity.getRawType(), entity.getType(), NO_ANNOTATIONS, mediaType,
+		               new MultivaluedHashMap<String, Object>(), outputStream);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Serialized entities of one catalogue snapshot.
+	 */
+	private static final class EntityCache {
+
+		private final CatalogueSnapshot snapshot;
+		private final ConcurrentMap<String, byte[]> entities = new ConcurrentHashMap<String, byte[]>();
+
+		private EntityCache(CatalogueSnapshot snapshot) {
+			this.snapshot = snapshot;
+		}
+	}
+}
@@ -17,21 +17,35 @@
 package org.wso2.intcloud.tierapi.server;
 
 import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
-import org.wso2.intcloud.tierapi.dao.impl.ContainerSpecDaoImpl;
-import org.wso2.intcloud.tierapi.delegate.DAOdelegate;
+import org.wso2.intcloud.tierapi.catalogue.CatalogueSnapshot;
+import org.wso2.intcloud.tierapi.catalogue.TierCatalogue;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
 @Path("/containerSpecs")
 public class ContainerSpecSrvice {
 
-	private ContainerSpecDaoImpl ContainerSpecInstance = (ContainerSpecDaoImpl) DAOdelegate.getContainerSpecInstance();
+	@Context
+	private Request request;
+
+	@Context
+	private HttpHeaders headers;
+
+	@Context
+	private Providers providers;
 
 	/*
 	 * Get all Container Specifications.
@@ -39,9 +53,16 @@ public class ContainerSpecSrvice {
 	 */
 	@GET
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public List<ContainerSpecifications> getContainerSpecifications() throws SQLException {
-
-		return ContainerSpecInstance.getAllContainerSpecs();
+	public Response getContainerSpecifications() throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		return CatalogueResponses.ok(snapshot, "containerSpecs",
+		                             new GenericEntity<List<ContainerSpecifications>>(
+				                             snapshot.getContainerSpecs()) {
+		                             }, headers, providers);
 	}
 
 	/*
@@ -52,9 +73,18 @@ public class ContainerSpecSrvice {
 	@GET
 	@Path("/{containerSpecId}")
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public ContainerSpecifications getContainerSpecification(@PathParam("containerSpecId") int containerSpecId) throws SQLException {
-
-		return ContainerSpecInstance.getContainerSpecById(containerSpecId);
+	public Response getContainerSpecification(@PathParam("containerSpecId") int containerSpecId)
+			throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		ContainerSpecifications containerSpec = snapshot.getContainerSpec(containerSpecId);
+		return CatalogueResponses.ok(snapshot, "containerSpecs/" + containerSpecId,
+		                             new GenericEntity<ContainerSpecifications>(
+				                             containerSpec != null ? containerSpec : new ContainerSpecifications()) {
+		                             }, headers, providers);
 	}
 
 	/*
@@ -65,9 +95,17 @@ public class ContainerSpecSrvice {
 	@GET
 	@Path("allowedruntime/{runTimeId}")
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public List<ContainerSpecifications> getContainerSpecificationbyRuntimeId(@PathParam("runTimeId") int runtimeId) throws SQLException {
-
-		return ContainerSpecInstance.getContainerSpecByRuntimeID(runtimeId);
+	public Response getContainerSpecificationbyRuntimeId(@PathParam("runTimeId") int runtimeId)
+			throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		return CatalogueResponses.ok(snapshot, "containerSpecs/allowedruntime/" + runtimeId,
+		                             new GenericEntity<List<ContainerSpecifications>>(
+				                             snapshot.getContainerSpecsOfRuntime(runtimeId)) {
+		                             }, headers, providers);
 	}
 
 }
@@ -18,21 +18,35 @@ package org.wso2.intcloud.tierapi.server;
 
 import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
 import org.wso2.intcloud.tierapi.bean.Plan;
-import org.wso2.intcloud.tierapi.dao.impl.PlanDaoImpl;
-import org.wso2.intcloud.tierapi.delegate.DAOdelegate;
+import org.wso2.intcloud.tierapi.catalogue.CatalogueSnapshot;
+import org.wso2.intcloud.tierapi.catalogue.TierCatalogue;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
 @Path("/plans")
 public class PlanService {
 
-	private PlanDaoImpl planInstance = (PlanDaoImpl) DAOdelegate.getPlanInstance();
+	@Context
+	private Request request;
+
+	@Context
+	private HttpHeaders headers;
+
+	@Context
+	private Providers providers;
 
 	/*
 	 * Get all Plans
@@ -40,8 +54,14 @@ public class PlanService {
 	 */
 	@GET
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public List<Plan> getPlans() throws SQLException {
-		return planInstance.getAllPlans();
+	public Response getPlans() throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		return CatalogueResponses.ok(snapshot, "plans", new GenericEntity<List<Plan>>(snapshot.getPlans()) {
+		}, headers, providers);
 	}
 
 	/*
@@ -52,14 +72,30 @@ public class PlanService {
 	@GET
 	@Path("/{planId}")
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public Plan getPlan(@PathParam("planId") int planId) throws SQLException {
-		return planInstance.getPlanByPlanId(planId);
+	public Response getPlan(@PathParam("planId") int planId) throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		Plan plan = snapshot.getPlan(planId);
+		return CatalogueResponses.ok(snapshot, "plans/" + planId,
+		                             new GenericEntity<Plan>(plan != null ? plan : new Plan()) {
+		                             }, headers, providers);
 	}
 
 	@GET
 	@Path("/allowedSpecs/{planId}")
 	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-	public List<ContainerSpecifications> getAllowedConSpecs(@PathParam("planId") int planId) throws SQLException {
-		return planInstance.getAllowedConSpecs(planId);
+	public Response getAllowedConSpecs(@PathParam("planId") int planId) throws SQLException, IOException {
+		CatalogueSnapshot snapshot = TierCatalogue.getInstance().getSnapshot();
+		Response notModified = CatalogueResponses.evaluatePreconditions(request, headers, snapshot);
+		if (notModified != null) {
+			return notModified;
+		}
+		return CatalogueResponses.ok(snapshot, "plans/allowedSpecs/" + planId,
+		                             new GenericEntity<List<ContainerSpecifications>>(
+				                             snapshot.getAllowedContainerSpecs(planId)) {
+		                             }, headers, providers);
 	}
 }
@@ -0,0 +1,44 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.server;
+
+import org.wso2.intcloud.tierapi.bean.PoolStatistics;
+import org.wso2.intcloud.tierapi.util.DataSourceJDBC;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+@Path("/pool")
+public class PoolService {
+
+	/*
+	 * Get the state of the database connection pool
+	 * @return                  Return the pool size, active, idle and waiting connection counts and limits
+	 */
+	@GET
+	@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+	public PoolStatistics getPoolStatistics() {
+		PoolStatistics statistics = DataSourceJDBC.getPoolStatistics();
+		if (statistics == null) {
+			throw new NotFoundException("Connection pool statistics are not available");
+		}
+		return statistics;
+	}
+}
@@ -16,25 +16,21 @@
 
 package org.wso2.intcloud.tierapi.util;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
 import java.sql.Connection;
+import java.sql.SQLException;
 
 public class DBConfiguration {
 
-	private static final Log log = LogFactory.getLog(DBConfiguration.class);
-
-	public Connection getConnection() {
-		try {
-			Class.forName("com.mysql.jdbc.Driver");
-			Connection con = DataSourceJDBC.getConnection();
-			return con;
-		} catch (Exception e) {
-			String msg =
-					"Error while connecting to Data Base ";
-			log.error(msg, e);
+	/**
+	 * Borrow a connection from the pool. The JDBC driver is loaded by the pool when it creates connections.
+	 *
+	 * @throws SQLException if the data source is not available or no connection could be borrowed
+	 */
+	public Connection getConnection() throws SQLException {
+		Connection dbConnection = DataSourceJDBC.getConnection();
+		if (dbConnection == null) {
+			throw new SQLException("Could not get a connection to the Data Base");
 		}
-		return null;
+		return dbConnection;
 	}
-}
\ No newline at end of file
+}
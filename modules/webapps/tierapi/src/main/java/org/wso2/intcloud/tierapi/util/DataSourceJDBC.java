@@ -19,6 +19,8 @@ package org.wso2.intcloud.tierapi.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.naming.SelectorContext;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.wso2.intcloud.tierapi.bean.PoolStatistics;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -32,18 +34,44 @@ public class DataSourceJDBC {
 
 	private static final Log log = LogFactory.getLog(DataSourceJDBC.class);
 
+	private static final String DATA_SOURCE_NAME = "jdbc/WSO2IntCloud";
+
+	private static volatile DataSource dataSource;
+
+	/**
+	 * Use the given data source instead of the one looked up through JNDI, for running the DAOs outside of the
+	 * container such as in benchmarks.
+	 *
+	 * @param dataSource data source to borrow connections from
+	 */
+	public static void setDataSource(DataSource dataSource) {
+		DataSourceJDBC.dataSource = dataSource;
+	}
+
+	/**
+	 * Get the pooled data source of the webapp. It is looked up through JNDI once and shared by all requests.
+	 *
+	 * @return the data source
+	 * @throws NamingException if the data source is not bound
+	 */
+	public static DataSource getDataSource() throws NamingException {
+		DataSource ds = dataSource;
+		if (ds == null) {
+			synchronized (DataSourceJDBC.class) {
+				ds = dataSource;
+				if (ds == null) {
+					ds = lookupDataSource();
+					dataSource = ds;
+				}
+			}
+		}
+		return ds;
+	}
+
 	public static Connection getConnection() {
 		Connection conn = null;
 		try {
-			Context initCtx = new InitialContext();
-			SelectorContext selectorContext =
-					new SelectorContext((Hashtable<String, Object>) initCtx.getEnvironment(), false);
-			Context envCtx = (Context) selectorContext.lookup("java:comp/env");
-
-			DataSource ds = (DataSource)
-					envCtx.lookup("jdbc/WSO2IntCloud");
-
-			conn = ds.getConnection();
+			conn = getDataSource().getConnection();
 
 		} catch (NamingException e) {
 			String msg =
@@ -56,4 +84,44 @@ public class DataSourceJDBC {
 		}
 		return conn;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Get the current state of the connection pool.
+	 *
+	 * @return the pool statistics, or null if the data source is not a Tomcat JDBC pool
+	 */
+	public static PoolStatistics getPoolStatistics() {
+		DataSource ds;
+		try {
+			ds = getDataSource();
+		} catch (NamingException e) {
+			String msg =
+					"Error while connecting to Data Source ";
+			log.error(msg, e);
+			return null;
+		}
+		if (!(ds instanceof DataSourceProxy)) {
+			return null;
+		}
+
+		DataSourceProxy pool = (DataSourceProxy) ds;
+		PoolStatistics statistics = new PoolStatistics();
+		statistics.setSize(pool.getSize());
+		statistics.setActive(pool.getActive());
+		statistics.setIdle(pool.getIdle());
+		statistics.setWaiting(pool.getWaitCount());
+		statistics.setMaxActive(pool.getMaxActive());
+		statistics.setMaxIdle(pool.getMaxIdle());
+		statistics.setMinIdle(pool.getMinIdle());
+		return statistics;
+	}
+
+	private static DataSource lookupDataSource() throws NamingException {
+		Context initCtx = new InitialContext();
+		SelectorContext selectorContext =
+				new SelectorContext((Hashtable<String, Object>) initCtx.getEnvironment(), false);
+		Context envCtx = (Context) selectorContext.lookup("java:comp/env");
+
+		return (DataSource) envCtx.lookup(DATA_SOURCE_NAME);
+	}
+}
@@ -0,0 +1,156 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.intcloud.tierapi.catalogue;
+
+import org.junit.Test;
+import org.wso2.intcloud.tierapi.bean.ContainerSpecifications;
+import org.wso2.intcloud.tierapi.bean.Plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AllowedSpecMatrixTest {
+
+	private static final List<Plan> PLANS = Arrays.asList(plan(1), plan(2));
+
+	@Test
+	public void restrictedSpecsAreNotAllowed() {
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                 restrictions(1, 20, 30), null);
+
+		assertTrue(matrix.isAllowed(1, 10));
+		assertFalse(matrix.isAllowed(1, 20));
+		assertFalse(matrix.isAllowed(1, 30));
+		assertTrue(matrix.isAllowed(2, 20));
+		assertEquals(Collections.singletonList(10), ids(matrix.getAllowed(1)));
+		assertEquals(Arrays.asList(10, 20, 30), ids(matrix.getAllowed(2)));
+	}
+
+	@Test
+	public void unknownPlansAllowEverySpec() {
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20), restrictions(1, 20), null);
+
+		assertTrue(matrix.isAllowed(3, 20));
+		assertEquals(Arrays.asList(10, 20), ids(matrix.getAllowed(3)));
+	}
+
+	@Test
+	public void unknownSpecsAreNotAllowed() {
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20), restrictions(1, 40), null);
+
+		assertFalse(matrix.isAllowed(2, 40));
+		assertEquals(Arrays.asList(10, 20), ids(matrix.getAllowed(1)));
+	}
+
+	@Test
+	public void unchangedRowsAnswerAsBefore() {
+		AllowedSpecMatrix previous = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                   restrictions(1, 20), null);
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                 restrictions(1, 20), previous);
+
+		assertFalse(matrix.isAllowed(1, 20));
+		assertTrue(matrix.isAllowed(2, 20));
+		// The list views are rebuilt from the reloaded beans
+		assertEquals(Arrays.asList(10, 30), ids(matrix.getAllowed(1)));
+		assertSameAnswers(new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30), restrictions(1, 20), null),
+		                  matrix, 10, 20, 30);
+	}
+
+	@Test
+	public void changedRestrictionsAreNotTakenFromPreviousMatrix() {
+		AllowedSpecMatrix previous = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                   restrictions(1, 20), null);
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                 restrictions(1, 30), previous);
+
+		assertTrue(matrix.isAllowed(1, 20));
+		assertFalse(matrix.isAllowed(1, 30));
+		assertSameAnswers(new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30), restrictions(1, 30), null),
+		                  matrix, 10, 20, 30);
+		// Rebuilding must not change the answers of the previous snapshot
+		assertFalse(previous.isAllowed(1, 20));
+		assertTrue(previous.isAllowed(1, 30));
+	}
+
+	@Test
+	public void renumberedSpecsAreNotTakenFromPreviousMatrix() {
+		AllowedSpecMatrix previous = new AllowedSpecMatrix(PLANS, containerSpecs(10, 20, 30),
+		                                                   restrictions(1, 30), null);
+		AllowedSpecMatrix matrix = new AllowedSpecMatrix(PLANS, containerSpecs(10, 15, 20, 30),
+		                                                 restrictions(1, 30), previous);
+
+		assertTrue(matrix.isAllowed(1, 15));
+		assertTrue(matrix.isAllowed(1, 20));
+		assertFalse(matrix.isAllowed(1, 30));
+		assertEquals(Arrays.asList(10, 15, 20), ids(matrix.getAllowed(1)));
+		assertSameAnswers(new AllowedSpecMatrix(PLANS, containerSpecs(10, 15, 20, 30), restrictions(1, 30), null),
+		                  matrix, 10, 15, 20, 30);
+	}
+
+	private static void assertSameAnswers(AllowedSpecMatrix expected, AllowedSpecMatrix actual,
+	                                      int... containerSpecIds) {
+		for (Plan plan : PLANS) {
+			for (int containerSpecId : containerSpecIds) {
+				assertEquals("plan " + plan.getId() + " spec " + containerSpecId,
+				             expected.isAllowed(plan.getId(), containerSpecId),
+				             actual.isAllowed(plan.getId(), containerSpecId));
+			}
+			assertEquals(ids(expected.getAllowed(plan.getId())), ids(actual.getAllowed(plan.getId())));
+		}
+	}
+
+	private static Plan plan(int id) {
+		Plan plan = new Plan("plan" + id, 10);
+		plan.setId(id);
+		return plan;
+	}
+
+	private static List<ContainerSpecifications> containerSpecs(int... ids) {
+		List<ContainerSpecifications> containerSpecs = new ArrayList<ContainerSpecifications>();
+		for (int id : ids) {
+			ContainerSpecifications containerSpec = new ContainerSpecifications("spec" + id, 1, 512, 0, 1);
+			containerSpec.setId(id);
+			containerSpecs.add(containerSpec);
+		}
+		return containerSpecs;
+	}
+
+	private static Map<Integer, Set<Integer>> restrictions(int planId, Integer... containerSpecIds) {
+		Map<Integer, Set<Integer>> restrictions = new HashMap<Integer, Set<Integer>>();
+		restrictions.put(planId, new HashSet<Integer>(Arrays.asList(containerSpecIds)));
+		return restrictions;
+	}
+
+	private static List<Integer> ids(List<ContainerSpecifications> containerSpecs) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (ContainerSpecifications containerSpec : containerSpecs) {
+			ids.add(containerSpec.getId());
+		}
+		return ids;
+	}
+}